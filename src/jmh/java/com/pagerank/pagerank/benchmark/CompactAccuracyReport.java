@@ -0,0 +1,95 @@
+package com.pagerank.pagerank.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import com.pagerank.pagerank.engine.CompactPowerIteration;
+import com.pagerank.pagerank.engine.ComputationOutcome;
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.PowerIteration;
+import com.pagerank.pagerank.engine.WeightPrecision;
+
+/**
+ * Reporte de precision de los modos compactos ({@link WeightPrecision#FLOAT},
+ * {@link WeightPrecision#FIXED16}) contra el motor {@code double} sobre los mismos grafos sinteticos
+ * de {@link PageRankBenchmarks}: error L1 y maximo, coincidencias del top-100, iteraciones y heap
+ * retenido por el grafo (armado con los pesos entrantes en esa precision) mas el motor tras resolver,
+ * medido despues de un GC como en el proceso residente (en grafos chicos domina el ruido del GC).
+ * <p>
+ * {@code ./gradlew accuracyReport} (tamanios con {@code -PjmhEdges=10000,1000000}).
+ */
+public final class CompactAccuracyReport {
+
+	private static final double DAMPING = 0.85;
+	private static final double EPSILON = 0.000001;
+	private static final int MAX_ITERS = 50;
+	private static final int TOP = 100;
+
+	private CompactAccuracyReport() {
+	}
+
+	public static void main(String[] args) {
+		String[] sizes = args.length > 0 ? args : new String[] { "10000", "100000", "1000000" };
+		System.out.printf("%-10s %-8s %6s %12s %12s %8s %10s%n", "edges", "mode", "iters", "L1", "max", "top" + TOP,
+				"heapMB");
+		for (String size : sizes) {
+			SyntheticGraph data = SyntheticGraph.powerLaw(Integer.parseInt(size.trim()), 42L);
+			long baseline = usedHeap();
+			CsrGraph graph = data.toCsr();
+			PowerIteration engine = new PowerIteration(DAMPING, EPSILON);
+			ComputationOutcome reference = engine.compute(graph, null, MAX_ITERS, null);
+			long heap = usedHeap() - baseline;
+			print(graph.edgeCount(), WeightPrecision.DOUBLE, reference, reference.scores(), heap);
+			for (WeightPrecision precision : new WeightPrecision[] { WeightPrecision.FLOAT, WeightPrecision.FIXED16 }) {
+				baseline = usedHeap();
+				CsrGraph compact = data.toCsr(precision);
+				CompactPowerIteration compactEngine = new CompactPowerIteration(DAMPING, EPSILON, precision, null);
+				ComputationOutcome outcome = compactEngine.compute(compact, null, MAX_ITERS, null);
+				heap = usedHeap() - baseline;
+				print(compact.edgeCount(), precision, outcome, reference.scores(), heap);
+				// El motor (con sus vectores por nodo en cache) tiene que seguir vivo al medir.
+				Reference.reachabilityFence(compactEngine);
+			}
+		}
+	}
+
+	/**
+	 * Heap ocupado despues de forzar el recolector: lo que retienen las referencias vivas.
+	 *
+	 * @return bytes usados del heap.
+	 */
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static void print(int edges, WeightPrecision precision, ComputationOutcome outcome, double[] reference,
+			long heapBytes) {
+		double[] scores = outcome.scores();
+		double l1 = 0.0;
+		double max = 0.0;
+		for (int i = 0; i < scores.length; i++) {
+			double error = Math.abs(scores[i] - reference[i]);
+			l1 += error;
+			max = Math.max(max, error);
+		}
+		Set<Integer> expectedTop = new HashSet<>(Arrays.asList(top(reference)));
+		long overlap = Arrays.stream(top(scores)).filter(expectedTop::contains).count();
+		System.out.printf("%-10d %-8s %6d %12.3e %12.3e %5d/%d %10.1f%n", edges, precision.label(), outcome.iterations(),
+				l1, max, overlap, Math.min(TOP, scores.length), heapBytes / (1024.0 * 1024.0));
+	}
+
+	private static Integer[] top(double[] scores) {
+		return IntStream.range(0, scores.length).boxed()
+				.sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+				.limit(TOP)
+				.toArray(Integer[]::new);
+	}
+}
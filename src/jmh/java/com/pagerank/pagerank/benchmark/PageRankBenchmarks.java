@@ -0,0 +1,176 @@
+package com.pagerank.pagerank.benchmark;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pagerank.pagerank.engine.AdaptivePowerIteration;
+import com.pagerank.pagerank.engine.CompactPowerIteration;
+import com.pagerank.pagerank.engine.ComputationOutcome;
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.DenseKernels;
+import com.pagerank.pagerank.engine.GaussSeidelIteration;
+import com.pagerank.pagerank.engine.ParallelPowerIteration;
+import com.pagerank.pagerank.engine.PowerIteration;
+import com.pagerank.pagerank.engine.ResidualPush;
+import com.pagerank.pagerank.engine.WeightPrecision;
+
+/**
+ * Benchmarks del motor: batch (Jacobi secuencial, paralelo y compacto en float/fixed16, Gauss-Seidel,
+ * adaptativo), incremental local y armado del snapshot CSR. Los {@code *Simd} repiten Jacobi e
+ * incremental con los lazos de la Vector API ({@link DenseKernels}).
+ * Usa los defaults de {@code settings/.env} (DAMPING=0.85, EPSILON=1e-6, MAX_ITERS=50) sin limite Z.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx8g", "--add-modules=jdk.incubator.vector" })
+public class PageRankBenchmarks {
+
+	private static final double DAMPING = 0.85;
+	private static final double EPSILON = 0.000001;
+	private static final int MAX_ITERS = 50;
+	private static final int TOUCHED = 20;
+
+	@Param({ "10000", "100000", "1000000" })
+	public int edges;
+
+	private SyntheticGraph data;
+	private CsrGraph graph;
+	private ForkJoinPool pool;
+	private PowerIteration sequential;
+	private PowerIteration sequentialSimd;
+	private ParallelPowerIteration parallel;
+	private ParallelPowerIteration parallelSimd;
+	private CompactPowerIteration compactFloat;
+	private CompactPowerIteration compactFixed16;
+	private GaussSeidelIteration gaussSeidel;
+	private AdaptivePowerIteration adaptive;
+	private ResidualPush incremental;
+	private ResidualPush incrementalSimd;
+	private ResidualPush.State convergedState;
+	private ResidualPush.State state;
+	private CsrGraph changedGraph;
+	private Set<Long> touched;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		data = SyntheticGraph.powerLaw(edges, 42L);
+		graph = data.toCsr();
+		pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		sequential = new PowerIteration(DAMPING, EPSILON);
+		parallel = new ParallelPowerIteration(DAMPING, EPSILON, pool);
+		DenseKernels simd = DenseKernels.select(true);
+		sequentialSimd = new PowerIteration(DAMPING, EPSILON, simd);
+		parallelSimd = new ParallelPowerIteration(DAMPING, EPSILON, pool, simd);
+		compactFloat = new CompactPowerIteration(DAMPING, EPSILON, WeightPrecision.FLOAT, pool);
+		compactFixed16 = new CompactPowerIteration(DAMPING, EPSILON, WeightPrecision.FIXED16, pool);
+		gaussSeidel = new GaussSeidelIteration(DAMPING, EPSILON);
+		adaptive = new AdaptivePowerIteration(DAMPING, EPSILON, 0.1);
+		incremental = new ResidualPush(DAMPING, EPSILON);
+		incrementalSimd = new ResidualPush(DAMPING, EPSILON, simd);
+		convergedState = incremental.initialize(graph, sequential.compute(graph, null, MAX_ITERS, null).scores());
+
+		// Cambio tipico de una ventana de ingesta: TOUCHED follows nuevos sobre el grafo convergido.
+		Random random = new Random(7L);
+		touched = new HashSet<>();
+		CsrGraph.Builder builder = CsrGraph.builder(data.ids().length, data.edgeCount() + TOUCHED);
+		for (long id : data.ids()) {
+			builder.addNode(id);
+		}
+		for (int e = 0; e < data.edgeCount(); e++) {
+			builder.addEdge(data.sources()[e], data.targets()[e], data.weights()[e]);
+		}
+		while (touched.size() < Math.min(TOUCHED, graph.nodeCount())) {
+			long source = graph.idAt(random.nextInt(graph.nodeCount()));
+			long target = graph.idAt(random.nextInt(graph.nodeCount()));
+			if (source != target && builder.addEdge(source, target, 0.4 + 0.6 * random.nextDouble())) {
+				touched.add(source);
+			}
+		}
+		changedGraph = builder.build();
+	}
+
+	@Setup(Level.Invocation)
+	public void resetIncrementalState() {
+		state = convergedState.copy();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Benchmark
+	public ComputationOutcome batchSequential() {
+		return sequential.compute(graph, null, MAX_ITERS, null);
+	}
+
+	@Benchmark
+	public ComputationOutcome batchSequentialSimd() {
+		return sequentialSimd.compute(graph, null, MAX_ITERS, null);
+	}
+
+	@Benchmark
+	public ComputationOutcome batchParallel() {
+		return parallel.compute(graph, null, MAX_ITERS, null);
+	}
+
+	@Benchmark
+	public ComputationOutcome batchParallelSimd() {
+		return parallelSimd.compute(graph, null, MAX_ITERS, null);
+	}
+
+	@Benchmark
+	public ComputationOutcome batchCompactFloat() {
+		return compactFloat.compute(graph, null, MAX_ITERS, null);
+	}
+
+	@Benchmark
+	public ComputationOutcome batchCompactFixed16() {
+		return compactFixed16.compute(graph, null, MAX_ITERS, null);
+	}
+
+	@Benchmark
+	public ComputationOutcome batchGaussSeidel() {
+		return gaussSeidel.compute(graph, null, MAX_ITERS, null);
+	}
+
+	@Benchmark
+	public ComputationOutcome batchAdaptive() {
+		return adaptive.compute(graph, null, MAX_ITERS, null);
+	}
+
+	@Benchmark
+	public ComputationOutcome incrementalResidualPush() {
+		return incremental.compute(state, changedGraph, touched, null);
+	}
+
+	@Benchmark
+	public ComputationOutcome incrementalResidualPushSimd() {
+		return incrementalSimd.compute(state, changedGraph, touched, null);
+	}
+
+	@Benchmark
+	public CsrGraph snapshotBuild() {
+		return data.toCsr();
+	}
+}
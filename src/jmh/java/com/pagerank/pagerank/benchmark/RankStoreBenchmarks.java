@@ -0,0 +1,101 @@
+package com.pagerank.pagerank.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.services.RankStore;
+
+/**
+ * Benchmarks de {@code persistRanks}: upsert por diferencia de {@link RankStore} sobre un SQLite
+ * temporal con el mismo esquema y modo WAL que la app, dentro de una transaccion como en la corrida real.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankStoreBenchmarks {
+
+	private static final double THRESHOLD = 0.000000001;
+
+	@Param({ "10000", "100000", "1000000" })
+	public int edges;
+
+	private Path database;
+	private SingleConnectionDataSource dataSource;
+	private TransactionTemplate transactionTemplate;
+	private RankStore rankStore;
+	private CsrGraph graph;
+	private double[] scores;
+	private int round;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, SQLException {
+		graph = SyntheticGraph.powerLaw(edges, 42L).toCsr();
+		database = Files.createTempFile("pagerank-bench", ".db");
+		dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + database + "?journal_mode=WAL", true);
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+			connection.createStatement().execute(
+					"create table ranks (person_id bigint not null, score float not null, updated_at timestamp not null, primary key (person_id))");
+			connection.createStatement().execute(
+					"create table rank_deltas (person_id bigint not null, delta float not null, primary key (person_id))");
+		}
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		rankStore = new RankStore(new JdbcTemplate(dataSource));
+		scores = new double[graph.nodeCount()];
+		Arrays.fill(scores, 1.0 / graph.nodeCount());
+		transactionTemplate.executeWithoutResult(status -> rankStore.write(graph, scores, THRESHOLD));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		dataSource.destroy();
+		Files.deleteIfExists(database);
+	}
+
+	/** Corrida batch tipica: cambian todos los scores. */
+	@Benchmark
+	public int persistAllChanged() {
+		round++;
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] += (round % 2 == 0 ? 1 : -1) * 1e-6;
+		}
+		return transactionTemplate.execute(status -> rankStore.write(graph, scores, THRESHOLD));
+	}
+
+	/** Corrida incremental tipica: cambia ~1% de los scores. */
+	@Benchmark
+	public int persistFewChanged() {
+		round++;
+		for (int i = round % 100; i < scores.length; i += 100) {
+			scores[i] += (round % 2 == 0 ? 1 : -1) * 1e-6;
+		}
+		return transactionTemplate.execute(status -> rankStore.write(graph, scores, THRESHOLD));
+	}
+}
@@ -0,0 +1,110 @@
+package com.pagerank.pagerank.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.WeightPrecision;
+
+/**
+ * Grafo sintetico para benchmarks, generado en la JVM con la misma receta que
+ * {@code scripts/generate_data.py}: spam en [0, 1], calidad en [0.4, 1.0] con 4 decimales y, por cada
+ * destino, un conjunto de seguidores al azar (sin repetir, como el par unico de {@code follows}). A
+ * diferencia del script, la cantidad de seguidores sigue una ley de potencias (Pareto) para
+ * reproducir nodos muy populares, y a las aristas se les aplican el umbral de calidad y la
+ * penalizacion por spam de {@code IngestionService}.
+ */
+public record SyntheticGraph(long[] ids, long[] sources, long[] targets, double[] weights) {
+
+	/** Promedio de follows por persona del dataset de ejemplo (3369 / 432). */
+	public static final int EDGES_PER_NODE = 8;
+
+	private static final double PARETO_ALPHA = 2.1;
+	private static final double QUALITY_THRESHOLD = 0.5;
+	private static final double SPAM_PENALTY = 0.5;
+
+	/**
+	 * Genera un grafo con aproximadamente {@code targetEdges} aristas aceptadas.
+	 *
+	 * @param targetEdges aristas deseadas.
+	 * @param seed semilla para que las corridas sean reproducibles.
+	 * @return grafo sintetico.
+	 */
+	public static SyntheticGraph powerLaw(int targetEdges, long seed) {
+		Random random = new Random(seed);
+		int nodes = Math.max(2, targetEdges / EDGES_PER_NODE);
+		long[] ids = new long[nodes];
+		double[] spam = new double[nodes];
+		double[] popularity = new double[nodes];
+		double popularityTotal = 0.0;
+		for (int i = 0; i < nodes; i++) {
+			ids[i] = i + 1L;
+			spam[i] = Math.round(random.nextDouble() * 10_000) / 10_000.0;
+			popularity[i] = Math.pow(1.0 - random.nextDouble(), -1.0 / (PARETO_ALPHA - 1.0));
+			popularityTotal += popularity[i];
+		}
+
+		// Se sobre-muestrea para compensar las aristas que descarta el umbral de calidad.
+		double acceptance = (1.0 - QUALITY_THRESHOLD) / 0.6;
+		double scale = targetEdges / acceptance / popularityTotal;
+		int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) (targetEdges * 1.1) + 16);
+		long[] sources = new long[capacity];
+		long[] targets = new long[capacity];
+		double[] weights = new double[capacity];
+		// chosen[c] == target + 1 marca al candidato c como ya elegido para este destino.
+		int[] chosen = new int[nodes - 1];
+		int count = 0;
+		for (int target = 0; target < nodes && count < capacity; target++) {
+			int followers = (int) Math.min(nodes - 1, Math.round(popularity[target] * scale));
+			// Muestreo de Floyd: followers candidatos distintos de nodes - 1 con un sorteo por seguidor.
+			for (int j = nodes - 1 - followers; j < nodes - 1 && count < capacity; j++) {
+				int candidate = random.nextInt(j + 1);
+				if (chosen[candidate] == target + 1) {
+					candidate = j;
+				}
+				chosen[candidate] = target + 1;
+				int source = candidate >= target ? candidate + 1 : candidate; // todos menos el propio destino
+				double quality = Math.round((0.4 + 0.6 * random.nextDouble()) * 10_000) / 10_000.0;
+				if (quality < QUALITY_THRESHOLD) {
+					continue;
+				}
+				sources[count] = ids[source];
+				targets[count] = ids[target];
+				weights[count] = quality * (1.0 - SPAM_PENALTY * spam[source]);
+				count++;
+			}
+		}
+		return new SyntheticGraph(ids, Arrays.copyOf(sources, count), Arrays.copyOf(targets, count),
+				Arrays.copyOf(weights, count));
+	}
+
+	public int edgeCount() {
+		return sources.length;
+	}
+
+	/**
+	 * Arma el CSR igual que lo hace el grafo residente al reconstruir su snapshot.
+	 *
+	 * @return grafo CSR.
+	 */
+	public CsrGraph toCsr() {
+		return toCsr(WeightPrecision.DOUBLE);
+	}
+
+	/**
+	 * Como {@link #toCsr()}, con los pesos entrantes en la precision del modo compacto.
+	 *
+	 * @param precision precision de los pesos entrantes.
+	 * @return grafo CSR.
+	 */
+	public CsrGraph toCsr(WeightPrecision precision) {
+		CsrGraph.Builder builder = CsrGraph.builder(ids.length, sources.length).inWeightPrecision(precision);
+		for (long id : ids) {
+			builder.addNode(id);
+		}
+		for (int e = 0; e < sources.length; e++) {
+			builder.addEdge(sources[e], targets[e], weights[e]);
+		}
+		return builder.build();
+	}
+}
@@ -1,13 +1,31 @@
 package com.pagerank.pagerank.domain.model;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
 
+/**
+ * Resultado de una corrida de PageRank.
+ *
+ * @param elapsed tiempo del motor (el que limita {@code Z}).
+ * @param startedAt inicio de la corrida.
+ * @param total tiempo de toda la corrida, de la carga del grafo a la publicacion de scores.
+ * @param phases duracion por fase, en orden de ejecucion ({@code load}, {@code build}, {@code solve},
+ *        {@code persist}, ...).
+ */
 public record PageRankResult(
 		String mode,
+		String solver,
 		int iterations,
 		double averageDelta,
 		int nodeCount,
 		boolean converged,
 		boolean timeLimited,
-		Duration elapsed) {
+		Duration elapsed,
+		long edgeVisits,
+		Double errorBound,
+		int rowsWritten,
+		Instant startedAt,
+		Duration total,
+		Map<String, Duration> phases) {
 }
@@ -5,6 +5,7 @@ import java.util.Optional;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.pagerank.pagerank.domain.model.Follow;
@@ -19,4 +20,19 @@ public interface FollowRepository extends JpaRepository<Follow, Long> {
 	List<Follow> findByTargetId(Long targetId);
 
 	Optional<Follow> findBySourceIdAndTargetId(Long sourceId, Long targetId);
+
+	@Query("select f.source.id as sourceId, f.target.id as targetId, f.quality as quality from Follow f")
+	List<FollowEdge> findAllEdges();
+
+	/**
+	 * Proyeccion liviana de una arista, sin cargar las entidades Person.
+	 */
+	interface FollowEdge {
+
+		Long getSourceId();
+
+		Long getTargetId();
+
+		double getQuality();
+	}
 }
@@ -17,8 +17,5 @@ public interface RankRepository extends JpaRepository<Rank, Long> {
 	@EntityGraph(attributePaths = "person")
 	Page<Rank> findAllByOrderByScoreDesc(Pageable pageable);
 
-	@EntityGraph(attributePaths = "person")
-	Page<Rank> findByPersonNameContainingIgnoreCaseOrderByScoreDesc(String name, Pageable pageable);
-
 	Optional<Rank> findByPerson(Person person);
 }
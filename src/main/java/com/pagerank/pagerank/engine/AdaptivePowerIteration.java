@@ -0,0 +1,117 @@
+package com.pagerank.pagerank.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * PageRank adaptativo: iteracion Jacobi basada en "pull" que deja de recalcular los nodos cuyo
+ * cambio cae por debajo de {@code freezeRatio * epsilon}. Los nodos congelados conservan su score
+ * (y siguen aportando a sus vecinos), pero ya no se recorren sus aristas entrantes, asi que el costo
+ * por iteracion baja a medida que el vector converge.
+ */
+public class AdaptivePowerIteration extends PowerIteration {
+
+	private final double freezeRatio;
+
+	public AdaptivePowerIteration(double damping, double epsilon, double freezeRatio) {
+		super(damping, epsilon);
+		this.freezeRatio = freezeRatio;
+	}
+
+	@Override
+	public ComputationOutcome compute(CsrGraph graph, double[] initialScores, int maxIterations,
+			Duration maxDuration) {
+		int nodeCount = graph.nodeCount();
+		if (nodeCount == 0) {
+			return new ComputationOutcome(new double[0], 0, 0.0, true, false, Duration.ZERO, 0);
+		}
+
+		double[] current = initialScores != null && initialScores.length == nodeCount
+				? Arrays.copyOf(initialScores, nodeCount)
+				: uniformVector(nodeCount);
+		double[] next = new double[nodeCount];
+		double teleport = (1.0 - damping) / nodeCount;
+		double freezeThreshold = freezeRatio * epsilon;
+
+		int[] inOffsets = graph.inOffsets();
+		int[] inSources = graph.inSources();
+		double[] inWeights = graph.inWeights();
+		double[] outgoingWeight = graph.outgoingWeight();
+
+		double[] share = new double[nodeCount]; // p_i / sum_out_i, 0 para colgantes
+		double danglingMass = 0.0;
+		for (int i = 0; i < nodeCount; i++) {
+			if (outgoingWeight[i] <= 0.0) {
+				danglingMass += current[i];
+			}
+			else {
+				share[i] = current[i] / outgoingWeight[i];
+			}
+		}
+		// Nodos todavia activos; se compacta al congelar.
+		int[] active = new int[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			active[i] = i;
+		}
+		int activeCount = nodeCount;
+
+		int iterations = 0;
+		long edgeVisits = 0;
+		double lastAverageDelta = Double.MAX_VALUE;
+		boolean converged = false;
+		boolean timeLimited = false;
+		Instant start = Instant.now();
+
+		while (iterations < maxIterations) {
+			if (maxDuration != null && Duration.between(start, Instant.now()).compareTo(maxDuration) > 0) {
+				timeLimited = true;
+				break;
+			}
+			// Jacobi solo sobre los activos: next[v] = (1-d)/N + d*D/N + d * sum_{u->v} w_uv * share[u].
+			double base = teleport + damping * danglingMass / nodeCount;
+			for (int k = 0; k < activeCount; k++) {
+				int v = active[k];
+				double incoming = 0.0;
+				for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+					incoming += inWeights[e] * share[inSources[e]];
+				}
+				edgeVisits += inOffsets[v + 1] - inOffsets[v];
+				next[v] = base + damping * incoming;
+			}
+
+			// Aplica los nuevos valores y congela los que ya casi no cambian (nunca en el primer barrido).
+			double deltaSum = 0.0;
+			int kept = 0;
+			for (int k = 0; k < activeCount; k++) {
+				int v = active[k];
+				double delta = next[v] - current[v];
+				current[v] = next[v];
+				deltaSum += Math.abs(delta);
+				if (outgoingWeight[v] <= 0.0) {
+					danglingMass += delta;
+				}
+				else {
+					share[v] = current[v] / outgoingWeight[v];
+				}
+				if (iterations == 0 || Math.abs(delta) >= freezeThreshold) {
+					active[kept++] = v;
+				}
+			}
+			activeCount = kept;
+			lastAverageDelta = deltaSum / nodeCount;
+
+			iterations++;
+			if (lastAverageDelta <= epsilon || activeCount == 0) {
+				converged = true;
+				break;
+			}
+		}
+
+		// Los congelados ya no se corrigen: se normaliza para que la suma siga siendo 1.
+		normalize(current);
+		Duration elapsed = Duration.between(start, Instant.now());
+		return new ComputationOutcome(current, iterations, lastAverageDelta, converged, timeLimited, elapsed,
+				edgeVisits);
+	}
+}
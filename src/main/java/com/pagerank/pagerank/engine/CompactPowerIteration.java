@@ -0,0 +1,290 @@
+package com.pagerank.pagerank.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Jacobi por "pull" como {@link ParallelPowerIteration}, pero con pesos y scores compactos para
+ * leer la mitad (o la cuarta parte) de bytes por arista en el lazo interno.
+ * <p>
+ * Con {@link WeightPrecision#FLOAT} cada arista entrante guarda ya {@code w_uv / sum_out_u}, asi que
+ * {@code next[v] = base + d * sum p[u] * t_uv} es una multiplicacion-suma por arista sin vector
+ * intermedio. Con {@link WeightPrecision#FIXED16} el peso {@code w_uv} en [0, 1] se guarda en 16
+ * bits y la escala {@code 1 / sum_out_u} (sobre los pesos ya cuantizados) se aplica una vez por nodo
+ * al armar {@code share}: dividir antes de cuantizar perderia precision en nodos con muchas salientes.
+ * <p>
+ * Los scores viajan en {@code float}; cada nodo acumula en {@code double} y las reducciones (masa
+ * colgante, delta L1 y total final) usan suma compensada de Kahan para que el error no crezca con
+ * la cantidad de nodos.
+ * <p>
+ * Si el {@link CsrGraph} ya guarda sus pesos entrantes en esta precision (el snapshot de
+ * {@code GraphStore} en modo compacto) el motor los recorre sin copiar y solo arma los vectores por
+ * nodo; con un grafo {@code double} arma la copia compacta una vez por grafo.
+ */
+public class CompactPowerIteration extends PowerIteration {
+
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final WeightPrecision precision;
+	private final ForkJoinPool pool;
+
+	private CsrGraph cachedGraph;
+	private CompactGraph compactGraph;
+
+	/**
+	 * Crea el motor compacto.
+	 *
+	 * @param damping factor de amortiguacion.
+	 * @param epsilon tolerancia de convergencia.
+	 * @param precision {@link WeightPrecision#FLOAT} o {@link WeightPrecision#FIXED16}.
+	 * @param pool pool para repartir rangos de nodos; nulo para correr en el hilo llamador.
+	 */
+	public CompactPowerIteration(double damping, double epsilon, WeightPrecision precision, ForkJoinPool pool) {
+		super(damping, epsilon);
+		if (precision == WeightPrecision.DOUBLE) {
+			throw new IllegalArgumentException("Compact engine needs float or fixed16 precision");
+		}
+		this.precision = precision;
+		this.pool = pool;
+	}
+
+	@Override
+	public synchronized ComputationOutcome compute(CsrGraph graph, double[] initialScores, int maxIterations,
+			Duration maxDuration) {
+		int nodeCount = graph.nodeCount();
+		if (nodeCount == 0) {
+			return new ComputationOutcome(new double[0], 0, 0.0, true, false, Duration.ZERO, 0);
+		}
+		CompactGraph edges = compactGraph(graph);
+
+		float[] current = new float[nodeCount];
+		float[] next = new float[nodeCount];
+		if (initialScores != null && initialScores.length == nodeCount) {
+			for (int i = 0; i < nodeCount; i++) {
+				current[i] = (float) initialScores[i];
+			}
+		}
+		else {
+			Arrays.fill(current, (float) (1.0 / nodeCount));
+		}
+		// En FLOAT las probabilidades ya estan divididas: se lee current directamente.
+		float[] share = edges.quantized() != null ? new float[nodeCount] : current;
+		double teleport = (1.0 - damping) / nodeCount;
+
+		int[] bounds = ParallelPowerIteration.partition(graph,
+				pool != null ? pool.getParallelism() * CHUNKS_PER_THREAD : 1);
+		double[] base = new double[1];
+		List<Callable<Double>> shareTasks = new ArrayList<>(bounds.length - 1);
+		List<Callable<Double>> pullTasks = new ArrayList<>(bounds.length - 1);
+		for (int c = 0; c + 1 < bounds.length; c++) {
+			int from = bounds[c];
+			int to = bounds[c + 1];
+			shareTasks.add(() -> prepareShares(edges, current, share, from, to));
+			pullTasks.add(edges.quantized() != null
+					? () -> pullFixed(edges, current, share, next, base[0], from, to)
+					: () -> pullFloat(edges, current, next, base[0], from, to));
+		}
+
+		int iterations = 0;
+		double lastAverageDelta = Double.MAX_VALUE;
+		boolean converged = false;
+		boolean timeLimited = false;
+		Instant start = Instant.now();
+
+		while (iterations < maxIterations) {
+			if (maxDuration != null && Duration.between(start, Instant.now()).compareTo(maxDuration) > 0) {
+				timeLimited = true;
+				break;
+			}
+			if (share != current) {
+				run(shareTasks);
+			}
+			KahanSum danglingMass = new KahanSum();
+			for (int node : edges.danglingNodes()) {
+				danglingMass.add(current[node]);
+			}
+			base[0] = teleport + damping * danglingMass.value() / nodeCount;
+			double deltaSum = run(pullTasks);
+			lastAverageDelta = deltaSum / nodeCount;
+			System.arraycopy(next, 0, current, 0, nodeCount);
+
+			iterations++;
+			if (lastAverageDelta <= epsilon) {
+				converged = true;
+				break;
+			}
+		}
+
+		// El redondeo a float deja la masa total a ~1e-7 de 1: se renormaliza con suma compensada.
+		KahanSum total = new KahanSum();
+		for (float value : current) {
+			total.add(value);
+		}
+		double[] scores = new double[nodeCount];
+		double scale = total.value() > 0.0 ? 1.0 / total.value() : 0.0;
+		for (int i = 0; i < nodeCount; i++) {
+			scores[i] = current[i] * scale;
+		}
+		Duration elapsed = Duration.between(start, Instant.now());
+		return new ComputationOutcome(scores, iterations, lastAverageDelta, converged, timeLimited, elapsed,
+				(long) iterations * graph.edgeCount());
+	}
+
+	/**
+	 * Precision con la que itera este motor.
+	 *
+	 * @return {@link WeightPrecision#FLOAT} o {@link WeightPrecision#FIXED16}.
+	 */
+	public WeightPrecision precision() {
+		return precision;
+	}
+
+	private CompactGraph compactGraph(CsrGraph graph) {
+		if (graph != cachedGraph) {
+			compactGraph = CompactGraph.of(graph, precision);
+			cachedGraph = graph;
+		}
+		return compactGraph;
+	}
+
+	private double run(List<Callable<Double>> tasks) {
+		if (pool == null) {
+			KahanSum total = new KahanSum();
+			for (Callable<Double> task : tasks) {
+				try {
+					total.add(task.call());
+				}
+				catch (Exception ex) {
+					throw new IllegalStateException("PageRank iteration failed", ex);
+				}
+			}
+			return total.value();
+		}
+		return ParallelPowerIteration.sum(pool.invokeAll(tasks));
+	}
+
+	private static double prepareShares(CompactGraph graph, float[] current, float[] share, int from, int to) {
+		float[] scale = graph.scale();
+		for (int i = from; i < to; i++) {
+			share[i] = current[i] * scale[i];
+		}
+		return 0.0;
+	}
+
+	private double pullFloat(CompactGraph graph, float[] current, float[] next, double base, int from, int to) {
+		int[] inOffsets = graph.inOffsets();
+		int[] inSources = graph.inSources();
+		float[] transitions = graph.transitions();
+		KahanSum delta = new KahanSum();
+		for (int v = from; v < to; v++) {
+			double incoming = 0.0;
+			for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+				incoming += transitions[e] * current[inSources[e]];
+			}
+			float value = (float) (base + damping * incoming);
+			next[v] = value;
+			delta.add(Math.abs(value - current[v]));
+		}
+		return delta.value();
+	}
+
+	private double pullFixed(CompactGraph graph, float[] current, float[] share, float[] next, double base,
+			int from, int to) {
+		int[] inOffsets = graph.inOffsets();
+		int[] inSources = graph.inSources();
+		char[] quantized = graph.quantized();
+		KahanSum delta = new KahanSum();
+		for (int v = from; v < to; v++) {
+			double incoming = 0.0;
+			for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+				incoming += quantized[e] * share[inSources[e]];
+			}
+			float value = (float) (base + damping * incoming);
+			next[v] = value;
+			delta.add(Math.abs(value - current[v]));
+		}
+		return delta.value();
+	}
+
+	/**
+	 * Pesos entrantes compactos (solo uno de {@code transitions} (FLOAT) o {@code quantized}/
+	 * {@code scale} (FIXED16) esta presente) mas los vectores por nodo que necesita el lazo.
+	 */
+	private record CompactGraph(int[] inOffsets, int[] inSources, float[] transitions, char[] quantized,
+			float[] scale, int[] danglingNodes) {
+
+		static CompactGraph of(CsrGraph graph, WeightPrecision precision) {
+			int nodeCount = graph.nodeCount();
+			int[] inOffsets = graph.inOffsets();
+			int[] inSources = graph.inSources();
+			double[] outgoingWeight = graph.outgoingWeight();
+			int edgeCount = inOffsets[nodeCount];
+
+			int danglingCount = 0;
+			for (int i = 0; i < nodeCount; i++) {
+				if (outgoingWeight[i] <= 0.0) {
+					danglingCount++;
+				}
+			}
+			int[] danglingNodes = new int[danglingCount];
+			for (int i = 0, d = 0; i < nodeCount; i++) {
+				if (outgoingWeight[i] <= 0.0) {
+					danglingNodes[d++] = i;
+				}
+			}
+
+			if (precision == WeightPrecision.FLOAT) {
+				float[] transitions = graph.inTransitions();
+				if (transitions == null) {
+					double[] inWeights = graph.inWeights();
+					transitions = new float[edgeCount];
+					for (int e = 0; e < edgeCount; e++) {
+						transitions[e] = CsrGraph.transition(inWeights[e], outgoingWeight[inSources[e]]);
+					}
+				}
+				return new CompactGraph(inOffsets, inSources, transitions, null, null, danglingNodes);
+			}
+			char[] quantized = graph.inQuantized();
+			if (quantized == null) {
+				double[] inWeights = graph.inWeights();
+				quantized = new char[edgeCount];
+				for (int e = 0; e < edgeCount; e++) {
+					quantized[e] = CsrGraph.quantize(inWeights[e]);
+				}
+			}
+			// La escala usa la suma de los pesos ya cuantizados para que cada fila siga sumando 1.
+			double[] quantizedOut = new double[nodeCount];
+			for (int e = 0; e < edgeCount; e++) {
+				quantizedOut[inSources[e]] += quantized[e];
+			}
+			float[] scale = new float[nodeCount];
+			for (int i = 0; i < nodeCount; i++) {
+				scale[i] = outgoingWeight[i] > 0.0 && quantizedOut[i] > 0.0 ? (float) (1.0 / quantizedOut[i]) : 0.0f;
+			}
+			return new CompactGraph(inOffsets, inSources, null, quantized, scale, danglingNodes);
+		}
+	}
+
+	/** Suma compensada de Kahan. */
+	private static final class KahanSum {
+
+		private double sum;
+		private double compensation;
+
+		void add(double value) {
+			double y = value - compensation;
+			double t = sum + y;
+			compensation = (t - sum) - y;
+			sum = t;
+		}
+
+		double value() {
+			return sum;
+		}
+	}
+}
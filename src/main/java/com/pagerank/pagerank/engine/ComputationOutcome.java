@@ -0,0 +1,24 @@
+package com.pagerank.pagerank.engine;
+
+import java.time.Duration;
+
+/**
+ * Resultado de un solver: vector de scores indexado como el {@link CsrGraph} y metricas de la corrida.
+ * {@code edgeVisits} cuenta las aristas leidas, para comparar el costo real entre solvers;
+ * {@code errorBound} es la cota L1 garantizada respecto del PageRank exacto, o NaN si el solver no la da.
+ */
+public record ComputationOutcome(
+		double[] scores,
+		int iterations,
+		double averageDelta,
+		boolean converged,
+		boolean timeLimited,
+		Duration elapsed,
+		long edgeVisits,
+		double errorBound) {
+
+	public ComputationOutcome(double[] scores, int iterations, double averageDelta, boolean converged,
+			boolean timeLimited, Duration elapsed, long edgeVisits) {
+		this(scores, iterations, averageDelta, converged, timeLimited, elapsed, edgeVisits, Double.NaN);
+	}
+}
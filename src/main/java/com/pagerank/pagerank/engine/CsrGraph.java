@@ -0,0 +1,356 @@
+package com.pagerank.pagerank.engine;
+
+import java.util.Arrays;
+
+/**
+ * Grafo dirigido inmutable en formato CSR (compressed sparse row) con su transpuesta.
+ * <p>
+ * Los nodos se identifican por un indice denso {@code 0..N-1}; {@link #idAt(int)} e
+ * {@link #indexOf(long)} traducen entre indices e ids de persona. Las aristas salientes del
+ * nodo {@code i} ocupan {@code [outOffsets[i], outOffsets[i + 1])} en {@code outTargets} y
+ * {@code outWeights}; las entrantes ocupan el mismo rango en {@code inSources}/{@code inWeights}
+ * usando {@code inOffsets}. Los arreglos se exponen sin copiar para los bucles calientes y no
+ * deben modificarse.
+ * <p>
+ * Con {@link Builder#inWeightPrecision(WeightPrecision)} compacta los pesos entrantes se guardan solo
+ * en esa precision ({@link #inTransitions()} o {@link #inQuantized()}), en lugar del
+ * {@code double[]}: es lo que recorre {@link CompactPowerIteration}, asi que el grafo residente no
+ * carga ambas copias. Los pesos salientes siguen en {@code double}.
+ */
+public final class CsrGraph {
+
+	private static final CsrGraph EMPTY = new Builder(0, 0).build();
+	/** Pasos de {@link WeightPrecision#FIXED16}: un peso en [0, 1] se guarda como {@code round(w * 65535)}. */
+	static final double FIXED16_SCALE = 65_535.0;
+
+	private final long[] ids;
+	private final IdIndex index;
+	private final int[] outOffsets;
+	private final int[] outTargets;
+	private final double[] outWeights;
+	private final int[] inOffsets;
+	private final int[] inSources;
+	private final double[] inWeights;
+	private final float[] inTransitions;
+	private final char[] inQuantized;
+	private final double[] outgoingWeight;
+
+	private CsrGraph(
+			long[] ids,
+			IdIndex index,
+			int[] outOffsets,
+			int[] outTargets,
+			double[] outWeights,
+			int[] inOffsets,
+			int[] inSources,
+			double[] inWeights,
+			float[] inTransitions,
+			char[] inQuantized,
+			double[] outgoingWeight) {
+		this.ids = ids;
+		this.index = index;
+		this.outOffsets = outOffsets;
+		this.outTargets = outTargets;
+		this.outWeights = outWeights;
+		this.inOffsets = inOffsets;
+		this.inSources = inSources;
+		this.inWeights = inWeights;
+		this.inTransitions = inTransitions;
+		this.inQuantized = inQuantized;
+		this.outgoingWeight = outgoingWeight;
+	}
+
+	public static CsrGraph empty() {
+		return EMPTY;
+	}
+
+	public static Builder builder(int expectedNodes, int expectedEdges) {
+		return new Builder(expectedNodes, expectedEdges);
+	}
+
+	public int nodeCount() {
+		return ids.length;
+	}
+
+	public int edgeCount() {
+		return outTargets.length;
+	}
+
+	public long idAt(int nodeIndex) {
+		return ids[nodeIndex];
+	}
+
+	/**
+	 * Devuelve el indice denso de una persona o -1 si no forma parte del grafo.
+	 *
+	 * @param personId id de persona.
+	 * @return indice o -1.
+	 */
+	public int indexOf(long personId) {
+		return index.get(personId);
+	}
+
+	/**
+	 * Indica si el nodo no tiene salidas con peso positivo (su masa se redistribuye uniforme).
+	 *
+	 * @param nodeIndex indice del nodo.
+	 * @return true si es colgante.
+	 */
+	public boolean isDangling(int nodeIndex) {
+		return outgoingWeight[nodeIndex] <= 0.0;
+	}
+
+	public int outDegree(int nodeIndex) {
+		return outOffsets[nodeIndex + 1] - outOffsets[nodeIndex];
+	}
+
+	public int inDegree(int nodeIndex) {
+		return inOffsets[nodeIndex + 1] - inOffsets[nodeIndex];
+	}
+
+	public long[] ids() {
+		return ids;
+	}
+
+	public int[] outOffsets() {
+		return outOffsets;
+	}
+
+	public int[] outTargets() {
+		return outTargets;
+	}
+
+	public double[] outWeights() {
+		return outWeights;
+	}
+
+	public int[] inOffsets() {
+		return inOffsets;
+	}
+
+	public int[] inSources() {
+		return inSources;
+	}
+
+	/**
+	 * Pesos entrantes en {@code double}. Si el grafo los guarda compactos devuelve una copia expandida
+	 * nueva en cada llamada: sirve a los motores que la piden una vez por corrida; para leer aristas
+	 * sueltas usar {@link #inWeight(int)}.
+	 *
+	 * @return pesos alineados con {@link #inSources()}.
+	 */
+	public double[] inWeights() {
+		if (inWeights != null) {
+			return inWeights;
+		}
+		double[] expanded = new double[inSources.length];
+		for (int e = 0; e < expanded.length; e++) {
+			expanded[e] = inWeight(e);
+		}
+		return expanded;
+	}
+
+	/**
+	 * Peso de una arista entrante; en grafos compactos es el valor redondeado a esa precision.
+	 *
+	 * @param edge posicion en {@link #inSources()}.
+	 * @return peso de la arista.
+	 */
+	public double inWeight(int edge) {
+		if (inWeights != null) {
+			return inWeights[edge];
+		}
+		if (inTransitions != null) {
+			return inTransitions[edge] * outgoingWeight[inSources[edge]];
+		}
+		return inQuantized[edge] / FIXED16_SCALE;
+	}
+
+	/**
+	 * Precision en la que se guardan los pesos entrantes.
+	 *
+	 * @return {@link WeightPrecision#DOUBLE} salvo que el builder pidiera una compacta.
+	 */
+	public WeightPrecision inWeightPrecision() {
+		if (inTransitions != null) {
+			return WeightPrecision.FLOAT;
+		}
+		return inQuantized != null ? WeightPrecision.FIXED16 : WeightPrecision.DOUBLE;
+	}
+
+	/**
+	 * Probabilidades de transicion {@code w_uv / sum_out_u} en {@code float} por arista entrante.
+	 *
+	 * @return arreglo alineado con {@link #inSources()}, o null si la precision no es FLOAT.
+	 */
+	public float[] inTransitions() {
+		return inTransitions;
+	}
+
+	/**
+	 * Pesos entrantes en punto fijo de 16 bits (ver {@link WeightPrecision#FIXED16}).
+	 *
+	 * @return arreglo alineado con {@link #inSources()}, o null si la precision no es FIXED16.
+	 */
+	public char[] inQuantized() {
+		return inQuantized;
+	}
+
+	public double[] outgoingWeight() {
+		return outgoingWeight;
+	}
+
+	/**
+	 * Acumula nodos y aristas en arreglos primitivos crecientes y arma el CSR con un
+	 * ordenamiento por conteo en {@link #build()}.
+	 */
+	public static final class Builder {
+
+		private long[] ids;
+		private int nodeCount;
+		private final IdIndex index;
+		private int[] edgeSources;
+		private int[] edgeTargets;
+		private double[] edgeWeights;
+		private int edgeCount;
+		private boolean keepZeroWeights;
+		private WeightPrecision inWeightPrecision = WeightPrecision.DOUBLE;
+
+		private Builder(int expectedNodes, int expectedEdges) {
+			this.ids = new long[Math.max(expectedNodes, 0)];
+			this.index = new IdIndex(Math.max(expectedNodes, 0));
+			this.edgeSources = new int[Math.max(expectedEdges, 0)];
+			this.edgeTargets = new int[Math.max(expectedEdges, 0)];
+			this.edgeWeights = new double[Math.max(expectedEdges, 0)];
+		}
+
+		/**
+		 * Registra una persona como nodo; si ya existia devuelve su indice.
+		 *
+		 * @param personId id de persona.
+		 * @return indice denso asignado.
+		 */
+		public int addNode(long personId) {
+			int existing = index.get(personId);
+			if (existing >= 0) {
+				return existing;
+			}
+			if (nodeCount == ids.length) {
+				ids = Arrays.copyOf(ids, Math.max(8, ids.length * 2));
+			}
+			ids[nodeCount] = personId;
+			index.put(personId, nodeCount);
+			return nodeCount++;
+		}
+
+		/**
+		 * Acepta tambien aristas de peso 0 (follows guardados que no aportan masa). Un grafo asi sirve
+		 * para mostrar o exportar lo guardado, no para los motores: un origen con solo aristas de peso
+		 * 0 tendria {@code outgoingWeight} 0 sin ser colgante.
+		 *
+		 * @return este builder.
+		 */
+		public Builder keepZeroWeights() {
+			this.keepZeroWeights = true;
+			return this;
+		}
+
+		/**
+		 * Guarda los pesos entrantes solo en la precision indicada (ver {@link CompactPowerIteration}).
+		 *
+		 * @param precision {@link WeightPrecision#DOUBLE} (por defecto), FLOAT o FIXED16.
+		 * @return este builder.
+		 */
+		public Builder inWeightPrecision(WeightPrecision precision) {
+			this.inWeightPrecision = precision;
+			return this;
+		}
+
+		/**
+		 * Agrega la arista origen -> destino; se ignora si algun extremo no es nodo o el peso no es
+		 * positivo (o es negativo, con {@link #keepZeroWeights()}).
+		 *
+		 * @param sourceId id de la persona origen.
+		 * @param targetId id de la persona destino.
+		 * @param weight peso (calidad ajustada) de la arista.
+		 * @return true si la arista fue agregada.
+		 */
+		public boolean addEdge(long sourceId, long targetId, double weight) {
+			int source = index.get(sourceId);
+			int target = index.get(targetId);
+			if (source < 0 || target < 0 || !(weight > 0.0 || (keepZeroWeights && weight == 0.0))) {
+				return false;
+			}
+			if (edgeCount == edgeSources.length) {
+				int capacity = Math.max(16, edgeSources.length * 2);
+				edgeSources = Arrays.copyOf(edgeSources, capacity);
+				edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+				edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+			}
+			edgeSources[edgeCount] = source;
+			edgeTargets[edgeCount] = target;
+			edgeWeights[edgeCount] = weight;
+			edgeCount++;
+			return true;
+		}
+
+		public CsrGraph build() {
+			int n = nodeCount;
+			int m = edgeCount;
+			int[] outOffsets = new int[n + 1];
+			int[] inOffsets = new int[n + 1];
+			double[] outgoingWeight = new double[n];
+			for (int e = 0; e < m; e++) {
+				outOffsets[edgeSources[e] + 1]++;
+				inOffsets[edgeTargets[e] + 1]++;
+				outgoingWeight[edgeSources[e]] += edgeWeights[e];
+			}
+			for (int i = 0; i < n; i++) {
+				outOffsets[i + 1] += outOffsets[i];
+				inOffsets[i + 1] += inOffsets[i];
+			}
+
+			int[] outTargets = new int[m];
+			double[] outWeights = new double[m];
+			int[] inSources = new int[m];
+			double[] inWeights = inWeightPrecision == WeightPrecision.DOUBLE ? new double[m] : null;
+			float[] inTransitions = inWeightPrecision == WeightPrecision.FLOAT ? new float[m] : null;
+			char[] inQuantized = inWeightPrecision == WeightPrecision.FIXED16 ? new char[m] : null;
+			int[] outCursor = Arrays.copyOf(outOffsets, n);
+			int[] inCursor = Arrays.copyOf(inOffsets, n);
+			for (int e = 0; e < m; e++) {
+				int source = edgeSources[e];
+				int target = edgeTargets[e];
+				int outPos = outCursor[source]++;
+				outTargets[outPos] = target;
+				outWeights[outPos] = edgeWeights[e];
+				int inPos = inCursor[target]++;
+				inSources[inPos] = source;
+				if (inWeights != null) {
+					inWeights[inPos] = edgeWeights[e];
+				}
+				else if (inTransitions != null) {
+					inTransitions[inPos] = transition(edgeWeights[e], outgoingWeight[source]);
+				}
+				else {
+					inQuantized[inPos] = quantize(edgeWeights[e]);
+				}
+			}
+
+			// El grafo se queda con su propia copia del indice: si el builder sigue agregando nodos,
+			// indexOf no debe devolver indices fuera de 0..N-1.
+			return new CsrGraph(Arrays.copyOf(ids, n), index.copy(), outOffsets, outTargets, outWeights,
+					inOffsets, inSources, inWeights, inTransitions, inQuantized, outgoingWeight);
+		}
+	}
+
+	static float transition(double weight, double outgoingWeight) {
+		return outgoingWeight > 0.0 ? (float) (weight / outgoingWeight) : 0.0f;
+	}
+
+	static char quantize(double weight) {
+		double clamped = Math.min(1.0, Math.max(0.0, weight));
+		// Un peso positivo nunca se redondea a 0 para no convertir su origen en colgante.
+		return (char) (clamped > 0.0 ? Math.max(1L, Math.round(clamped * FIXED16_SCALE)) : 0L);
+	}
+}
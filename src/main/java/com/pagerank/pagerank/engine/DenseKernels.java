@@ -0,0 +1,89 @@
+package com.pagerank.pagerank.engine;
+
+/**
+ * Lazos densos del batch y del incremental (suma de un escalar, distancia L1, gather de una fila
+ * CSR) con dos implementaciones: escalar y SIMD con la Vector API ({@code jdk.incubator.vector}).
+ * <p>
+ * La version SIMD vive en {@code src/vector/java} y es lo unico que se compila contra el modulo
+ * incubado; aca se carga por reflexion, solo si se pide, si el modulo esta en la capa de arranque
+ * (la JVM corre con {@code --add-modules jdk.incubator.vector}) y si la clase se compilo (no con
+ * {@code -Pscalar}). Si no, se usa la escalar. El orden de las sumas cambia entre ambas, asi que
+ * los resultados pueden diferir en el ultimo bit, pero cada una es determinista.
+ */
+public interface DenseKernels {
+
+	/** Modulo incubado de la Vector API. */
+	String VECTOR_MODULE = "jdk.incubator.vector";
+
+	/** Kernels SIMD, compilados aparte con el modulo incubado. */
+	String VECTOR_KERNELS = "com.pagerank.pagerank.engine.VectorKernels";
+
+	/** Implementacion escalar, siempre disponible. */
+	DenseKernels SCALAR = new ScalarKernels();
+
+	/**
+	 * Elige la implementacion.
+	 *
+	 * @param vectorize true para usar SIMD si la Vector API esta disponible.
+	 * @return kernels SIMD o, si no se pidieron, no hay modulo o no se compilaron, los escalares.
+	 */
+	static DenseKernels select(boolean vectorize) {
+		if (vectorize && vectorAvailable()) {
+			try {
+				return (DenseKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+			}
+			catch (ReflectiveOperationException ex) {
+				throw new IllegalStateException("Cannot load " + VECTOR_KERNELS, ex);
+			}
+		}
+		return SCALAR;
+	}
+
+	/**
+	 * Indica si se pueden usar los kernels SIMD en esta JVM. Se chequea el recurso de la clase sin
+	 * cargarla: inicializarla sin el modulo fallaria con {@code NoClassDefFoundError}.
+	 *
+	 * @return true si {@value #VECTOR_MODULE} esta en la capa de arranque y {@value #VECTOR_KERNELS}
+	 *         esta en el classpath.
+	 */
+	static boolean vectorAvailable() {
+		return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()
+				&& DenseKernels.class.getResource("VectorKernels.class") != null;
+	}
+
+	/**
+	 * Nombre para logs.
+	 *
+	 * @return {@code scalar} o {@code simd-<bits>}.
+	 */
+	String label();
+
+	/**
+	 * {@code vector[i] += value} para todo i.
+	 *
+	 * @param vector vector a modificar.
+	 * @param value escalar a sumar.
+	 */
+	void add(double[] vector, double value);
+
+	/**
+	 * Distancia L1 {@code sum |a[i] - b[i]|} sobre el largo de {@code a}.
+	 *
+	 * @param a primer vector.
+	 * @param b segundo vector, al menos tan largo como {@code a}.
+	 * @return distancia L1.
+	 */
+	double distance(double[] a, double[] b);
+
+	/**
+	 * Producto de una fila CSR por un vector denso: {@code sum_{e en [from, to)} weights[e] * values[indexes[e]]}.
+	 *
+	 * @param weights pesos de las aristas.
+	 * @param indexes indice del vector para cada arista.
+	 * @param values vector denso.
+	 * @param from primera arista.
+	 * @param to fin exclusivo.
+	 * @return suma de la fila.
+	 */
+	double gather(double[] weights, int[] indexes, double[] values, int from, int to);
+}
@@ -0,0 +1,105 @@
+package com.pagerank.pagerank.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Gauss-Seidel: recorre los nodos en orden y sobreescribe el vector en el lugar, de modo que cada
+ * nodo ya usa los scores recalculados en el mismo barrido. Suele necesitar menos barridos que
+ * Jacobi para el mismo epsilon, pero es inherentemente secuencial.
+ */
+public class GaussSeidelIteration extends PowerIteration {
+
+	public GaussSeidelIteration(double damping, double epsilon) {
+		super(damping, epsilon);
+	}
+
+	@Override
+	public ComputationOutcome compute(CsrGraph graph, double[] initialScores, int maxIterations,
+			Duration maxDuration) {
+		int nodeCount = graph.nodeCount();
+		if (nodeCount == 0) {
+			return new ComputationOutcome(new double[0], 0, 0.0, true, false, Duration.ZERO, 0);
+		}
+
+		double[] scores = initialScores != null && initialScores.length == nodeCount
+				? Arrays.copyOf(initialScores, nodeCount)
+				: uniformVector(nodeCount);
+		double teleport = (1.0 - damping) / nodeCount;
+
+		int[] inOffsets = graph.inOffsets();
+		int[] inSources = graph.inSources();
+		double[] inWeights = graph.inWeights();
+		double[] outgoingWeight = graph.outgoingWeight();
+
+		// share[i] = p_i / sum_out_i (0 para colgantes); se actualiza junto con scores[i].
+		double[] share = new double[nodeCount];
+		double danglingMass = 0.0;
+		for (int i = 0; i < nodeCount; i++) {
+			if (outgoingWeight[i] <= 0.0) {
+				danglingMass += scores[i];
+			}
+			else {
+				share[i] = scores[i] / outgoingWeight[i];
+			}
+		}
+
+		int iterations = 0;
+		double lastAverageDelta = Double.MAX_VALUE;
+		boolean converged = false;
+		boolean timeLimited = false;
+		Instant start = Instant.now();
+
+		while (iterations < maxIterations) {
+			if (maxDuration != null && Duration.between(start, Instant.now()).compareTo(maxDuration) > 0) {
+				timeLimited = true;
+				break;
+			}
+			double deltaSum = 0.0;
+			for (int v = 0; v < nodeCount; v++) {
+				double incoming = 0.0;
+				for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+					incoming += inWeights[e] * share[inSources[e]];
+				}
+				double value = teleport + damping * (incoming + danglingMass / nodeCount);
+				double delta = value - scores[v];
+				scores[v] = value;
+				deltaSum += Math.abs(delta);
+				// La masa colgante y el share del nodo se corrigen en el acto (actualizacion en el lugar).
+				if (outgoingWeight[v] <= 0.0) {
+					danglingMass += delta;
+				}
+				else {
+					share[v] = value / outgoingWeight[v];
+				}
+			}
+			lastAverageDelta = deltaSum / nodeCount;
+
+			// El barrido en el lugar no conserva la suma; ese error solo decae a ritmo d por barrido
+			// (Jacobi nunca lo genera), asi que se reescala a suma 1 en cada barrido.
+			double total = 0.0;
+			for (int v = 0; v < nodeCount; v++) {
+				total += scores[v];
+			}
+			if (total > 0.0) {
+				double scale = 1.0 / total;
+				for (int v = 0; v < nodeCount; v++) {
+					scores[v] *= scale;
+					share[v] *= scale;
+				}
+				danglingMass *= scale;
+			}
+
+			iterations++;
+			if (lastAverageDelta <= epsilon) {
+				converged = true;
+				break;
+			}
+		}
+
+		Duration elapsed = Duration.between(start, Instant.now());
+		return new ComputationOutcome(scores, iterations, lastAverageDelta, converged, timeLimited, elapsed,
+				(long) iterations * graph.edgeCount());
+	}
+}
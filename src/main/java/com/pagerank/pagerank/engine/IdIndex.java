@@ -0,0 +1,107 @@
+package com.pagerank.pagerank.engine;
+
+import java.util.Arrays;
+
+/**
+ * Mapa id de persona -> indice denso con direccionamiento abierto sobre arreglos primitivos,
+ * para no pagar un {@code Map<Long, Integer>} con claves y valores boxeados.
+ */
+public final class IdIndex {
+
+	private static final int EMPTY = -1;
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+	private int mask;
+
+	public IdIndex(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * Devuelve el indice asociado al id o -1 si no existe.
+	 *
+	 * @param id id de persona.
+	 * @return indice denso o -1.
+	 */
+	public int get(long id) {
+		int slot = slot(id);
+		while (values[slot] != EMPTY) {
+			if (keys[slot] == id) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return EMPTY;
+	}
+
+	/**
+	 * Asocia el id a un indice, reemplazando el anterior si ya existia.
+	 *
+	 * @param id id de persona.
+	 * @param index indice denso (no negativo).
+	 */
+	public void put(long id, int index) {
+		if (index < 0) {
+			throw new IllegalArgumentException("Index must be non-negative");
+		}
+		if ((size + 1) * 2 > keys.length) {
+			rehash(keys.length << 1);
+		}
+		int slot = slot(id);
+		while (values[slot] != EMPTY) {
+			if (keys[slot] == id) {
+				values[slot] = index;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = id;
+		values[slot] = index;
+		size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Copia independiente: los cambios en una no se ven en la otra.
+	 *
+	 * @return indice nuevo con las mismas asociaciones.
+	 */
+	public IdIndex copy() {
+		IdIndex copy = new IdIndex(0);
+		copy.keys = Arrays.copyOf(keys, keys.length);
+		copy.values = Arrays.copyOf(values, values.length);
+		copy.size = size;
+		copy.mask = mask;
+		return copy;
+	}
+
+	private int slot(long id) {
+		long h = id * 0x9E3779B97F4A7C15L; // mezcla de Fibonacci para ids consecutivos
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		Arrays.fill(values, EMPTY);
+		mask = capacity - 1;
+		size = 0;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != EMPTY) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.pagerank.pagerank.engine;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Jacobi por "pull" como {@link ParallelPowerIteration}, pero con el CSR transpuesto (offsets,
+ * origenes y pesos entrantes), las sumas salientes y los vectores {@code current}/{@code next}/
+ * {@code share} en segmentos nativos de la API Foreign Function &amp; Memory.
+ * <p>
+ * La copia nativa del grafo se arma una vez por {@link CsrGraph} (los snapshots son inmutables) y se
+ * libera al llegar otro grafo o en {@link #close()}; los vectores viven en un arena por corrida.
+ * Asi el trabajo de cada iteracion no genera basura ni presiona al recolector; solo el vector final se
+ * copia a un {@code double[]} para devolverlo.
+ * <p>
+ * Es un buffer de resolucion fuera del heap, no un grafo mas grande que el heap: la copia sale del
+ * CSR que {@code GraphStore} sigue teniendo en el heap, asi que el
+ * tamanio maximo sigue acotado por {@code -Xmx} y la memoria total crece en el CSR entrante. Solo
+ * cubre Jacobi; Gauss-Seidel y el adaptativo iteran sobre el heap.
+ */
+public class OffHeapPowerIteration extends PowerIteration implements AutoCloseable {
+
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final ForkJoinPool pool;
+
+	private CsrGraph cachedGraph;
+	private NativeGraph nativeGraph;
+
+	/**
+	 * Crea el motor nativo.
+	 *
+	 * @param damping factor de amortiguacion.
+	 * @param epsilon tolerancia de convergencia.
+	 * @param pool pool para repartir rangos de nodos; nulo para correr en el hilo llamador.
+	 */
+	public OffHeapPowerIteration(double damping, double epsilon, ForkJoinPool pool) {
+		super(damping, epsilon);
+		this.pool = pool;
+	}
+
+	@Override
+	public synchronized ComputationOutcome compute(CsrGraph graph, double[] initialScores, int maxIterations,
+			Duration maxDuration) {
+		int nodeCount = graph.nodeCount();
+		if (nodeCount == 0) {
+			return new ComputationOutcome(new double[0], 0, 0.0, true, false, Duration.ZERO, 0);
+		}
+		NativeGraph edges = nativeGraph(graph);
+
+		try (Arena arena = Arena.ofShared()) {
+			MemorySegment current = arena.allocate(ValueLayout.JAVA_DOUBLE, nodeCount);
+			MemorySegment next = arena.allocate(ValueLayout.JAVA_DOUBLE, nodeCount);
+			MemorySegment share = arena.allocate(ValueLayout.JAVA_DOUBLE, nodeCount); // p_i / sum_out_i, 0 para colgantes
+			if (initialScores != null && initialScores.length == nodeCount) {
+				MemorySegment.copy(initialScores, 0, current, ValueLayout.JAVA_DOUBLE, 0, nodeCount);
+			}
+			else {
+				for (long i = 0; i < nodeCount; i++) {
+					current.setAtIndex(ValueLayout.JAVA_DOUBLE, i, 1.0 / nodeCount);
+				}
+			}
+			double teleport = (1.0 - damping) / nodeCount;
+
+			int[] bounds = ParallelPowerIteration.partition(graph,
+					pool != null ? pool.getParallelism() * CHUNKS_PER_THREAD : 1);
+			double[] danglingContribution = new double[1];
+			List<Callable<Double>> danglingTasks = new ArrayList<>(bounds.length - 1);
+			List<Callable<Double>> pullTasks = new ArrayList<>(bounds.length - 1);
+			for (int c = 0; c + 1 < bounds.length; c++) {
+				int from = bounds[c];
+				int to = bounds[c + 1];
+				danglingTasks.add(() -> prepareShares(edges, current, share, from, to));
+				pullTasks.add(() -> pull(edges, current, share, next, teleport + danglingContribution[0], from, to));
+			}
+
+			int iterations = 0;
+			double lastAverageDelta = Double.MAX_VALUE;
+			boolean converged = false;
+			boolean timeLimited = false;
+			Instant start = Instant.now();
+
+			while (iterations < maxIterations) {
+				if (maxDuration != null && Duration.between(start, Instant.now()).compareTo(maxDuration) > 0) {
+					timeLimited = true;
+					break;
+				}
+				double danglingMass = run(danglingTasks);
+				danglingContribution[0] = damping * danglingMass / nodeCount;
+				double deltaSum = run(pullTasks);
+				lastAverageDelta = deltaSum / nodeCount;
+				MemorySegment.copy(next, 0, current, 0, next.byteSize());
+
+				iterations++;
+				if (lastAverageDelta <= epsilon) {
+					converged = true;
+					break;
+				}
+			}
+
+			double[] scores = new double[nodeCount];
+			MemorySegment.copy(current, ValueLayout.JAVA_DOUBLE, 0, scores, 0, nodeCount);
+			Duration elapsed = Duration.between(start, Instant.now());
+			return new ComputationOutcome(scores, iterations, lastAverageDelta, converged, timeLimited, elapsed,
+					(long) iterations * graph.edgeCount());
+		}
+	}
+
+	/**
+	 * Libera la copia nativa del ultimo grafo.
+	 */
+	@Override
+	public synchronized void close() {
+		if (nativeGraph != null) {
+			nativeGraph.arena().close();
+			nativeGraph = null;
+			cachedGraph = null;
+		}
+	}
+
+	private NativeGraph nativeGraph(CsrGraph graph) {
+		if (graph != cachedGraph) {
+			close();
+			nativeGraph = NativeGraph.copyOf(graph);
+			cachedGraph = graph;
+		}
+		return nativeGraph;
+	}
+
+	private double run(List<Callable<Double>> tasks) {
+		if (pool == null) {
+			double total = 0.0;
+			for (Callable<Double> task : tasks) {
+				try {
+					total += task.call();
+				}
+				catch (Exception ex) {
+					throw new IllegalStateException("PageRank iteration failed", ex);
+				}
+			}
+			return total;
+		}
+		return ParallelPowerIteration.sum(pool.invokeAll(tasks));
+	}
+
+	private static double prepareShares(NativeGraph graph, MemorySegment current, MemorySegment share, int from, int to) {
+		double dangling = 0.0;
+		for (long i = from; i < to; i++) {
+			double weightSum = graph.outgoingWeight().getAtIndex(ValueLayout.JAVA_DOUBLE, i);
+			double value = current.getAtIndex(ValueLayout.JAVA_DOUBLE, i);
+			if (weightSum <= 0.0) {
+				dangling += value;
+				share.setAtIndex(ValueLayout.JAVA_DOUBLE, i, 0.0);
+			}
+			else {
+				share.setAtIndex(ValueLayout.JAVA_DOUBLE, i, value / weightSum);
+			}
+		}
+		return dangling;
+	}
+
+	private double pull(NativeGraph graph, MemorySegment current, MemorySegment share, MemorySegment next,
+			double base, int from, int to) {
+		MemorySegment inOffsets = graph.inOffsets();
+		MemorySegment inSources = graph.inSources();
+		MemorySegment inWeights = graph.inWeights();
+		double delta = 0.0;
+		for (long v = from; v < to; v++) {
+			double incoming = 0.0;
+			long end = inOffsets.getAtIndex(ValueLayout.JAVA_INT, v + 1);
+			for (long e = inOffsets.getAtIndex(ValueLayout.JAVA_INT, v); e < end; e++) {
+				incoming += inWeights.getAtIndex(ValueLayout.JAVA_DOUBLE, e)
+						* share.getAtIndex(ValueLayout.JAVA_DOUBLE, inSources.getAtIndex(ValueLayout.JAVA_INT, e));
+			}
+			double value = base + damping * incoming;
+			next.setAtIndex(ValueLayout.JAVA_DOUBLE, v, value);
+			delta += Math.abs(value - current.getAtIndex(ValueLayout.JAVA_DOUBLE, v));
+		}
+		return delta;
+	}
+
+	/** Copia nativa de lo que recorre el pull, con su propio arena compartido entre hilos. */
+	private record NativeGraph(Arena arena, MemorySegment inOffsets, MemorySegment inSources, MemorySegment inWeights,
+			MemorySegment outgoingWeight) {
+
+		static NativeGraph copyOf(CsrGraph graph) {
+			int nodeCount = graph.nodeCount();
+			int edgeCount = graph.edgeCount();
+			Arena arena = Arena.ofShared();
+			MemorySegment inOffsets = arena.allocate(ValueLayout.JAVA_INT, nodeCount + 1L);
+			MemorySegment inSources = arena.allocate(ValueLayout.JAVA_INT, Math.max(1, edgeCount));
+			MemorySegment inWeights = arena.allocate(ValueLayout.JAVA_DOUBLE, Math.max(1, edgeCount));
+			MemorySegment outgoingWeight = arena.allocate(ValueLayout.JAVA_DOUBLE, nodeCount);
+			MemorySegment.copy(graph.inOffsets(), 0, inOffsets, ValueLayout.JAVA_INT, 0, nodeCount + 1);
+			MemorySegment.copy(graph.inSources(), 0, inSources, ValueLayout.JAVA_INT, 0, edgeCount);
+			MemorySegment.copy(graph.inWeights(), 0, inWeights, ValueLayout.JAVA_DOUBLE, 0, edgeCount);
+			MemorySegment.copy(graph.outgoingWeight(), 0, outgoingWeight, ValueLayout.JAVA_DOUBLE, 0, nodeCount);
+			return new NativeGraph(arena, inOffsets, inSources, inWeights, outgoingWeight);
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.pagerank.pagerank.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Iteracion de potencias paralela basada en "pull": cada nodo suma sus aristas entrantes del CSR
+ * transpuesto, asi cada hilo escribe solo su rango de {@code next} y no hay conflictos de escritura.
+ * <p>
+ * Los rangos de nodos se cortan balanceando aristas entrantes (el grafo es de ley de potencias) y
+ * las reducciones de masa colgante y delta L1 se suman por rango en orden fijo, por lo que el
+ * resultado es determinista para un mismo numero de hilos.
+ */
+public class ParallelPowerIteration extends PowerIteration {
+
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final ForkJoinPool pool;
+
+	public ParallelPowerIteration(double damping, double epsilon, ForkJoinPool pool) {
+		this(damping, epsilon, pool, DenseKernels.SCALAR);
+	}
+
+	public ParallelPowerIteration(double damping, double epsilon, ForkJoinPool pool, DenseKernels kernels) {
+		super(damping, epsilon, kernels);
+		this.pool = pool;
+	}
+
+	@Override
+	public ComputationOutcome compute(CsrGraph graph, double[] initialScores, int maxIterations,
+			Duration maxDuration) {
+		int nodeCount = graph.nodeCount();
+		if (nodeCount == 0) {
+			return new ComputationOutcome(new double[0], 0, 0.0, true, false, Duration.ZERO, 0);
+		}
+
+		double[] current = initialScores != null && initialScores.length == nodeCount
+				? Arrays.copyOf(initialScores, nodeCount)
+				: uniformVector(nodeCount);
+		double[] next = new double[nodeCount];
+		double[] share = new double[nodeCount]; // p_i / sum_out_i, 0 para colgantes
+		double teleport = (1.0 - damping) / nodeCount;
+
+		double[] inWeights = graph.inWeights();
+		int[] bounds = partition(graph, pool.getParallelism() * CHUNKS_PER_THREAD);
+		List<Callable<Double>> danglingTasks = new ArrayList<>(bounds.length - 1);
+		double[] danglingContribution = new double[1];
+		List<Callable<Double>> pullTasks = new ArrayList<>(bounds.length - 1);
+		for (int c = 0; c + 1 < bounds.length; c++) {
+			int from = bounds[c];
+			int to = bounds[c + 1];
+			danglingTasks.add(() -> prepareShares(graph, current, share, from, to));
+			pullTasks.add(() -> pull(graph, inWeights, current, share, next, teleport + danglingContribution[0],
+					from, to));
+		}
+
+		int iterations = 0;
+		double lastAverageDelta = Double.MAX_VALUE;
+		boolean converged = false;
+		boolean timeLimited = false;
+		Instant start = Instant.now();
+
+		while (iterations < maxIterations) {
+			if (maxDuration != null && Duration.between(start, Instant.now()).compareTo(maxDuration) > 0) {
+				timeLimited = true;
+				break;
+			}
+			// Fase 1: shares por nodo y masa colgante (reduccion por rango).
+			double danglingMass = sum(pool.invokeAll(danglingTasks));
+			danglingContribution[0] = damping * danglingMass / nodeCount;
+			// Fase 2: next[v] = (1-d)/N + d*D/N + d * sum_{u->v} w_uv * share[u]; devuelve |next - current|.
+			double deltaSum = sum(pool.invokeAll(pullTasks));
+			lastAverageDelta = deltaSum / nodeCount;
+			System.arraycopy(next, 0, current, 0, nodeCount);
+
+			iterations++;
+			if (lastAverageDelta <= epsilon) {
+				converged = true;
+				break;
+			}
+		}
+
+		Duration elapsed = Duration.between(start, Instant.now());
+		return new ComputationOutcome(current, iterations, lastAverageDelta, converged, timeLimited, elapsed,
+				(long) iterations * graph.edgeCount());
+	}
+
+	private static double prepareShares(CsrGraph graph, double[] current, double[] share, int from, int to) {
+		double[] outgoingWeight = graph.outgoingWeight();
+		double dangling = 0.0;
+		for (int i = from; i < to; i++) {
+			double weightSum = outgoingWeight[i];
+			if (weightSum <= 0.0) {
+				dangling += current[i];
+				share[i] = 0.0;
+			}
+			else {
+				share[i] = current[i] / weightSum;
+			}
+		}
+		return dangling;
+	}
+
+	private double pull(CsrGraph graph, double[] inWeights, double[] current, double[] share, double[] next,
+			double base, int from, int to) {
+		int[] inOffsets = graph.inOffsets();
+		int[] inSources = graph.inSources();
+		double delta = 0.0;
+		for (int v = from; v < to; v++) {
+			double incoming = kernels.gather(inWeights, inSources, share, inOffsets[v], inOffsets[v + 1]);
+			double value = base + damping * incoming;
+			next[v] = value;
+			delta += Math.abs(value - current[v]);
+		}
+		return delta;
+	}
+
+	/**
+	 * Corta {@code [0, N)} en rangos contiguos con un costo similar (nodos + aristas entrantes).
+	 */
+	static int[] partition(CsrGraph graph, int chunks) {
+		int nodeCount = graph.nodeCount();
+		int[] inOffsets = graph.inOffsets();
+		int target = Math.max(1, Math.min(chunks, nodeCount));
+		long totalCost = (long) nodeCount + graph.edgeCount();
+		int[] bounds = new int[target + 1];
+		int count = 1;
+		for (int v = 0; v < nodeCount && count < target; v++) {
+			long cost = (long) v + inOffsets[v];
+			if (cost * target >= totalCost * count) {
+				if (v > bounds[count - 1]) {
+					bounds[count++] = v;
+				}
+			}
+		}
+		bounds[count] = nodeCount;
+		return Arrays.copyOf(bounds, count + 1);
+	}
+
+	static double sum(List<Future<Double>> partials) {
+		double total = 0.0;
+		try {
+			for (Future<Double> partial : partials) {
+				total += partial.get();
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("PageRank iteration interrupted", ex);
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("PageRank iteration failed", ex.getCause());
+		}
+		return total;
+	}
+}
@@ -0,0 +1,207 @@
+package com.pagerank.pagerank.engine;
+
+import java.util.Arrays;
+
+/**
+ * PageRank personalizado (PPR) por "forward push" local, con el teletransporte concentrado en un
+ * conjunto de semillas en lugar de uniforme.
+ * <p>
+ * Se parte de {@code p = 0, r = s} (s uniforme sobre las semillas). Un push en u pasa
+ * {@code (1-d)*r[u]} al estimado y reparte {@code d*r[u]} por sus aristas salientes segun
+ * {@code w_uv / sum_out_u}; la masa de un colgante vuelve a las semillas. Como
+ * {@code sum p + sum r = 1} y el PPR exacto es {@code p + PPR(r)}, el error L1 queda acotado por la
+ * masa residual. Solo se empujan nodos con {@code r[u] > epsilon * max(1, grado_u)}, asi que el
+ * trabajo depende del vecindario de las semillas y no de N; ademas se corta al superar un
+ * presupuesto de aristas visitadas. El estado por nodo tambien es disperso (solo los nodos
+ * alcanzados), asi que una consulta no reserva ni limpia arreglos de tamanio N.
+ */
+public class PersonalizedPush {
+
+	private final double damping;
+	private final double epsilon;
+
+	public PersonalizedPush(double damping, double epsilon) {
+		this.damping = damping;
+		this.epsilon = epsilon;
+	}
+
+	/**
+	 * Calcula el PPR de las semillas.
+	 *
+	 * @param graph grafo de follows.
+	 * @param seeds indices de las semillas en el grafo, sin repetir.
+	 * @param maxEdgeVisits presupuesto de aristas a recorrer.
+	 * @return nodos alcanzados con su score, de mayor a menor, y metricas de la corrida.
+	 */
+	public Result compute(CsrGraph graph, int[] seeds, long maxEdgeVisits) {
+		int nodeCount = graph.nodeCount();
+		if (nodeCount == 0 || seeds.length == 0) {
+			return new Result(new int[0], new double[0], seeds.clone(), 0, 0, seeds.length == 0 ? 0.0 : 1.0, false);
+		}
+		Frontier frontier = new Frontier(Math.min(nodeCount, 64));
+		double seedMass = 1.0 / seeds.length;
+		int[] seedSlots = new int[seeds.length];
+		for (int i = 0; i < seeds.length; i++) {
+			seedSlots[i] = frontier.slot(seeds[i]);
+			frontier.residual[seedSlots[i]] = seedMass;
+			frontier.enqueue(seedSlots[i]);
+		}
+
+		int[] outOffsets = graph.outOffsets();
+		int[] outTargets = graph.outTargets();
+		double[] outWeights = graph.outWeights();
+		double[] outgoingWeight = graph.outgoingWeight();
+		int pushes = 0;
+		long edgeVisits = 0;
+		boolean budgetExhausted = false;
+
+		while (frontier.queued > 0) {
+			if (edgeVisits >= maxEdgeVisits) {
+				budgetExhausted = true;
+				break;
+			}
+			int slot = frontier.dequeue();
+			int u = frontier.nodes[slot];
+
+			double mass = frontier.residual[slot];
+			if (mass <= threshold(graph, u)) {
+				continue;
+			}
+			frontier.residual[slot] = 0.0;
+			frontier.estimate[slot] += (1.0 - damping) * mass;
+			pushes++;
+			if (outgoingWeight[u] <= 0.0) {
+				// Colgante: su masa vuelve a las semillas.
+				double share = damping * mass / seeds.length;
+				for (int i = 0; i < seeds.length; i++) {
+					int seedSlot = seedSlots[i];
+					frontier.residual[seedSlot] += share;
+					if (!frontier.enqueued[seedSlot] && frontier.residual[seedSlot] > threshold(graph, seeds[i])) {
+						frontier.enqueue(seedSlot);
+					}
+				}
+				continue;
+			}
+			double share = damping * mass / outgoingWeight[u];
+			for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+				int v = outTargets[e];
+				int target = frontier.slot(v);
+				frontier.residual[target] += share * outWeights[e];
+				if (!frontier.enqueued[target] && frontier.residual[target] > threshold(graph, v)) {
+					frontier.enqueue(target);
+				}
+			}
+			edgeVisits += outOffsets[u + 1] - outOffsets[u];
+		}
+
+		double residualMass = 0.0;
+		int reached = 0;
+		for (int slot = 0; slot < frontier.size; slot++) {
+			residualMass += frontier.residual[slot];
+			if (frontier.estimate[slot] > 0.0) {
+				reached++;
+			}
+		}
+		double[] estimate = frontier.estimate;
+		Integer[] order = new Integer[reached];
+		for (int slot = 0, i = 0; i < reached; slot++) {
+			if (estimate[slot] > 0.0) {
+				order[i++] = slot;
+			}
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(estimate[b], estimate[a]));
+		int[] nodes = new int[reached];
+		double[] scores = new double[reached];
+		for (int i = 0; i < reached; i++) {
+			nodes[i] = frontier.nodes[order[i]];
+			scores[i] = estimate[order[i]];
+		}
+		return new Result(nodes, scores, Arrays.copyOf(frontier.nodes, frontier.size), pushes, edgeVisits, residualMass,
+				budgetExhausted);
+	}
+
+	private double threshold(CsrGraph graph, int node) {
+		return epsilon * Math.max(1, graph.outDegree(node));
+	}
+
+	/**
+	 * Resultado de un PPR.
+	 *
+	 * @param nodes indices alcanzados con score positivo, de mayor a menor score.
+	 * @param scores score de cada uno de {@code nodes}.
+	 * @param reached todos los nodos alcanzados (con estimado o residuo), en orden de llegada: el
+	 *        resultado solo depende de sus filas salientes.
+	 * @param pushes pushes realizados.
+	 * @param edgeVisits aristas recorridas.
+	 * @param errorBound masa residual: cota del error L1 respecto del PPR exacto.
+	 * @param budgetExhausted true si se corto por el presupuesto de aristas.
+	 */
+	public record Result(int[] nodes, double[] scores, int[] reached, int pushes, long edgeVisits, double errorBound,
+			boolean budgetExhausted) {
+	}
+
+	/**
+	 * Nodos alcanzados por una corrida, en slots densos {@code 0..size-1} asignados en orden de llegada
+	 * ({@link IdIndex} nodo -> slot), con su estimado, residuo y la cola FIFO de slots a empujar.
+	 */
+	private static final class Frontier {
+
+		private final IdIndex slots;
+		private int[] nodes;
+		private double[] estimate;
+		private double[] residual;
+		private boolean[] enqueued;
+		private int size;
+		private int[] queue;
+		private int head;
+		private int queued;
+
+		Frontier(int expectedNodes) {
+			this.slots = new IdIndex(expectedNodes);
+			this.nodes = new int[expectedNodes];
+			this.estimate = new double[expectedNodes];
+			this.residual = new double[expectedNodes];
+			this.enqueued = new boolean[expectedNodes];
+			this.queue = new int[expectedNodes];
+		}
+
+		int slot(int node) {
+			int slot = slots.get(node);
+			if (slot >= 0) {
+				return slot;
+			}
+			if (size == nodes.length) {
+				int capacity = Math.max(4, size * 2);
+				nodes = Arrays.copyOf(nodes, capacity);
+				estimate = Arrays.copyOf(estimate, capacity);
+				residual = Arrays.copyOf(residual, capacity);
+				enqueued = Arrays.copyOf(enqueued, capacity);
+			}
+			nodes[size] = node;
+			slots.put(node, size);
+			return size++;
+		}
+
+		void enqueue(int slot) {
+			if (queued == queue.length) {
+				// Cada slot esta a lo sumo una vez en la cola: se desenrolla el anillo en uno mas grande.
+				int[] grown = new int[Math.max(4, queue.length * 2)];
+				for (int i = 0; i < queued; i++) {
+					grown[i] = queue[(head + i) % queue.length];
+				}
+				queue = grown;
+				head = 0;
+			}
+			queue[(head + queued++) % queue.length] = slot;
+			enqueued[slot] = true;
+		}
+
+		int dequeue() {
+			int slot = queue[head];
+			head = (head + 1) % queue.length;
+			queued--;
+			enqueued[slot] = false;
+			return slot;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.pagerank.pagerank.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Iteracion de potencias secuencial (Jacobi) que empuja la masa de cada nodo por sus aristas salientes.
+ */
+public class PowerIteration {
+
+	protected final double damping;
+	protected final double epsilon;
+	protected final DenseKernels kernels;
+
+	public PowerIteration(double damping, double epsilon) {
+		this(damping, epsilon, DenseKernels.SCALAR);
+	}
+
+	public PowerIteration(double damping, double epsilon, DenseKernels kernels) {
+		this.damping = damping;
+		this.epsilon = epsilon;
+		this.kernels = kernels;
+	}
+
+	/*
+	 * Ecuacion base de PageRank:
+	 * p_{k+1} = (1-d)/N * e  +  d * (A^T * p_k + (sum_{i en D} p_k(i) / N) * e)
+	 * donde:
+	 * - N es el numero de nodos,
+	 * - d es el factor de amortiguacion,
+	 * - e es el vector de unos (aporte uniforme en cada componente),
+	 * - A usa w_ij / sum_out_i como probabilidad de transicion de i a j.
+	 * - w_ij es el peso de la arista i->j.
+	 * - sum_out_i es la suma de pesos salientes de i.
+	 * - D son los nodos colgantes y su masa se redistribuye uniforme.
+	 */
+	public ComputationOutcome compute(CsrGraph graph, double[] initialScores, int maxIterations,
+			Duration maxDuration) {
+		int nodeCount = graph.nodeCount();
+		if (nodeCount == 0) {
+			return new ComputationOutcome(new double[0], 0, 0.0, true, false, Duration.ZERO, 0);
+		}
+
+		// current es el vector de probabilidades p_k; si hay warm start lo usamos.
+		double[] current = initialScores != null && initialScores.length == nodeCount
+				? Arrays.copyOf(initialScores, nodeCount)
+				: uniformVector(nodeCount);
+		double[] next = new double[nodeCount];
+
+		double teleport = (1.0 - damping) / nodeCount; // termino de teletransporte uniforme
+
+		int[] outOffsets = graph.outOffsets();
+		int[] outTargets = graph.outTargets();
+		double[] outWeights = graph.outWeights();
+		double[] outgoingWeight = graph.outgoingWeight();
+
+		int iterations = 0;
+		double lastAverageDelta = Double.MAX_VALUE;
+		boolean converged = false;
+		boolean timeLimited = false;
+		Instant start = Instant.now();
+
+		while (iterations < maxIterations) {
+			// Corte por tiempo si supera maxDuration
+			if (maxDuration != null && Duration.between(start, Instant.now()).compareTo(maxDuration) > 0) {
+				timeLimited = true;
+				break;
+			}
+			// Inicializamos con el vector de teletransporte: (1-d)/N en cada nodo.
+			Arrays.fill(next, teleport);
+			double danglingMass = 0.0; // suma de masa en nodos sin salientes
+
+			for (int i = 0; i < nodeCount; i++) {
+				double rankValue = current[i];
+				double weightSum = outgoingWeight[i];
+				// Nodos colgantes: acumulan para redistribuir luego.
+				if (weightSum <= 0.0) {
+					danglingMass += rankValue;
+					continue;
+				}
+				// Para cada arista i->j, aportamos d * p_i * (w_ij / sum_out_i)
+				double contribution = damping * rankValue / weightSum;
+				for (int e = outOffsets[i]; e < outOffsets[i + 1]; e++) {
+					next[outTargets[e]] += contribution * outWeights[e];
+				}
+			}
+
+			// Redistribuir masa de nodos colgantes uniformemente: d * (danglingMass / N)
+			kernels.add(next, damping * danglingMass / nodeCount);
+
+			// Delta L1 promedio = sum |p_{k+1} - p_k| / N
+			lastAverageDelta = kernels.distance(next, current) / nodeCount;
+			System.arraycopy(next, 0, current, 0, nodeCount); // p_{k+1} -> p_k
+
+			iterations++;
+			if (lastAverageDelta <= epsilon) {
+				converged = true;
+				break;
+			}
+		}
+
+		Duration elapsed = Duration.between(start, Instant.now());
+		return new ComputationOutcome(current, iterations, lastAverageDelta, converged, timeLimited, elapsed,
+				(long) iterations * graph.edgeCount());
+	}
+
+	protected static void normalize(double[] vector) {
+		double total = 0.0;
+		for (double value : vector) {
+			total += value;
+		}
+		if (total <= 0.0) {
+			Arrays.fill(vector, vector.length == 0 ? 0.0 : 1.0 / vector.length);
+			return;
+		}
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] /= total;
+		}
+	}
+
+	protected static double[] uniformVector(int size) {
+		double[] vector = new double[size];
+		if (size == 0) {
+			return vector;
+		}
+		double value = 1.0 / size; // uniform prior: sum(vector)=1
+		Arrays.fill(vector, value);
+		return vector;
+	}
+}
@@ -0,0 +1,319 @@
+package com.pagerank.pagerank.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * PageRank incremental por "forward push" sobre residuos.
+ * <p>
+ * Junto al vector estimado {@code x} se mantiene el residuo {@code r = (1-d)/N + d*M*x - x}
+ * (M incluye la redistribucion uniforme de los colgantes). El PageRank exacto es
+ * {@code p = x + (I - d*M)^-1 * r}, y como M es estocastica por columnas
+ * {@code ||p - x||_1 <= ||r||_1 / (1-d)}: ese es el error acotado que se informa.
+ * <p>
+ * Un push en u mueve su residuo al estimado ({@code x[u] += r[u]}) y reparte {@code d*r[u]} por
+ * sus aristas salientes; solo se empuja mientras {@code |r[u]| > epsilon*(1-d)}, asi que el
+ * error promedio por nodo queda bajo epsilon y el trabajo es proporcional al cambio. La parte
+ * uniforme del residuo (teletransporte y masa colgante) se lleva aparte como un escalar para no
+ * recorrer los N nodos en cada push.
+ */
+public class ResidualPush {
+
+	private final double damping;
+	private final double pushThreshold;
+	private final DenseKernels kernels;
+
+	public ResidualPush(double damping, double epsilon) {
+		this(damping, epsilon, DenseKernels.SCALAR);
+	}
+
+	public ResidualPush(double damping, double epsilon, DenseKernels kernels) {
+		this.damping = damping;
+		this.pushThreshold = epsilon * (1.0 - damping);
+		this.kernels = kernels;
+	}
+
+	/**
+	 * Arma el estado a partir de un vector de scores calculando el residuo exacto (un barrido O(E)).
+	 *
+	 * @param graph grafo al que corresponden los scores.
+	 * @param scores vector estimado; si es nulo o no coincide en tamano se usa uniforme.
+	 * @return estado listo para {@link #compute}.
+	 */
+	public State initialize(CsrGraph graph, double[] scores) {
+		int nodeCount = graph.nodeCount();
+		double[] estimate = scores != null && scores.length == nodeCount
+				? Arrays.copyOf(scores, nodeCount)
+				: PowerIteration.uniformVector(nodeCount);
+		State state = new State(graph, estimate, new double[nodeCount], 0.0, danglingMass(graph, estimate));
+		for (int v = 0; v < nodeCount; v++) {
+			state.residual[v] = exactResidual(state, v);
+		}
+		return state;
+	}
+
+	/**
+	 * Lleva el estado al grafo nuevo y empuja residuos hasta que ninguno supere el umbral o se
+	 * agote el tiempo. Los residuos se corrigen solo por la diferencia de las filas salientes de
+	 * {@code changedSources}, que debe incluir el origen de cada follow cambiado entre
+	 * {@code state.graph()} y {@code graph} (ver {@code GraphStore#changedSources}).
+	 *
+	 * @param state estado previo; se modifica en el lugar.
+	 * @param graph grafo actual.
+	 * @param changedSources ids cuya fila saliente cambio; nulo si no se sabe, y entonces se
+	 *        recalcula el residuo exacto (O(E)).
+	 * @param maxDuration limite de tiempo (Z); nulo para no limitar.
+	 * @return resultado con el estimado, pushes como iteraciones, aristas visitadas y cota de error L1.
+	 */
+	public ComputationOutcome compute(State state, CsrGraph graph, Set<Long> changedSources, Duration maxDuration) {
+		Instant start = Instant.now();
+		int nodeCount = graph.nodeCount();
+		if (nodeCount == 0) {
+			state.rebase(graph, new double[0], new double[0], 0.0, 0.0);
+			return new ComputationOutcome(new double[0], 0, 0.0, true, false, Duration.ZERO, 0, 0.0);
+		}
+
+		int[] queue = new int[nodeCount];
+		boolean[] enqueued = new boolean[nodeCount];
+		int head = 0;
+		int queued = 0;
+		long edgeVisits = 0;
+
+		if (state.graph != graph) {
+			edgeVisits += applyGraphChange(state, graph, changedSources);
+		}
+		// Semillas: todo nodo con residuo sobre el umbral (incluye lo que quedo de una corrida cortada por Z).
+		for (int v = 0; v < nodeCount; v++) {
+			if (Math.abs(state.residual[v]) > pushThreshold) {
+				queue[queued++] = v;
+				enqueued[v] = true;
+			}
+		}
+
+		double[] estimate = state.estimate;
+		double[] residual = state.residual;
+		double[] before = Arrays.copyOf(estimate, nodeCount);
+		int[] outOffsets = graph.outOffsets();
+		int[] outTargets = graph.outTargets();
+		double[] outWeights = graph.outWeights();
+		double[] outgoingWeight = graph.outgoingWeight();
+
+		int pushes = 0;
+		boolean timeLimited = false;
+		while (true) {
+			while (queued > 0) {
+				if (maxDuration != null && Duration.between(start, Instant.now()).compareTo(maxDuration) > 0) {
+					timeLimited = true;
+					break;
+				}
+				int u = queue[head];
+				head = (head + 1) % nodeCount;
+				queued--;
+				enqueued[u] = false;
+
+				double mass = residual[u];
+				if (Math.abs(mass) <= pushThreshold) {
+					continue;
+				}
+				estimate[u] += mass;
+				residual[u] = 0.0;
+				pushes++;
+				if (outgoingWeight[u] <= 0.0) {
+					// Colgante: su masa se reparte uniforme, va al residuo escalar.
+					state.danglingMass += mass;
+					state.uniformResidual += damping * mass / nodeCount;
+					continue;
+				}
+				double share = damping * mass / outgoingWeight[u];
+				for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+					int v = outTargets[e];
+					residual[v] += share * outWeights[e];
+					if (!enqueued[v] && Math.abs(residual[v]) > pushThreshold) {
+						queue[(head + queued++) % nodeCount] = v;
+						enqueued[v] = true;
+					}
+				}
+				edgeVisits += outOffsets[u + 1] - outOffsets[u];
+			}
+			if (timeLimited || Math.abs(state.uniformResidual) <= pushThreshold) {
+				break;
+			}
+			// El residuo uniforme ya pesa: se vuelca a cada nodo (O(N)) y se siguen empujando los que superan el umbral.
+			double uniform = state.uniformResidual;
+			state.uniformResidual = 0.0;
+			for (int v = 0; v < nodeCount; v++) {
+				residual[v] += uniform;
+				if (!enqueued[v] && Math.abs(residual[v]) > pushThreshold) {
+					queue[(head + queued++) % nodeCount] = v;
+					enqueued[v] = true;
+				}
+			}
+		}
+
+		double deltaSum = kernels.distance(estimate, before);
+		return new ComputationOutcome(Arrays.copyOf(estimate, nodeCount), pushes, deltaSum / nodeCount, queued == 0,
+				timeLimited, Duration.between(start, Instant.now()), edgeVisits, state.errorBound(damping));
+	}
+
+	/**
+	 * Reindexa el estado al grafo nuevo, corrige el residuo uniforme por el cambio de N y de masa
+	 * colgante y aplica a los residuos la diferencia de las filas salientes de los origenes
+	 * cambiados: {@code r[v] += d * x_u * (w'_uv / W'_u - w_uv / W_u)}. Cuesta O(grado saliente)
+	 * por origen.
+	 *
+	 * @return aristas leidas para corregir los residuos.
+	 */
+	private long applyGraphChange(State state, CsrGraph graph, Set<Long> changedSources) {
+		CsrGraph previous = state.graph;
+		int nodeCount = graph.nodeCount();
+		double[] estimate = new double[nodeCount];
+		double[] residual = new double[nodeCount];
+		boolean[] added = new boolean[nodeCount];
+		int mapped = 0;
+		for (int v = 0; v < nodeCount; v++) {
+			long id = graph.idAt(v);
+			int old = v < previous.nodeCount() && previous.idAt(v) == id ? v : previous.indexOf(id);
+			if (old >= 0) {
+				estimate[v] = state.estimate[old];
+				residual[v] = state.residual[old];
+				mapped++;
+			}
+			else {
+				added[v] = true;
+			}
+		}
+		if (mapped < previous.nodeCount() || changedSources == null) {
+			// Desaparecieron nodos (recarga completa) o no se sabe que cambio: no hay diff confiable, se recalcula todo.
+			State fresh = initialize(graph, estimate);
+			state.rebase(graph, fresh.estimate, fresh.residual, 0.0, fresh.danglingMass);
+			return graph.edgeCount();
+		}
+
+		// Los nodos no afectados solo ven el cambio del termino uniforme (1-d)/N + d*D/N.
+		double danglingMass = danglingMass(graph, estimate);
+		double uniformShift = uniformTerm(nodeCount, danglingMass) - uniformTerm(previous.nodeCount(), state.danglingMass);
+		state.rebase(graph, estimate, residual, state.uniformResidual + uniformShift, danglingMass);
+		// Persona nueva: x = 0, su residuo es el termino uniforme completo mas lo que le llegue por aristas nuevas.
+		double uniform = uniformTerm(nodeCount, danglingMass);
+		for (int v = 0; v < nodeCount; v++) {
+			if (added[v]) {
+				residual[v] = uniform - state.uniformResidual;
+			}
+		}
+
+		long edgeVisits = 0;
+		for (Long id : changedSources) {
+			int u = graph.indexOf(id);
+			if (u < 0 || estimate[u] == 0.0) {
+				continue; // sin masa no hay aporte que corregir
+			}
+			double mass = damping * estimate[u];
+			int old = previous.indexOf(id);
+			if (old >= 0 && previous.outgoingWeight()[old] > 0.0) {
+				double share = mass / previous.outgoingWeight()[old];
+				for (int e = previous.outOffsets()[old]; e < previous.outOffsets()[old + 1]; e++) {
+					int target = graph.indexOf(previous.idAt(previous.outTargets()[e]));
+					residual[target] -= share * previous.outWeights()[e];
+				}
+				edgeVisits += previous.outDegree(old);
+			}
+			if (graph.outgoingWeight()[u] > 0.0) {
+				double share = mass / graph.outgoingWeight()[u];
+				for (int e = graph.outOffsets()[u]; e < graph.outOffsets()[u + 1]; e++) {
+					residual[graph.outTargets()[e]] += share * graph.outWeights()[e];
+				}
+				edgeVisits += graph.outDegree(u);
+			}
+		}
+		return edgeVisits;
+	}
+
+	/**
+	 * Residuo exacto de un nodo: (1-d)/N + d*(sum_{u->v} w_uv * x_u / sum_out_u + D/N) - x_v.
+	 */
+	private double exactResidual(State state, int v) {
+		CsrGraph graph = state.graph;
+		int[] inOffsets = graph.inOffsets();
+		int[] inSources = graph.inSources();
+		double[] outgoingWeight = graph.outgoingWeight();
+		double incoming = 0.0;
+		for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+			int source = inSources[e];
+			incoming += graph.inWeight(e) * state.estimate[source] / outgoingWeight[source];
+		}
+		return uniformTerm(graph.nodeCount(), state.danglingMass) + damping * incoming - state.estimate[v];
+	}
+
+	private double uniformTerm(int nodeCount, double danglingMass) {
+		return nodeCount == 0 ? 0.0 : ((1.0 - damping) + damping * danglingMass) / nodeCount;
+	}
+
+	private static double danglingMass(CsrGraph graph, double[] estimate) {
+		double mass = 0.0;
+		for (int i = 0; i < estimate.length; i++) {
+			if (graph.isDangling(i)) {
+				mass += estimate[i];
+			}
+		}
+		return mass;
+	}
+
+	/**
+	 * Estado del motor: grafo al que corresponde, estimado, residuo por nodo, residuo uniforme
+	 * pendiente y masa colgante del estimado. Mutable; lo usa un solo hilo por vez.
+	 */
+	public static final class State {
+
+		private CsrGraph graph;
+		private double[] estimate;
+		private double[] residual;
+		private double uniformResidual;
+		private double danglingMass;
+
+		private State(CsrGraph graph, double[] estimate, double[] residual, double uniformResidual, double danglingMass) {
+			this.graph = graph;
+			this.estimate = estimate;
+			this.residual = residual;
+			this.uniformResidual = uniformResidual;
+			this.danglingMass = danglingMass;
+		}
+
+		public CsrGraph graph() {
+			return graph;
+		}
+
+		/**
+		 * Copia independiente, para probar un cambio sin tocar el estado vigente.
+		 *
+		 * @return copia del estado.
+		 */
+		public State copy() {
+			return new State(graph, estimate.clone(), residual.clone(), uniformResidual, danglingMass);
+		}
+
+		/**
+		 * Cota del error L1 del estimado respecto del PageRank exacto: (sum |r| + N*|c|) / (1-d).
+		 *
+		 * @param damping factor de amortiguacion.
+		 * @return cota de {@code ||p - x||_1}.
+		 */
+		public double errorBound(double damping) {
+			double total = residual.length * Math.abs(uniformResidual);
+			for (double value : residual) {
+				total += Math.abs(value);
+			}
+			return total / (1.0 - damping);
+		}
+
+		private void rebase(CsrGraph graph, double[] estimate, double[] residual, double uniformResidual,
+				double danglingMass) {
+			this.graph = graph;
+			this.estimate = estimate;
+			this.residual = residual;
+			this.uniformResidual = uniformResidual;
+			this.danglingMass = danglingMass;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.pagerank.pagerank.engine;
+
+/**
+ * Lazos densos escalares; el JIT puede auto-vectorizar {@link #add} pero no el gather.
+ */
+final class ScalarKernels implements DenseKernels {
+
+	@Override
+	public String label() {
+		return "scalar";
+	}
+
+	@Override
+	public void add(double[] vector, double value) {
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] += value;
+		}
+	}
+
+	@Override
+	public double distance(double[] a, double[] b) {
+		double total = 0.0;
+		for (int i = 0; i < a.length; i++) {
+			total += Math.abs(a[i] - b[i]);
+		}
+		return total;
+	}
+
+	@Override
+	public double gather(double[] weights, int[] indexes, double[] values, int from, int to) {
+		double total = 0.0;
+		for (int e = from; e < to; e++) {
+			total += weights[e] * values[indexes[e]];
+		}
+		return total;
+	}
+}
@@ -0,0 +1,43 @@
+package com.pagerank.pagerank.engine;
+
+import java.util.Locale;
+
+/**
+ * Donde vive el estado del PageRank batch (Jacobi) mientras itera.
+ * <ul>
+ * <li>{@code HEAP}: arreglos Java; el CSR y los vectores cuentan contra {@code -Xmx}.</li>
+ * <li>{@code OFF_HEAP}: el Jacobi itera sobre una copia nativa de las aristas entrantes, los pesos y
+ * los vectores de scores (API Foreign Function &amp; Memory), fuera del recolector. El CSR del heap
+ * se mantiene, asi que no permite grafos mayores que {@code -Xmx}.</li>
+ * </ul>
+ */
+public enum ScoreStorage {
+	HEAP,
+	OFF_HEAP;
+
+	/**
+	 * Interpreta el nombre configurado ({@code heap}, {@code off-heap}).
+	 *
+	 * @param value nombre del modo, sin distinguir mayusculas ni guiones.
+	 * @return modo correspondiente.
+	 * @throws IllegalArgumentException si el nombre no corresponde a ningun modo.
+	 */
+	public static ScoreStorage from(String value) {
+		String normalized = value == null ? "" : value.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+		for (ScoreStorage storage : values()) {
+			if (storage.name().equals(normalized)) {
+				return storage;
+			}
+		}
+		throw new IllegalArgumentException("Unknown score storage: " + value);
+	}
+
+	/**
+	 * Nombre tal como se configura.
+	 *
+	 * @return nombre en minusculas con guiones.
+	 */
+	public String label() {
+		return name().toLowerCase(Locale.ROOT).replace('_', '-');
+	}
+}
@@ -0,0 +1,45 @@
+package com.pagerank.pagerank.engine;
+
+import java.util.Locale;
+
+/**
+ * Estrategia del PageRank batch.
+ * <ul>
+ * <li>{@code JACOBI}: iteracion de potencias clasica (paralela si hay mas de un hilo).</li>
+ * <li>{@code GAUSS_SEIDEL}: actualiza el vector en el lugar, cada nodo usa los valores ya
+ * recalculados en el mismo barrido.</li>
+ * <li>{@code ADAPTIVE}: congela los nodos cuyo cambio cae bajo una fraccion de epsilon y deja de
+ * recorrer sus aristas entrantes.</li>
+ * </ul>
+ */
+public enum SolverMode {
+	JACOBI,
+	GAUSS_SEIDEL,
+	ADAPTIVE;
+
+	/**
+	 * Interpreta el nombre recibido por parametro ({@code jacobi}, {@code gauss-seidel}, {@code adaptive}).
+	 *
+	 * @param value nombre del modo, sin distinguir mayusculas ni guiones.
+	 * @return modo correspondiente.
+	 * @throws IllegalArgumentException si el nombre no corresponde a ningun modo.
+	 */
+	public static SolverMode from(String value) {
+		String normalized = value == null ? "" : value.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+		for (SolverMode mode : values()) {
+			if (mode.name().equals(normalized)) {
+				return mode;
+			}
+		}
+		throw new IllegalArgumentException("Unknown solver mode: " + value);
+	}
+
+	/**
+	 * Nombre tal como se acepta por parametro.
+	 *
+	 * @return nombre en minusculas con guiones.
+	 */
+	public String label() {
+		return name().toLowerCase(Locale.ROOT).replace('_', '-');
+	}
+}
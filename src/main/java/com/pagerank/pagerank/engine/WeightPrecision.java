@@ -0,0 +1,45 @@
+package com.pagerank.pagerank.engine;
+
+import java.util.Locale;
+
+/**
+ * Precision con la que el batch Jacobi guarda pesos de aristas y scores mientras itera.
+ * <ul>
+ * <li>{@code DOUBLE}: los arreglos {@code double[]} del {@link CsrGraph}, sin copia.</li>
+ * <li>{@code FLOAT}: probabilidades de transicion {@code w_ij / sum_out_i} en {@code float} y
+ * vectores de scores en {@code float}.</li>
+ * <li>{@code FIXED16}: pesos en punto fijo de 16 bits sin signo (pasos de 1/65535) y vectores de
+ * scores en {@code float}.</li>
+ * </ul>
+ */
+public enum WeightPrecision {
+	DOUBLE,
+	FLOAT,
+	FIXED16;
+
+	/**
+	 * Interpreta el nombre configurado ({@code double}, {@code float}, {@code fixed16}).
+	 *
+	 * @param value nombre del modo, sin distinguir mayusculas ni guiones.
+	 * @return modo correspondiente.
+	 * @throws IllegalArgumentException si el nombre no corresponde a ningun modo.
+	 */
+	public static WeightPrecision from(String value) {
+		String normalized = value == null ? "" : value.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+		for (WeightPrecision precision : values()) {
+			if (precision.name().equals(normalized)) {
+				return precision;
+			}
+		}
+		throw new IllegalArgumentException("Unknown weight precision: " + value);
+	}
+
+	/**
+	 * Nombre tal como se configura.
+	 *
+	 * @return nombre en minusculas.
+	 */
+	public String label() {
+		return name().toLowerCase(Locale.ROOT).replace('_', '-');
+	}
+}
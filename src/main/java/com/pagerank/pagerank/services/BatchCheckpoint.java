@@ -0,0 +1,79 @@
+package com.pagerank.pagerank.services;
+
+import java.util.Arrays;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.SolverMode;
+
+/**
+ * Batch cortado por {@code Z}: vector e iteraciones acumuladas sobre el grafo donde se calculo.
+ * La proxima ventana sigue desde {@link #scoresFor(CsrGraph)} con las iteraciones que quedan de
+ * {@code MAX_ITERS}, asi que el total entre ventanas nunca supera el de un batch de una sola vez.
+ *
+ * @param graph grafo de la ventana que corto.
+ * @param solverMode solver del batch; la continuacion usa el mismo.
+ * @param scores vector al cortar, indexado como {@code graph}.
+ * @param iterations iteraciones acumuladas en todas las ventanas.
+ */
+record BatchCheckpoint(CsrGraph graph, SolverMode solverMode, double[] scores, int iterations) {
+
+	/**
+	 * Checkpoint de la primera ventana de un batch.
+	 *
+	 * @param graph grafo de la ventana.
+	 * @param solverMode solver del batch.
+	 * @param scores vector al cortar (se copia).
+	 * @param iterations iteraciones de la ventana.
+	 * @return checkpoint nuevo.
+	 */
+	static BatchCheckpoint of(CsrGraph graph, SolverMode solverMode, double[] scores, int iterations) {
+		return new BatchCheckpoint(graph, solverMode, Arrays.copyOf(scores, graph.nodeCount()), iterations);
+	}
+
+	/**
+	 * Checkpoint de la ventana siguiente, sumando sus iteraciones a las acumuladas.
+	 *
+	 * @param current grafo de la nueva ventana.
+	 * @param newScores vector al cortar (se copia).
+	 * @param windowIterations iteraciones de la nueva ventana.
+	 * @return checkpoint que reemplaza a este.
+	 */
+	BatchCheckpoint next(CsrGraph current, double[] newScores, int windowIterations) {
+		return of(current, solverMode, newScores, iterations + windowIterations);
+	}
+
+	/**
+	 * Iteraciones que le quedan al batch dentro del tope.
+	 *
+	 * @param maxIters tope de iteraciones de un batch completo.
+	 * @return iteraciones disponibles para la proxima ventana, nunca negativas.
+	 */
+	int remainingIterations(int maxIters) {
+		return Math.max(0, maxIters - iterations);
+	}
+
+	/**
+	 * Vector inicial para el grafo actual; si cambio, se mapea por id (nodos nuevos con 1/N) y se
+	 * normaliza. Cualquier vector de probabilidad converge al mismo PageRank.
+	 *
+	 * @param current grafo de la nueva ventana.
+	 * @return vector inicial indexado como {@code current}.
+	 */
+	double[] scoresFor(CsrGraph current) {
+		if (current == graph) {
+			return scores;
+		}
+		int nodeCount = current.nodeCount();
+		double[] mapped = new double[nodeCount];
+		double total = 0.0;
+		for (int i = 0; i < nodeCount; i++) {
+			int previous = graph.indexOf(current.idAt(i));
+			mapped[i] = previous >= 0 ? scores[previous] : 1.0 / nodeCount;
+			total += mapped[i];
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			mapped[i] = total > 0.0 ? mapped[i] / total : 1.0 / nodeCount;
+		}
+		return mapped;
+	}
+}
@@ -0,0 +1,530 @@
+package com.pagerank.pagerank.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.web.dto.FollowResponse;
+import com.pagerank.pagerank.web.dto.ObservationLine;
+import com.pagerank.pagerank.web.dto.PersonResponse;
+
+/**
+ * Ingesta masiva de observaciones de personas y follows en NDJSON o CSV, leidas en streaming.
+ * <p>
+ * Cada lote de {@code INGEST_BATCH_SIZE} lineas se procesa en una sola transaccion: se resuelven
+ * en bloque las personas y follows que ya existen, se aplican en memoria las reglas de
+ * {@link IngestionService} (ventana de recoleccion, umbral de calidad, penalizacion por spam), se
+ * escribe con inserts/updates JDBC en lote, se parchea el grafo residente una vez y se encola un
+ * solo incremental con todos los ids tocados. Un lote que falla no deshace los anteriores. Las
+ * observaciones ya presentes en {@link CollectionWindowCache} dentro de la ventana no se consultan.
+ * <p>
+ * CSV sin comillas, con encabezado {@code type,...} opcional y una observacion por linea: {@code person,<nombre>,<spamScore>[,<observedAt>]} o
+ * {@code follow,<origen>,<destino>,<quality>[,<observedAt>]} con origen y destino por nombre.
+ */
+@Service
+public class BulkIngestionService {
+
+	private static final Logger log = LoggerFactory.getLogger(BulkIngestionService.class);
+
+	private static final int JDBC_BATCH_SIZE = 1_000;
+	/** Parametros por consulta {@code in (...)}, bajo el limite de SQLite. */
+	private static final int IN_CHUNK = 500;
+
+	private final IngestionService ingestionService;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final GraphStore graphStore;
+	private final RankStore rankStore;
+	private final IncrementalUpdateScheduler incrementalScheduler;
+	private final CollectionWindowCache windowCache;
+	private final PageRankMetrics metrics;
+	private final ObjectMapper objectMapper;
+	private final double qualityThreshold;
+	private final int batchSize;
+
+	public BulkIngestionService(
+			IngestionService ingestionService,
+			JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			GraphStore graphStore,
+			RankStore rankStore,
+			IncrementalUpdateScheduler incrementalScheduler,
+			CollectionWindowCache windowCache,
+			PageRankMetrics metrics,
+			ObjectMapper objectMapper,
+			PagerankSettingsProperties settings) {
+		this.ingestionService = ingestionService;
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.graphStore = graphStore;
+		this.rankStore = rankStore;
+		this.incrementalScheduler = incrementalScheduler;
+		this.windowCache = windowCache;
+		this.metrics = metrics;
+		this.objectMapper = objectMapper;
+		this.qualityThreshold = settings.followQualityThreshold();
+		this.batchSize = settings.ingestBatchSize();
+	}
+
+	/**
+	 * Lee el cuerpo completo y lo procesa por lotes.
+	 *
+	 * @param body stream de lineas UTF-8.
+	 * @param format formato de las lineas.
+	 * @return resumen por lote y totales.
+	 * @throws IOException si falla la lectura del stream.
+	 */
+	public IngestReport ingest(InputStream body, Format format) throws IOException {
+		Instant start = Instant.now();
+		List<BatchSummary> batches = new ArrayList<>();
+		List<ObservationLine> pending = new ArrayList<>(Math.min(batchSize, 10_000));
+		int malformed = 0;
+		BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isBlank() || (format == Format.CSV && line.regionMatches(true, 0, "type,", 0, 5))) {
+				continue; // lineas vacias y encabezado CSV opcional
+			}
+			ObservationLine observation = parse(line, format);
+			if (observation == null) {
+				malformed++;
+			}
+			else {
+				pending.add(observation);
+			}
+			if (pending.size() + malformed >= batchSize) {
+				batches.add(flush(batches.size() + 1, pending, malformed));
+				pending.clear();
+				malformed = 0;
+			}
+		}
+		if (!pending.isEmpty() || malformed > 0) {
+			batches.add(flush(batches.size() + 1, pending, malformed));
+		}
+
+		IngestReport report = IngestReport.of(batches, Duration.between(start, Instant.now()));
+		log.info("Bulk ingestion: {} lines in {} batches ({} persons created, {} follows created, {} rejected) in {} ms",
+				report.lines(), batches.size(), report.personsCreated(), report.followsCreated(), report.rejected(),
+				report.elapsed().toMillis());
+		return report;
+	}
+
+	private BatchSummary flush(int number, List<ObservationLine> lines, int malformed) {
+		Instant start = Instant.now();
+		Counts counts = transactionTemplate.execute(status -> apply(lines));
+		BatchSummary summary = new BatchSummary(number, lines.size() + malformed, malformed, counts.personsCreated(),
+				counts.personsUpdated(), counts.followsCreated(), counts.followsUpdated(), counts.unchanged(),
+				counts.rejected(), Duration.between(start, Instant.now()).toMillis());
+		metrics.ingestBatch(summary);
+		return summary;
+	}
+
+	private Counts apply(List<ObservationLine> lines) {
+		int rejected = 0;
+		int unchanged = 0;
+
+		// 1. Personas: la ultima observacion por nombre que respete la ventana de recoleccion.
+		Map<String, PersonRow> personRows = new LinkedHashMap<>();
+		Set<String> referencedNames = new HashSet<>();
+		Set<Long> referencedIds = new HashSet<>();
+		for (ObservationLine line : lines) {
+			if (isPerson(line)) {
+				String key = CollectionWindowCache.nameKey(line.name());
+				Instant seen = observedAt(line);
+				PersonRow previous = personRows.get(key);
+				if (previous == null && windowCache.isPersonFresh(key, seen)) {
+					unchanged++;
+					continue;
+				}
+				if (previous == null || ingestionService.shouldRefresh(previous.lastSeen(), seen)) {
+					double spam = Math.max(0.0, Math.min(1.0, line.spamScore() != null ? line.spamScore() : 0.0));
+					personRows.put(key, new PersonRow(previous != null ? previous.name() : line.name().trim(), spam, seen));
+				}
+				else {
+					unchanged++;
+				}
+				referencedNames.add(key);
+			}
+			else if (isFollow(line)) {
+				addEndpoint(line.source(), line.sourceId(), referencedNames, referencedIds);
+				addEndpoint(line.target(), line.targetId(), referencedNames, referencedIds);
+			}
+		}
+		Map<String, StoredPerson> byName = loadPersonsByName(referencedNames);
+
+		List<PersonRow> toInsert = new ArrayList<>();
+		List<Object[]> toUpdate = new ArrayList<>();
+		List<GraphStore.Node> graphPersons = new ArrayList<>();
+		Set<Long> touched = new HashSet<>();
+		for (Map.Entry<String, PersonRow> entry : personRows.entrySet()) {
+			PersonRow row = entry.getValue();
+			StoredPerson stored = byName.get(entry.getKey());
+			if (stored == null) {
+				toInsert.add(row);
+			}
+			else if (ingestionService.shouldRefresh(stored.lastSeen(), row.lastSeen())) {
+				toUpdate.add(new Object[] { row.spamScore(), Timestamp.from(row.lastSeen()), stored.id() });
+				StoredPerson refreshed = new StoredPerson(stored.id(), stored.name(), row.spamScore(), row.lastSeen());
+				byName.put(entry.getKey(), refreshed);
+				touched.add(stored.id());
+				windowCache.recordPerson(refreshed.response());
+			}
+			else {
+				windowCache.recordPerson(stored.response());
+				unchanged++;
+			}
+		}
+		jdbcTemplate.batchUpdate("insert into persons (name, spam_score, last_seen) values (?, ?, ?)", toInsert,
+				JDBC_BATCH_SIZE, (ps, row) -> {
+					ps.setString(1, row.name());
+					ps.setDouble(2, row.spamScore());
+					ps.setTimestamp(3, Timestamp.from(row.lastSeen()));
+				});
+		if (!toUpdate.isEmpty()) {
+			jdbcTemplate.batchUpdate("update persons set spam_score = ?, last_seen = ? where id = ?", toUpdate);
+		}
+		if (!toInsert.isEmpty()) {
+			Set<String> inserted = new HashSet<>();
+			for (PersonRow row : toInsert) {
+				inserted.add(CollectionWindowCache.nameKey(row.name()));
+			}
+			Map<String, StoredPerson> created = loadPersonsByName(inserted);
+			byName.putAll(created);
+			for (StoredPerson person : created.values()) {
+				graphPersons.add(new GraphStore.Node(person.id(), person.name()));
+				touched.add(person.id());
+				windowCache.recordPerson(person.response());
+			}
+		}
+		Map<Long, StoredPerson> byId = loadPersonsById(referencedIds);
+		for (StoredPerson person : byName.values()) {
+			byId.put(person.id(), person);
+		}
+
+		// 2. Follows: extremos resueltos, reglas de calidad y el ultimo por par dentro de la ventana.
+		Map<FollowKey, FollowRow> followRows = new LinkedHashMap<>();
+		for (ObservationLine line : lines) {
+			if (!isFollow(line)) {
+				if (!isPerson(line)) {
+					rejected++;
+				}
+				continue;
+			}
+			StoredPerson source = resolve(line.source(), line.sourceId(), byName, byId);
+			StoredPerson target = resolve(line.target(), line.targetId(), byName, byId);
+			double quality = line.quality() != null ? line.quality() : 0.0;
+			if (source == null || target == null || source.id() == target.id() || quality < qualityThreshold) {
+				rejected++;
+				continue;
+			}
+			Instant seen = observedAt(line);
+			FollowKey key = new FollowKey(source.id(), target.id());
+			FollowRow previous = followRows.get(key);
+			if (previous == null && windowCache.isFollowFresh(source.id(), target.id(), seen)) {
+				unchanged++;
+				continue;
+			}
+			if (previous != null && !ingestionService.shouldRefresh(previous.lastSeen(), seen)) {
+				unchanged++;
+				continue;
+			}
+			double adjusted = ingestionService.adjustQuality(quality, source.spamScore());
+			followRows.put(key, new FollowRow(source.id(), target.id(), adjusted, seen));
+		}
+		Map<FollowKey, StoredFollow> existing = loadFollows(followRows.keySet());
+
+		List<FollowRow> followInserts = new ArrayList<>();
+		List<FollowRow> followUpdates = new ArrayList<>();
+		List<GraphStore.Link> graphFollows = new ArrayList<>();
+		for (Map.Entry<FollowKey, FollowRow> entry : followRows.entrySet()) {
+			FollowRow row = entry.getValue();
+			StoredFollow stored = existing.get(entry.getKey());
+			boolean known = stored != null;
+			if (known && !ingestionService.shouldRefresh(stored.lastSeen(), row.lastSeen())) {
+				windowCache.recordFollow(stored.response(entry.getKey()));
+				unchanged++;
+				continue;
+			}
+			(known ? followUpdates : followInserts).add(row);
+			graphFollows.add(new GraphStore.Link(row.sourceId(), row.targetId(), row.quality()));
+			touched.add(row.sourceId());
+			touched.add(row.targetId());
+		}
+		jdbcTemplate.batchUpdate("insert into follows (src_id, dst_id, quality, last_seen) values (?, ?, ?, ?)",
+				followInserts, JDBC_BATCH_SIZE, (ps, row) -> {
+					ps.setLong(1, row.sourceId());
+					ps.setLong(2, row.targetId());
+					ps.setDouble(3, row.quality());
+					ps.setTimestamp(4, Timestamp.from(row.lastSeen()));
+				});
+		jdbcTemplate.batchUpdate("update follows set quality = ?, last_seen = ? where src_id = ? and dst_id = ?",
+				followUpdates, JDBC_BATCH_SIZE, (ps, row) -> {
+					ps.setDouble(1, row.quality());
+					ps.setTimestamp(2, Timestamp.from(row.lastSeen()));
+					ps.setLong(3, row.sourceId());
+					ps.setLong(4, row.targetId());
+				});
+
+		// 3. El cache de la ventana (con los ids que asigno la base), un parche del grafo residente y
+		// un solo incremental para todo el lote.
+		Set<FollowKey> written = new HashSet<>();
+		for (FollowRow row : followInserts) {
+			written.add(new FollowKey(row.sourceId(), row.targetId()));
+		}
+		for (FollowRow row : followUpdates) {
+			written.add(new FollowKey(row.sourceId(), row.targetId()));
+		}
+		loadFollows(written).forEach((key, follow) -> windowCache.recordFollow(follow.response(key)));
+		graphStore.applyBatch(graphPersons, graphFollows);
+		if (!touched.isEmpty() && !rankStore.isEmpty()) {
+			incrementalScheduler.enqueue(touched);
+		}
+		return new Counts(toInsert.size(), toUpdate.size(), followInserts.size(), followUpdates.size(), unchanged,
+				rejected);
+	}
+
+	private ObservationLine parse(String line, Format format) {
+		if (format == Format.NDJSON) {
+			try {
+				return objectMapper.readValue(line, ObservationLine.class);
+			}
+			catch (JsonProcessingException ex) {
+				return null;
+			}
+		}
+		String[] columns = line.split(",", -1);
+		String type = columns[0].trim();
+		try {
+			if ("person".equalsIgnoreCase(type) && columns.length >= 3) {
+				return ObservationLine.person(columns[1], Double.parseDouble(columns[2].trim()),
+						columns.length > 3 ? parseInstant(columns[3]) : null);
+			}
+			if ("follow".equalsIgnoreCase(type) && columns.length >= 4) {
+				return ObservationLine.follow(columns[1], columns[2], Double.parseDouble(columns[3].trim()),
+						columns.length > 4 ? parseInstant(columns[4]) : null);
+			}
+		}
+		catch (RuntimeException ex) {
+			return null;
+		}
+		return null; // encabezado o tipo desconocido
+	}
+
+	private Instant parseInstant(String value) {
+		return value.isBlank() ? null : Instant.parse(value.trim());
+	}
+
+	private static boolean isPerson(ObservationLine line) {
+		return "person".equalsIgnoreCase(line.type()) && line.name() != null && !line.name().isBlank();
+	}
+
+	private static boolean isFollow(ObservationLine line) {
+		return "follow".equalsIgnoreCase(line.type());
+	}
+
+	private static Instant observedAt(ObservationLine line) {
+		return line.observedAt() != null ? line.observedAt() : Instant.now();
+	}
+
+	private static void addEndpoint(String name, Long id, Set<String> names, Set<Long> ids) {
+		if (id != null) {
+			ids.add(id);
+		}
+		else if (name != null && !name.isBlank()) {
+			names.add(CollectionWindowCache.nameKey(name));
+		}
+	}
+
+	private static StoredPerson resolve(String name, Long id, Map<String, StoredPerson> byName,
+			Map<Long, StoredPerson> byId) {
+		if (id != null) {
+			return byId.get(id);
+		}
+		return name != null && !name.isBlank() ? byName.get(CollectionWindowCache.nameKey(name)) : null;
+	}
+
+	private Map<String, StoredPerson> loadPersonsByName(Collection<String> keys) {
+		Map<String, StoredPerson> result = new HashMap<>();
+		for (List<Object> chunk : chunks(keys)) {
+			jdbcTemplate.query("select id, name, spam_score, last_seen from persons where lower(name) in ("
+					+ placeholders(chunk.size()) + ")", rs -> {
+						StoredPerson person = new StoredPerson(rs.getLong(1), rs.getString(2), rs.getDouble(3),
+								toInstant(rs.getTimestamp(4)));
+						result.putIfAbsent(CollectionWindowCache.nameKey(person.name()), person);
+					}, chunk.toArray());
+		}
+		return result;
+	}
+
+	private Map<Long, StoredPerson> loadPersonsById(Collection<Long> ids) {
+		Map<Long, StoredPerson> result = new HashMap<>();
+		for (List<Object> chunk : chunks(ids)) {
+			jdbcTemplate.query("select id, name, spam_score, last_seen from persons where id in ("
+					+ placeholders(chunk.size()) + ")", rs -> {
+						result.put(rs.getLong(1), new StoredPerson(rs.getLong(1), rs.getString(2), rs.getDouble(3),
+								toInstant(rs.getTimestamp(4))));
+					}, chunk.toArray());
+		}
+		return result;
+	}
+
+	private Map<FollowKey, StoredFollow> loadFollows(Set<FollowKey> keys) {
+		Set<Long> sources = new HashSet<>();
+		for (FollowKey key : keys) {
+			sources.add(key.sourceId());
+		}
+		Map<FollowKey, StoredFollow> result = new HashMap<>();
+		for (List<Object> chunk : chunks(sources)) {
+			jdbcTemplate.query("select id, src_id, dst_id, quality, last_seen from follows where src_id in ("
+					+ placeholders(chunk.size()) + ")", rs -> {
+						FollowKey key = new FollowKey(rs.getLong(2), rs.getLong(3));
+						if (keys.contains(key)) {
+							result.put(key, new StoredFollow(rs.getLong(1), rs.getDouble(4), toInstant(rs.getTimestamp(5))));
+						}
+					}, chunk.toArray());
+		}
+		return result;
+	}
+
+	private static List<List<Object>> chunks(Collection<?> values) {
+		if (values.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<List<Object>> chunks = new ArrayList<>();
+		List<Object> current = new ArrayList<>(Math.min(IN_CHUNK, values.size()));
+		for (Object value : values) {
+			if (current.size() == IN_CHUNK) {
+				chunks.add(current);
+				current = new ArrayList<>(IN_CHUNK);
+			}
+			current.add(value);
+		}
+		chunks.add(current);
+		return chunks;
+	}
+
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+
+	private static Instant toInstant(Timestamp timestamp) {
+		return timestamp != null ? timestamp.toInstant() : null;
+	}
+
+	/** Formato de las lineas del cuerpo. */
+	public enum Format {
+		NDJSON,
+		CSV
+	}
+
+	/**
+	 * Resumen de un lote confirmado.
+	 *
+	 * @param batch numero de lote, desde 1.
+	 * @param lines lineas no vacias del lote.
+	 * @param malformed lineas que no se pudieron interpretar.
+	 * @param personsCreated personas nuevas.
+	 * @param personsUpdated personas refrescadas (fuera de la ventana de recoleccion).
+	 * @param followsCreated follows nuevos.
+	 * @param followsUpdated follows refrescados.
+	 * @param unchanged observaciones dentro de la ventana de recoleccion, sin cambios.
+	 * @param rejected follows con extremos desconocidos, auto-follow, baja calidad, o tipo desconocido.
+	 * @param elapsedMillis duracion del lote, incluida la escritura.
+	 */
+	public record BatchSummary(int batch, int lines, int malformed, int personsCreated, int personsUpdated,
+			int followsCreated, int followsUpdated, int unchanged, int rejected, long elapsedMillis) {
+	}
+
+	/**
+	 * Resumen de una ingesta.
+	 *
+	 * @param lines lineas no vacias leidas.
+	 * @param malformed lineas que no se pudieron interpretar.
+	 * @param personsCreated personas nuevas.
+	 * @param personsUpdated personas refrescadas.
+	 * @param followsCreated follows nuevos.
+	 * @param followsUpdated follows refrescados.
+	 * @param unchanged observaciones sin cambios.
+	 * @param rejected observaciones descartadas.
+	 * @param elapsed duracion total.
+	 * @param batches resumen de cada lote.
+	 */
+	public record IngestReport(long lines, long malformed, long personsCreated, long personsUpdated,
+			long followsCreated, long followsUpdated, long unchanged, long rejected, Duration elapsed,
+			List<BatchSummary> batches) {
+
+		static IngestReport of(List<BatchSummary> batches, Duration elapsed) {
+			long lines = 0;
+			long malformed = 0;
+			long personsCreated = 0;
+			long personsUpdated = 0;
+			long followsCreated = 0;
+			long followsUpdated = 0;
+			long unchanged = 0;
+			long rejected = 0;
+			for (BatchSummary batch : batches) {
+				lines += batch.lines();
+				malformed += batch.malformed();
+				personsCreated += batch.personsCreated();
+				personsUpdated += batch.personsUpdated();
+				followsCreated += batch.followsCreated();
+				followsUpdated += batch.followsUpdated();
+				unchanged += batch.unchanged();
+				rejected += batch.rejected();
+			}
+			return new IngestReport(lines, malformed, personsCreated, personsUpdated, followsCreated, followsUpdated,
+					unchanged, rejected, elapsed, List.copyOf(batches));
+		}
+	}
+
+	private record Counts(int personsCreated, int personsUpdated, int followsCreated, int followsUpdated,
+			int unchanged, int rejected) {
+	}
+
+	private record PersonRow(String name, double spamScore, Instant lastSeen) {
+	}
+
+	private record StoredPerson(long id, String name, double spamScore, Instant lastSeen) {
+
+		PersonResponse response() {
+			return new PersonResponse(id, name, spamScore, lastSeen);
+		}
+	}
+
+	private record FollowKey(long sourceId, long targetId) {
+	}
+
+	private record StoredFollow(long id, double quality, Instant lastSeen) {
+
+		FollowResponse response(FollowKey key) {
+			return new FollowResponse(id, key.sourceId(), key.targetId(), quality, lastSeen);
+		}
+	}
+
+	private record FollowRow(long sourceId, long targetId, double quality, Instant lastSeen) {
+	}
+}
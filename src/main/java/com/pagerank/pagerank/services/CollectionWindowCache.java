@@ -0,0 +1,215 @@
+package com.pagerank.pagerank.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.web.dto.FollowResponse;
+import com.pagerank.pagerank.web.dto.PersonResponse;
+
+/**
+ * Ultima version confirmada de cada persona (por nombre normalizado) y de cada follow (origen,
+ * destino), para responder sin ir a SQLite las observaciones repetidas dentro de la ventana de
+ * recoleccion: la entrada guarda la respuesta completa y su {@code lastSeen}. Quien escribe una
+ * persona o un follow registra la version nueva, asi que un acierto devuelve lo mismo que leer la
+ * base.
+ * <p>
+ * LRU acotado a {@code DEDUP_CACHE_SIZE} entradas; una entrada cuya ventana ya vencio respecto del
+ * reloj se descarta al leerla. Solo se registran versiones que estan (o quedan, al confirmar la
+ * transaccion) en la base, asi que un acierto equivale a que {@code shouldRefresh} diera false.
+ */
+@Component
+public class CollectionWindowCache {
+
+	private final Duration window;
+	private final Map<Object, Seen> lastSeen;
+
+	private long hits;
+	private long misses;
+	private long expired;
+
+	public CollectionWindowCache(PagerankSettingsProperties settings) {
+		this.window = settings.collectionWindow();
+		int capacity = settings.dedupCacheSize();
+		this.lastSeen = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, Seen> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Indica si la persona ya se recolecto dentro de la ventana respecto de {@code observedAt}.
+	 *
+	 * @param name nombre observado.
+	 * @param observedAt instante de la observacion.
+	 * @return true si es un duplicado seguro; false si hay que consultar la base.
+	 */
+	public boolean isPersonFresh(String name, Instant observedAt) {
+		return freshPerson(name, observedAt).isPresent();
+	}
+
+	/**
+	 * Como {@link #isPersonFresh}, pero devuelve la persona ya recolectada.
+	 *
+	 * @param name nombre observado.
+	 * @param observedAt instante de la observacion.
+	 * @return persona guardada si es un duplicado seguro; vacio si hay que consultar la base.
+	 */
+	public Optional<PersonResponse> freshPerson(String name, Instant observedAt) {
+		Seen seen = fresh(new PersonKey(nameKey(name)), observedAt);
+		return seen != null ? Optional.of((PersonResponse) seen.response()) : Optional.empty();
+	}
+
+	/**
+	 * Indica si el follow ya se recolecto dentro de la ventana respecto de {@code observedAt}.
+	 *
+	 * @param sourceId id origen.
+	 * @param targetId id destino.
+	 * @param observedAt instante de la observacion.
+	 * @return true si es un duplicado seguro; false si hay que consultar la base.
+	 */
+	public boolean isFollowFresh(long sourceId, long targetId, Instant observedAt) {
+		return freshFollow(sourceId, targetId, observedAt).isPresent();
+	}
+
+	/**
+	 * Como {@link #isFollowFresh}, pero devuelve el follow ya recolectado.
+	 *
+	 * @param sourceId id origen.
+	 * @param targetId id destino.
+	 * @param observedAt instante de la observacion.
+	 * @return follow guardado si es un duplicado seguro; vacio si hay que consultar la base.
+	 */
+	public Optional<FollowResponse> freshFollow(long sourceId, long targetId, Instant observedAt) {
+		Seen seen = fresh(new FollowKey(sourceId, targetId), observedAt);
+		return seen != null ? Optional.of((FollowResponse) seen.response()) : Optional.empty();
+	}
+
+	/**
+	 * Registra la persona tal como queda en la base, al confirmar la transaccion en curso (o en el acto).
+	 *
+	 * @param person persona guardada.
+	 */
+	public void recordPerson(PersonResponse person) {
+		record(new PersonKey(nameKey(person.name())), person, person.lastSeen());
+	}
+
+	/**
+	 * Registra el follow tal como queda en la base, al confirmar la transaccion en curso (o en el acto).
+	 *
+	 * @param follow follow guardado.
+	 */
+	public void recordFollow(FollowResponse follow) {
+		record(new FollowKey(follow.sourceId(), follow.targetId()), follow, follow.lastSeen());
+	}
+
+	/**
+	 * Olvida un follow borrado, para que una nueva observacion lo vuelva a crear.
+	 *
+	 * @param sourceId id origen.
+	 * @param targetId id destino.
+	 */
+	public synchronized void forgetFollow(long sourceId, long targetId) {
+		lastSeen.remove(new FollowKey(sourceId, targetId));
+	}
+
+	/**
+	 * Vacia el cache, para escrituras que no registran cada fila (la carga del dataset).
+	 */
+	public synchronized void clear() {
+		lastSeen.clear();
+	}
+
+	/**
+	 * Contadores de uso.
+	 *
+	 * @return entradas, aciertos, fallos y entradas vencidas descartadas.
+	 */
+	public synchronized Stats stats() {
+		return new Stats(lastSeen.size(), hits, misses, expired);
+	}
+
+	/**
+	 * Clave de nombre sin distinguir mayusculas solo en ASCII, igual que {@code lower()}/{@code upper()}
+	 * de SQLite, para que coincida con las busquedas por nombre de la base.
+	 *
+	 * @param name nombre observado.
+	 * @return nombre recortado y en minusculas ASCII.
+	 */
+	public static String nameKey(String name) {
+		char[] chars = name.trim().toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			if (chars[i] >= 'A' && chars[i] <= 'Z') {
+				chars[i] = (char) (chars[i] + ('a' - 'A'));
+			}
+		}
+		return new String(chars);
+	}
+
+	private synchronized Seen fresh(Object key, Instant observedAt) {
+		Seen seen = lastSeen.get(key);
+		if (seen != null && Duration.between(seen.at(), Instant.now()).compareTo(window) >= 0) {
+			lastSeen.remove(key); // la ventana ya vencio: cualquier observacion nueva refresca
+			expired++;
+			seen = null;
+		}
+		if (seen != null && Duration.between(seen.at(), observedAt).compareTo(window) < 0) {
+			hits++;
+			return seen;
+		}
+		misses++;
+		return null;
+	}
+
+	private void record(Object key, Object response, Instant at) {
+		if (at == null) {
+			return;
+		}
+		Seen seen = new Seen(response, at);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			put(key, seen);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				put(key, seen);
+			}
+		});
+	}
+
+	private synchronized void put(Object key, Seen seen) {
+		// A igual lastSeen gana la escritura nueva (por ejemplo, un follow editado sin timestamp propio).
+		lastSeen.merge(key, seen, (previous, next) -> next.at().isBefore(previous.at()) ? previous : next);
+	}
+
+	/**
+	 * Contadores del cache.
+	 *
+	 * @param size entradas actuales.
+	 * @param hits observaciones descartadas sin consultar la base.
+	 * @param misses observaciones que fueron a la base.
+	 * @param expired entradas descartadas por ventana vencida.
+	 */
+	public record Stats(int size, long hits, long misses, long expired) {
+	}
+
+	/** Respuesta confirmada ({@link PersonResponse} o {@link FollowResponse}) y su lastSeen. */
+	private record Seen(Object response, Instant at) {
+	}
+
+	private record PersonKey(String name) {
+	}
+
+	private record FollowKey(long sourceId, long targetId) {
+	}
+}
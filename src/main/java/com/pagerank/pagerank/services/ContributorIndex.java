@@ -0,0 +1,236 @@
+package com.pagerank.pagerank.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+
+/**
+ * Top-K de aportantes entrantes por nodo ({@code score_u * w_uv / sum_out_u}), materializado por
+ * cada corrida de PageRank para que la busqueda solo haga una consulta en memoria.
+ * <p>
+ * Se guarda en arreglos planos de N*K (indice del origen y aporte). El batch recalcula todo en un
+ * barrido O(E); el incremental solo toca los destinos de los origenes cuyo score cambio (insertando
+ * o subiendo el aporte sin reescanear) y reescanea las filas de los destinos de los tocados o de
+ * aportantes que bajaron.
+ */
+@Component
+public class ContributorIndex {
+
+	public static final int K = 3;
+
+	private final GraphStore graphStore;
+	private final RankStore rankStore;
+	private final double threshold;
+
+	private CsrGraph graph;
+	private long generation = -1;
+	private double[] scores = new double[0];
+	private int[] sources = new int[0];
+	private double[] values = new double[0];
+
+	public ContributorIndex(GraphStore graphStore, RankStore rankStore, PagerankSettingsProperties settings) {
+		this.graphStore = graphStore;
+		this.rankStore = rankStore;
+		this.threshold = settings.rankPersistThreshold();
+	}
+
+	/**
+	 * Aportantes principales de una persona, de mayor a menor.
+	 *
+	 * @param personId id de la persona.
+	 * @return hasta {@link #K} aportantes.
+	 */
+	public synchronized List<Contribution> top(long personId) {
+		if (graph == null || generation != rankStore.generation()) {
+			// Sin materializar (arranque) o ranks escritos por fuera: se arma con lo persistido.
+			CsrGraph current = graphStore.snapshot();
+			rebuild(current, rankStore.scoresFor(current));
+		}
+		int target = graph.indexOf(personId);
+		if (target < 0) {
+			return List.of();
+		}
+		List<Contribution> result = new ArrayList<>(K);
+		for (int slot = target * K; slot < target * K + K && sources[slot] >= 0; slot++) {
+			result.add(new Contribution(graph.idAt(sources[slot]), values[slot]));
+		}
+		return result;
+	}
+
+	/**
+	 * Recalcula el top-K de todos los nodos (corrida batch).
+	 *
+	 * @param graph grafo de la corrida.
+	 * @param newScores scores calculados, indexados como el grafo.
+	 */
+	public synchronized void rebuild(CsrGraph graph, double[] newScores) {
+		int nodeCount = graph.nodeCount();
+		this.graph = graph;
+		this.generation = rankStore.generation();
+		this.scores = Arrays.copyOf(newScores, nodeCount);
+		this.sources = new int[nodeCount * K];
+		this.values = new double[nodeCount * K];
+		for (int v = 0; v < nodeCount; v++) {
+			rescan(v);
+		}
+	}
+
+	/**
+	 * Actualiza solo los nodos afectados por una corrida incremental.
+	 *
+	 * @param graph grafo de la corrida.
+	 * @param newScores scores calculados, indexados como el grafo.
+	 * @param touchedIds ids cuyas aristas salientes pudieron cambiar.
+	 */
+	public synchronized void refresh(CsrGraph graph, double[] newScores, Set<Long> touchedIds) {
+		CsrGraph previous = this.graph;
+		if (previous == null || !extendsPrevious(previous, graph)) {
+			rebuild(graph, newScores);
+			return;
+		}
+		int nodeCount = graph.nodeCount();
+		int previousCount = previous.nodeCount();
+		if (nodeCount > previousCount) {
+			scores = Arrays.copyOf(scores, nodeCount);
+			sources = Arrays.copyOf(sources, nodeCount * K);
+			values = Arrays.copyOf(values, nodeCount * K);
+			Arrays.fill(sources, previousCount * K, nodeCount * K, -1);
+		}
+		this.graph = graph;
+
+		// Destinos a reescanear: los de filas salientes que cambiaron (grafo viejo y nuevo) y las personas nuevas.
+		boolean[] rescan = new boolean[nodeCount];
+		for (int v = previousCount; v < nodeCount; v++) {
+			rescan[v] = true;
+		}
+		if (touchedIds != null) {
+			for (Long id : touchedIds) {
+				int u = graph.indexOf(id);
+				if (u >= 0) {
+					for (int e = graph.outOffsets()[u]; e < graph.outOffsets()[u + 1]; e++) {
+						rescan[graph.outTargets()[e]] = true;
+					}
+				}
+				int old = previous.indexOf(id);
+				if (old >= 0) {
+					for (int e = previous.outOffsets()[old]; e < previous.outOffsets()[old + 1]; e++) {
+						rescan[previous.outTargets()[e]] = true; // mismo indice: el grafo nuevo extiende al viejo
+					}
+				}
+			}
+		}
+
+		// Origenes cuyo score cambio: su aporte a cada destino se corrige en el lugar si sube o entra al top.
+		int[] outOffsets = graph.outOffsets();
+		int[] outTargets = graph.outTargets();
+		double[] outWeights = graph.outWeights();
+		double[] outgoingWeight = graph.outgoingWeight();
+		for (int u = 0; u < nodeCount; u++) {
+			double score = u < newScores.length ? newScores[u] : 0.0;
+			if (Math.abs(score - scores[u]) <= threshold) {
+				continue;
+			}
+			scores[u] = score;
+			if (outgoingWeight[u] <= 0.0) {
+				continue;
+			}
+			for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+				int v = outTargets[e];
+				if (!rescan[v] && !offer(v, u, score * outWeights[e] / outgoingWeight[u])) {
+					rescan[v] = true; // un aportante del top bajo: hay que mirar la fila completa
+				}
+			}
+		}
+		for (int v = 0; v < nodeCount; v++) {
+			if (rescan[v]) {
+				rescan(v);
+			}
+		}
+	}
+
+	/**
+	 * Aplica el nuevo aporte de u a v sin reescanear la fila.
+	 *
+	 * @return false si u estaba en el top de v y su aporte bajo (el top puede haber cambiado de miembros).
+	 */
+	private boolean offer(int v, int u, double value) {
+		int base = v * K;
+		int slot = base;
+		while (slot < base + K && sources[slot] >= 0 && sources[slot] != u) {
+			slot++;
+		}
+		if (slot < base + K && sources[slot] == u) {
+			if (value < values[slot]) {
+				return false;
+			}
+			values[slot] = value;
+		}
+		else if (slot == base + K) {
+			slot = base + K - 1; // lleno: reemplaza al ultimo si lo supera
+			if (value <= values[slot]) {
+				return true;
+			}
+			sources[slot] = u;
+			values[slot] = value;
+		}
+		else {
+			sources[slot] = u;
+			values[slot] = value;
+		}
+		// Sube el slot modificado hasta su posicion (el resto ya esta ordenado).
+		while (slot > base && values[slot - 1] < values[slot]) {
+			swap(slot, slot - 1);
+			slot--;
+		}
+		return true;
+	}
+
+	private void rescan(int v) {
+		int base = v * K;
+		Arrays.fill(sources, base, base + K, -1);
+		Arrays.fill(values, base, base + K, 0.0);
+		int[] inOffsets = graph.inOffsets();
+		int[] inSources = graph.inSources();
+		double[] outgoingWeight = graph.outgoingWeight();
+		for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+			int u = inSources[e];
+			offer(v, u, scores[u] * graph.inWeight(e) / outgoingWeight[u]);
+		}
+	}
+
+	private void swap(int a, int b) {
+		int source = sources[a];
+		sources[a] = sources[b];
+		sources[b] = source;
+		double value = values[a];
+		values[a] = values[b];
+		values[b] = value;
+	}
+
+	private static boolean extendsPrevious(CsrGraph previous, CsrGraph graph) {
+		if (graph.nodeCount() < previous.nodeCount()) {
+			return false;
+		}
+		for (int i = 0; i < previous.nodeCount(); i++) {
+			if (previous.idAt(i) != graph.idAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Aporte de un origen al score de un destino.
+	 *
+	 * @param sourceId id del aportante.
+	 * @param contribution score del aportante por su peso normalizado hacia el destino.
+	 */
+	public record Contribution(long sourceId, double contribution) {
+	}
+}
@@ -4,27 +4,67 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.pagerank.pagerank.domain.model.Person;
-import com.pagerank.pagerank.domain.model.Follow;
+import com.pagerank.pagerank.domain.model.PageRankResult;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
 
+/**
+ * Carga masiva del dataset CSV: lee los archivos en streaming, aplica en memoria las mismas reglas
+ * que {@link IngestionService} (ventana de recoleccion, umbral de calidad y penalizacion por spam),
+ * escribe con inserts y updates JDBC en lote dentro de transacciones grandes y corre un unico
+ * PageRank batch al final, en lugar de una transaccion y un incremental por fila.
+ * <p>
+ * Las personas se cruzan por nombre sin distinguir mayusculas solo en ASCII
+ * ({@link CollectionWindowCache#nameKey(String)}), como {@code lower()} de SQLite; las que ya estaban
+ * se refrescan (spam y {@code last_seen}) si la observacion cae fuera de la ventana, igual que los
+ * follows existentes (calidad y {@code last_seen}).
+ */
 @Service
 public class DatasetIngestionService {
 
 	private static final Logger log = LoggerFactory.getLogger(DatasetIngestionService.class);
 
+	private static final int JDBC_BATCH_SIZE = 1_000;
+
 	private final IngestionService ingestionService;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final GraphStore graphStore;
+	private final PageRankService pageRankService;
+	private final CollectionWindowCache windowCache;
+	private final double qualityThreshold;
 
-	public DatasetIngestionService(IngestionService ingestionService) {
+	public DatasetIngestionService(
+			IngestionService ingestionService,
+			JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			GraphStore graphStore,
+			PageRankService pageRankService,
+			CollectionWindowCache windowCache,
+			PagerankSettingsProperties settings) {
 		this.ingestionService = ingestionService;
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.graphStore = graphStore;
+		this.pageRankService = pageRankService;
+		this.windowCache = windowCache;
+		this.qualityThreshold = settings.followQualityThreshold();
 	}
 
 	/**
@@ -40,83 +80,228 @@ public class DatasetIngestionService {
 		}
 
 		try {
-			Map<Long, Person> datasetPersons = importPersons(personsPath);
-			int followCount = importFollows(followsPath, datasetPersons);
-			log.info("Dataset bootstrap complete: {} persons, {} follows",
-					datasetPersons.size(),
-					followCount);
+			ImportReport report = importDataset(personsPath, followsPath);
+			log.info("Dataset bootstrap complete: {} persons (+{} refreshed), {} follows (+{} refreshed) ({} rows read in {} ms, {} rows/s)",
+					report.personsInserted(),
+					report.personsUpdated(),
+					report.followsInserted(),
+					report.followsUpdated(),
+					report.rowsRead(),
+					report.elapsed().toMillis(),
+					String.format(Locale.US, "%.0f", report.rowsPerSecond()));
 		}
 		catch (IOException ex) {
 			log.error("Failed to import dataset from {} and {}", personsPath, followsPath, ex);
 		}
 	}
 
-	private Map<Long, Person> importPersons(Path path) throws IOException {
-		Map<Long, Person> imported = new HashMap<>();
+	/**
+	 * Importa ambos CSV con inserts en lote y ejecuta un PageRank batch al terminar.
+	 *
+	 * @param personsPath ruta al CSV de personas.
+	 * @param followsPath ruta al CSV de follows.
+	 * @return resumen de la carga.
+	 * @throws IOException si falla la lectura de algun archivo.
+	 */
+	public ImportReport importDataset(Path personsPath, Path followsPath) throws IOException {
+		Instant start = Instant.now();
+		Imported imported = importRows(personsPath, followsPath);
+
+		// El grafo residente y el cache de ventana no vieron los inserts JDBC: se recarga una vez y se corre un
+		// solo batch.
+		graphStore.invalidate();
+		windowCache.clear();
+		PageRankResult pageRank = pageRankService.runBatchComputation();
+
+		Duration elapsed = Duration.between(start, Instant.now());
+		double seconds = Math.max(elapsed.toNanos(), 1) / 1_000_000_000.0;
+		return new ImportReport(imported.rowsRead(), imported.personsInserted(), imported.personsUpdated(),
+				imported.followsInserted(), imported.followsUpdated(), imported.followsRejected(),
+				elapsed, imported.rowsRead() / seconds, pageRank);
+	}
+
+	/**
+	 * Escribe ambos CSV en la base, sin tocar el grafo residente ni correr PageRank.
+	 *
+	 * @param personsPath ruta al CSV de personas.
+	 * @param followsPath ruta al CSV de follows.
+	 * @return filas leidas, insertadas y refrescadas.
+	 * @throws IOException si falla la lectura de algun archivo.
+	 */
+	Imported importRows(Path personsPath, Path followsPath) throws IOException {
+		PersonImport persons = importPersons(personsPath);
+		FollowImport follows = importFollows(followsPath, persons);
+		return new Imported(persons.rowsRead() + follows.rowsRead(), persons.inserted(), persons.updated(),
+				follows.inserted(), follows.updated(), follows.rejected());
+	}
+
+	private PersonImport importPersons(Path path) throws IOException {
+		// nombre normalizado -> observacion aceptada, respetando la ventana de recoleccion
+		Map<String, PersonRow> byName = new LinkedHashMap<>();
+		Map<Long, String> datasetNames = new HashMap<>();
+		long rowsRead = 0;
 		try (BufferedReader reader = Files.newBufferedReader(path)) {
 			String line = reader.readLine(); // header
-			if (line == null) {
-				return imported;
-			}
-			while ((line = reader.readLine()) != null) {
+			while (line != null && (line = reader.readLine()) != null) {
 				if (line.isBlank()) {
 					continue;
 				}
+				rowsRead++;
 				String[] columns = line.split(",", -1);
 				if (columns.length < 4) {
 					continue;
 				}
 				Long datasetId = parseLong(columns[0]);
 				String name = columns[1].trim();
-				double spam = parseDouble(columns[2], 0.0);
-				Instant seen = parseInstant(columns[3]);
 				if (datasetId == null || name.isBlank()) {
 					continue;
 				}
-				Person person = ingestionService.collectPerson(new IngestionService.PersonObservation(name, spam, seen));
-				imported.put(datasetId, person);
+				double spam = parseDouble(columns[2], 0.0);
+				Instant seen = parseInstant(columns[3]);
+				String key = CollectionWindowCache.nameKey(name);
+				PersonRow previous = byName.get(key);
+				if (previous == null || ingestionService.shouldRefresh(previous.lastSeen(), seen)) {
+					byName.put(key, new PersonRow(previous != null ? previous.name() : name, spam, seen));
+				}
+				datasetNames.put(datasetId, key);
+			}
+		}
+
+		Map<String, StoredPerson> existing = loadPersons();
+		List<PersonRow> toInsert = new ArrayList<>();
+		List<Object[]> toUpdate = new ArrayList<>();
+		for (Map.Entry<String, PersonRow> entry : byName.entrySet()) {
+			PersonRow row = entry.getValue();
+			StoredPerson stored = existing.get(entry.getKey());
+			if (stored == null) {
+				toInsert.add(row);
+			}
+			else if (ingestionService.shouldRefresh(stored.lastSeen(), row.lastSeen())) {
+				toUpdate.add(new Object[] { row.spamScore(), Timestamp.from(row.lastSeen()), stored.id() });
+			}
+		}
+		transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.batchUpdate(
+					"insert into persons (name, spam_score, last_seen) values (?, ?, ?)",
+					toInsert,
+					JDBC_BATCH_SIZE,
+					(ps, row) -> {
+						ps.setString(1, row.name());
+						ps.setDouble(2, row.spamScore());
+						ps.setTimestamp(3, Timestamp.from(row.lastSeen()));
+					});
+			if (!toUpdate.isEmpty()) {
+				jdbcTemplate.batchUpdate("update persons set spam_score = ?, last_seen = ? where id = ?", toUpdate);
+			}
+		});
+
+		// Tras escribir, el spam vigente de cada persona es el que quedo en la base (el del CSV si se refresco).
+		Map<String, StoredPerson> stored = loadPersons();
+		Map<Long, Long> datasetToPersonId = new HashMap<>(datasetNames.size());
+		Map<Long, Double> spamScores = new HashMap<>(byName.size());
+		for (Map.Entry<Long, String> entry : datasetNames.entrySet()) {
+			StoredPerson person = stored.get(entry.getValue());
+			if (person != null) {
+				datasetToPersonId.put(entry.getKey(), person.id());
+				spamScores.put(person.id(), person.spamScore());
 			}
 		}
-		log.info("Imported {} persons from {}", imported.size(), path);
-		return imported;
+		log.info("Imported {} persons from {} ({} rows, {} refreshed, {} already present)", toInsert.size(), path,
+				rowsRead, toUpdate.size(), byName.size() - toInsert.size() - toUpdate.size());
+		return new PersonImport(rowsRead, toInsert.size(), toUpdate.size(), datasetToPersonId, spamScores);
 	}
 
-	private int importFollows(Path path, Map<Long, Person> persons) throws IOException {
-		int imported = 0;
+	private FollowImport importFollows(Path path, PersonImport persons) throws IOException {
+		Map<FollowKey, FollowRow> accepted = new LinkedHashMap<>();
+		long rowsRead = 0;
+		long rejected = 0;
 		try (BufferedReader reader = Files.newBufferedReader(path)) {
 			String line = reader.readLine(); // header
-			if (line == null) {
-				return imported;
-			}
-			while ((line = reader.readLine()) != null) {
+			while (line != null && (line = reader.readLine()) != null) {
 				if (line.isBlank()) {
 					continue;
 				}
+				rowsRead++;
 				String[] columns = line.split(",", -1);
 				if (columns.length < 5) {
+					rejected++;
 					continue;
 				}
 				Long sourceDatasetId = parseLong(columns[1]);
 				Long targetDatasetId = parseLong(columns[2]);
-				if (sourceDatasetId == null || targetDatasetId == null) {
-					continue;
-				}
-				Person source = persons.get(sourceDatasetId);
-				Person target = persons.get(targetDatasetId);
-				if (source == null || target == null) {
+				Long sourceId = sourceDatasetId != null ? persons.personIds().get(sourceDatasetId) : null;
+				Long targetId = targetDatasetId != null ? persons.personIds().get(targetDatasetId) : null;
+				double quality = parseDouble(columns[3], 0.0);
+				if (sourceId == null || targetId == null || sourceId.equals(targetId) || quality < qualityThreshold) {
+					rejected++;
 					continue;
 				}
-				double quality = parseDouble(columns[3], 0.0);
 				Instant seen = parseInstant(columns[4]);
-				Optional<Follow> follow = ingestionService.collectFollow(
-						new IngestionService.FollowObservation(source.getId(), target.getId(), quality, seen));
-				if (follow.isPresent()) {
-					imported++;
+				FollowKey key = new FollowKey(sourceId, targetId);
+				FollowRow previous = accepted.get(key);
+				if (previous != null && !ingestionService.shouldRefresh(previous.lastSeen(), seen)) {
+					continue; // duplicado dentro de la ventana de recoleccion
 				}
+				double adjusted = ingestionService.adjustQuality(quality, persons.spamScores().getOrDefault(sourceId, 0.0));
+				accepted.put(key, new FollowRow(sourceId, targetId, adjusted, seen));
+			}
+		}
+
+		Map<FollowKey, Instant> existing = new HashMap<>();
+		jdbcTemplate.query("select src_id, dst_id, last_seen from follows",
+				rs -> {
+					existing.put(new FollowKey(rs.getLong(1), rs.getLong(2)), toInstant(rs.getTimestamp(3)));
+				});
+		List<FollowRow> toInsert = new ArrayList<>(accepted.size());
+		List<FollowRow> toUpdate = new ArrayList<>();
+		for (Map.Entry<FollowKey, FollowRow> entry : accepted.entrySet()) {
+			FollowRow row = entry.getValue();
+			if (!existing.containsKey(entry.getKey())) {
+				toInsert.add(row);
+			}
+			else if (ingestionService.shouldRefresh(existing.get(entry.getKey()), row.lastSeen())) {
+				toUpdate.add(row);
 			}
 		}
-		log.info("Imported {} follows from {}", imported, path);
-		return imported;
+		transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.batchUpdate(
+					"insert into follows (src_id, dst_id, quality, last_seen) values (?, ?, ?, ?)",
+					toInsert,
+					JDBC_BATCH_SIZE,
+					(ps, row) -> {
+						ps.setLong(1, row.sourceId());
+						ps.setLong(2, row.targetId());
+						ps.setDouble(3, row.quality());
+						ps.setTimestamp(4, Timestamp.from(row.lastSeen()));
+					});
+			jdbcTemplate.batchUpdate(
+					"update follows set quality = ?, last_seen = ? where src_id = ? and dst_id = ?",
+					toUpdate,
+					JDBC_BATCH_SIZE,
+					(ps, row) -> {
+						ps.setDouble(1, row.quality());
+						ps.setTimestamp(2, Timestamp.from(row.lastSeen()));
+						ps.setLong(3, row.sourceId());
+						ps.setLong(4, row.targetId());
+					});
+		});
+		log.info("Imported {} follows from {} ({} rows, {} rejected, {} refreshed, {} already present)", toInsert.size(),
+				path, rowsRead, rejected, toUpdate.size(), accepted.size() - toInsert.size() - toUpdate.size());
+		return new FollowImport(rowsRead, toInsert.size(), toUpdate.size(), rejected);
+	}
+
+	private Map<String, StoredPerson> loadPersons() {
+		Map<String, StoredPerson> persons = new HashMap<>();
+		jdbcTemplate.query("select id, name, spam_score, last_seen from persons",
+				rs -> {
+					persons.putIfAbsent(CollectionWindowCache.nameKey(rs.getString(2)),
+							new StoredPerson(rs.getLong(1), rs.getDouble(3), toInstant(rs.getTimestamp(4))));
+				});
+		return persons;
+	}
+
+	private static Instant toInstant(Timestamp timestamp) {
+		return timestamp != null ? timestamp.toInstant() : null;
 	}
 
 	private Long parseLong(String value) {
@@ -145,4 +330,52 @@ public class DatasetIngestionService {
 			return Instant.now();
 		}
 	}
+
+	/**
+	 * Resumen de una carga masiva.
+	 *
+	 * @param rowsRead filas leidas de ambos CSV.
+	 * @param personsInserted personas nuevas insertadas.
+	 * @param personsUpdated personas existentes refrescadas (spam y last_seen).
+	 * @param followsInserted follows nuevos insertados.
+	 * @param followsUpdated follows existentes refrescados (calidad y last_seen).
+	 * @param followsRejected follows descartados (extremos invalidos, auto-follow o baja calidad).
+	 * @param elapsed duracion total incluyendo el PageRank final.
+	 * @param rowsPerSecond throughput de filas leidas.
+	 * @param pageRank resultado del PageRank batch final.
+	 */
+	public record ImportReport(
+			long rowsRead,
+			int personsInserted,
+			int personsUpdated,
+			int followsInserted,
+			int followsUpdated,
+			long followsRejected,
+			Duration elapsed,
+			double rowsPerSecond,
+			PageRankResult pageRank) {
+	}
+
+	private record PersonRow(String name, double spamScore, Instant lastSeen) {
+	}
+
+	private record StoredPerson(long id, double spamScore, Instant lastSeen) {
+	}
+
+	private record PersonImport(long rowsRead, int inserted, int updated, Map<Long, Long> personIds,
+			Map<Long, Double> spamScores) {
+	}
+
+	private record FollowKey(long sourceId, long targetId) {
+	}
+
+	private record FollowRow(long sourceId, long targetId, double quality, Instant lastSeen) {
+	}
+
+	private record FollowImport(long rowsRead, int inserted, int updated, long rejected) {
+	}
+
+	record Imported(long rowsRead, int personsInserted, int personsUpdated, int followsInserted, int followsUpdated,
+			long followsRejected) {
+	}
 }
@@ -0,0 +1,301 @@
+package com.pagerank.pagerank.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.PriorityQueue;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.web.dto.GraphLinkDto;
+import com.pagerank.pagerank.web.dto.GraphNodeDto;
+
+/**
+ * Exporta el grafo residente como JSON escrito de a un nodo/arista con el generador de Jackson,
+ * sin armar el documento completo en memoria.
+ * <p>
+ * La seleccion (top-N por score, ego-network, umbrales de score y calidad, o paginas del orden CSR)
+ * se resuelve antes de empezar a escribir sobre un {@link CsrGraph} y un {@link RankSnapshot}
+ * inmutables, asi que un error de parametros todavia puede responderse como 4xx. Los nombres se
+ * copian de {@link GraphStore} una sola vez antes de empezar: la escritura no toma locks ni consulta
+ * la base.
+ */
+@Service
+public class GraphExport {
+
+	public static final int MAX_DEPTH = 3;
+
+	private final GraphStore graphStore;
+	private final RankSnapshots rankSnapshots;
+	private final ObjectMapper objectMapper;
+
+	public GraphExport(GraphStore graphStore, RankSnapshots rankSnapshots, ObjectMapper objectMapper) {
+		this.graphStore = graphStore;
+		this.rankSnapshots = rankSnapshots;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Subgrafo con nivel de detalle: nodos que pasan los filtros y aristas entre ellos.
+	 *
+	 * @param view filtros a aplicar.
+	 * @return exportacion lista para escribir.
+	 * @throws IllegalArgumentException si la persona del ego-network no esta en el grafo.
+	 */
+	public Export subgraph(View view) {
+		CsrGraph graph = graphStore.storedGraph();
+		Scores scores = new Scores(graph, rankSnapshots.current());
+		int nodeCount = graph.nodeCount();
+
+		boolean[] member = new boolean[nodeCount];
+		if (view.egoId() != null) {
+			int ego = graph.indexOf(view.egoId());
+			if (ego < 0) {
+				throw new IllegalArgumentException("Persona desconocida: " + view.egoId());
+			}
+			neighborhood(graph, ego, Math.min(view.depth(), MAX_DEPTH), view.minQuality(), member);
+		}
+		else {
+			Arrays.fill(member, true);
+		}
+		int selected = 0;
+		for (int v = 0; v < nodeCount; v++) {
+			member[v] = member[v] && scores.of(v) >= view.minScore();
+			selected += member[v] ? 1 : 0;
+		}
+
+		int[] order;
+		if (view.top() != null && view.top() < selected) {
+			order = top(scores, member, view.top());
+			Arrays.fill(member, false);
+			for (int v : order) {
+				member[v] = true;
+			}
+		}
+		else {
+			order = new int[selected];
+			for (int v = 0, i = 0; v < nodeCount; v++) {
+				if (member[v]) {
+					order[i++] = v;
+				}
+			}
+		}
+
+		String[] names = graphStore.names(graph);
+		return out -> write(out, scores, generator -> {
+			generator.writeArrayFieldStart("nodes");
+			for (int v : order) {
+				writeNode(generator, graph, names, scores, v);
+			}
+			generator.writeEndArray();
+			generator.writeArrayFieldStart("links");
+			for (int u : order) {
+				for (int e = graph.outOffsets()[u]; e < graph.outOffsets()[u + 1]; e++) {
+					if (member[graph.outTargets()[e]] && graph.outWeights()[e] >= view.minQuality()) {
+						writeLink(generator, graph, u, e);
+					}
+				}
+			}
+			generator.writeEndArray();
+		});
+	}
+
+	/**
+	 * Pagina de nodos en el orden del grafo, sin aristas.
+	 *
+	 * @param offset primer nodo.
+	 * @param limit cantidad maxima de nodos.
+	 * @return exportacion lista para escribir.
+	 */
+	public Export nodes(int offset, int limit) {
+		CsrGraph graph = graphStore.storedGraph();
+		Scores scores = new Scores(graph, rankSnapshots.current());
+		int from = Math.min(offset, graph.nodeCount());
+		int to = (int) Math.min((long) from + limit, graph.nodeCount());
+		String[] names = graphStore.names(graph);
+		return out -> write(out, scores, generator -> {
+			writePage(generator, offset, graph.nodeCount());
+			generator.writeArrayFieldStart("nodes");
+			for (int v = from; v < to; v++) {
+				writeNode(generator, graph, names, scores, v);
+			}
+			generator.writeEndArray();
+		});
+	}
+
+	/**
+	 * Pagina de aristas en el orden del grafo (por origen).
+	 *
+	 * @param offset primera arista.
+	 * @param limit cantidad maxima de aristas.
+	 * @return exportacion lista para escribir.
+	 */
+	public Export links(int offset, int limit) {
+		CsrGraph graph = graphStore.storedGraph();
+		Scores scores = new Scores(graph, rankSnapshots.current());
+		int from = Math.min(offset, graph.edgeCount());
+		int to = (int) Math.min((long) from + limit, graph.edgeCount());
+		return out -> write(out, scores, generator -> {
+			writePage(generator, offset, graph.edgeCount());
+			generator.writeArrayFieldStart("links");
+			int[] outOffsets = graph.outOffsets();
+			// Origen de la primera arista de la pagina; despues se avanza junto con los offsets.
+			int u = Math.max(0, upperBound(outOffsets, from) - 1);
+			for (int e = from; e < to; e++) {
+				while (outOffsets[u + 1] <= e) {
+					u++;
+				}
+				writeLink(generator, graph, u, e);
+			}
+			generator.writeEndArray();
+		});
+	}
+
+	private void write(OutputStream out, Scores scores, Body body) throws IOException {
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+			generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+			generator.writeStartObject();
+			generator.writeNumberField("rankVersion", scores.ranks.version());
+			body.writeTo(generator);
+			generator.writeEndObject();
+		}
+	}
+
+	private static void writePage(JsonGenerator generator, int offset, int total) throws IOException {
+		generator.writeNumberField("offset", offset);
+		generator.writeNumberField("total", total);
+	}
+
+	private static void writeNode(JsonGenerator generator, CsrGraph graph, String[] names, Scores scores, int v)
+			throws IOException {
+		long id = graph.idAt(v);
+		String name = names[v];
+		double score = scores.of(v);
+		generator.writeObject(new GraphNodeDto(id, name != null ? name : "#" + id, score, scores.percentage(score)));
+	}
+
+	private static void writeLink(JsonGenerator generator, CsrGraph graph, int u, int e) throws IOException {
+		generator.writeObject(new GraphLinkDto(graph.idAt(u), graph.idAt(graph.outTargets()[e]), graph.outWeights()[e]));
+	}
+
+	/** BFS por aristas entrantes y salientes con calidad suficiente, hasta {@code depth} saltos. */
+	private static void neighborhood(CsrGraph graph, int ego, int depth, double minQuality, boolean[] member) {
+		int[] distance = new int[graph.nodeCount()];
+		Arrays.fill(distance, -1);
+		Deque<Integer> queue = new ArrayDeque<>();
+		distance[ego] = 0;
+		member[ego] = true;
+		queue.add(ego);
+		while (!queue.isEmpty()) {
+			int u = queue.poll();
+			if (distance[u] == depth) {
+				continue;
+			}
+			for (int e = graph.outOffsets()[u]; e < graph.outOffsets()[u + 1]; e++) {
+				visit(graph.outTargets()[e], graph.outWeights()[e], u, minQuality, distance, member, queue);
+			}
+			for (int e = graph.inOffsets()[u]; e < graph.inOffsets()[u + 1]; e++) {
+				visit(graph.inSources()[e], graph.inWeight(e), u, minQuality, distance, member, queue);
+			}
+		}
+	}
+
+	private static void visit(int v, double weight, int from, double minQuality, int[] distance, boolean[] member,
+			Deque<Integer> queue) {
+		if (weight >= minQuality && distance[v] < 0) {
+			distance[v] = distance[from] + 1;
+			member[v] = true;
+			queue.add(v);
+		}
+	}
+
+	/** Top-N por score con un heap acotado: O(N log top) y sin ordenar todos los nodos. */
+	private static int[] top(Scores scores, boolean[] member, int limit) {
+		Comparator<Integer> ascending = Comparator.<Integer> comparingDouble(scores::of).thenComparing(Comparator.reverseOrder());
+		PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, ascending);
+		for (int v = 0; v < member.length; v++) {
+			if (member[v]) {
+				heap.add(v);
+				if (heap.size() > limit) {
+					heap.poll();
+				}
+			}
+		}
+		int[] order = new int[heap.size()];
+		for (int i = order.length - 1; i >= 0; i--) {
+			order[i] = heap.poll();
+		}
+		return order;
+	}
+
+	private static int upperBound(int[] offsets, int edge) {
+		int low = 0;
+		int high = offsets.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (offsets[mid] <= edge) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/** Scores del snapshot alineados con el grafo; las personas sin rank usan 1/N como antes. */
+	private static final class Scores {
+		private final RankSnapshot ranks;
+		private final double[] values;
+		private final double total;
+		private final double fallback;
+
+		private Scores(CsrGraph graph, RankSnapshot ranks) {
+			this.ranks = ranks;
+			this.values = new double[graph.nodeCount()];
+			this.fallback = graph.nodeCount() == 0 ? 0.0 : 1.0 / graph.nodeCount();
+			for (int v = 0; v < values.length; v++) {
+				double score = ranks.scoreOf(graph.idAt(v));
+				values[v] = Double.isNaN(score) ? fallback : score;
+			}
+			this.total = ranks.totalScore();
+		}
+
+		private double of(int v) {
+			return values[v];
+		}
+
+		private double percentage(double score) {
+			return total > 0 ? (score / total) * 100.0 : fallback * 100.0;
+		}
+	}
+
+	/**
+	 * Filtros del subgrafo.
+	 *
+	 * @param top cantidad maxima de nodos (los de mayor score); nulo para todos.
+	 * @param egoId persona central del ego-network; nulo para todo el grafo.
+	 * @param depth saltos desde el ego (se acota a {@link #MAX_DEPTH}).
+	 * @param minScore score minimo de los nodos.
+	 * @param minQuality calidad (peso) minima de las aristas.
+	 */
+	public record View(Integer top, Long egoId, int depth, double minScore, double minQuality) {
+	}
+
+	/** Documento JSON listo para escribirse en la respuesta. */
+	@FunctionalInterface
+	public interface Export {
+		void writeTo(OutputStream out) throws IOException;
+	}
+
+	@FunctionalInterface
+	private interface Body {
+		void writeTo(JsonGenerator generator) throws IOException;
+	}
+}
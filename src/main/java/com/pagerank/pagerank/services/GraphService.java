@@ -18,6 +18,8 @@ import com.pagerank.pagerank.domain.repository.FollowRepository;
 import com.pagerank.pagerank.domain.repository.PersonRepository;
 import com.pagerank.pagerank.domain.repository.RankDeltaRepository;
 import com.pagerank.pagerank.domain.repository.RankRepository;
+import com.pagerank.pagerank.web.dto.FollowResponse;
+import com.pagerank.pagerank.web.dto.PersonResponse;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -29,16 +31,25 @@ public class GraphService {
 	private final FollowRepository followRepository;
 	private final RankRepository rankRepository;
 	private final RankDeltaRepository rankDeltaRepository;
+	private final GraphStore graphStore;
+	private final RankStore rankStore;
+	private final CollectionWindowCache windowCache;
 
 	public GraphService(
 			PersonRepository personRepository,
 			FollowRepository followRepository,
 			RankRepository rankRepository,
-			RankDeltaRepository rankDeltaRepository) {
+			RankDeltaRepository rankDeltaRepository,
+			GraphStore graphStore,
+			RankStore rankStore,
+			CollectionWindowCache windowCache) {
 		this.personRepository = personRepository;
 		this.followRepository = followRepository;
 		this.rankRepository = rankRepository;
 		this.rankDeltaRepository = rankDeltaRepository;
+		this.graphStore = graphStore;
+		this.rankStore = rankStore;
+		this.windowCache = windowCache;
 	}
 
 	/**
@@ -62,8 +73,10 @@ public class GraphService {
 	 */
 	public Person registerPerson(String name, double spamScore, Instant lastSeen) {
 		Instant effectiveLastSeen = lastSeen != null ? lastSeen : Instant.now();
-		Person person = new Person(name, spamScore, effectiveLastSeen);
-		return personRepository.save(person);
+		Person person = personRepository.save(new Person(name, spamScore, effectiveLastSeen));
+		graphStore.addPerson(person.getId(), person.getName());
+		windowCache.recordPerson(PersonResponse.from(person));
+		return person;
 	}
 
 	/**
@@ -87,7 +100,9 @@ public class GraphService {
 	public Person touchPerson(Long personId, Instant lastSeen) {
 		Person person = requirePerson(personId);
 		person.setLastSeen(lastSeen != null ? lastSeen : Instant.now());
-		return personRepository.save(person);
+		Person saved = personRepository.save(person);
+		windowCache.recordPerson(PersonResponse.from(saved));
+		return saved;
 	}
 
 	/**
@@ -104,9 +119,12 @@ public class GraphService {
 		Person target = requirePerson(targetId);
 		Instant effectiveLastSeen = lastSeen != null ? lastSeen : Instant.now();
 
-		return followRepository.findBySourceIdAndTargetId(sourceId, targetId)
+		Follow follow = followRepository.findBySourceIdAndTargetId(sourceId, targetId)
 				.map(existing -> updateFollow(existing, source, target, quality, effectiveLastSeen))
 				.orElseGet(() -> followRepository.save(new Follow(source, target, quality, effectiveLastSeen)));
+		graphStore.upsertFollow(sourceId, targetId, quality);
+		windowCache.recordFollow(FollowResponse.from(follow));
+		return follow;
 	}
 
 	/**
@@ -142,6 +160,7 @@ public class GraphService {
 		rank.setPerson(person);
 		rank.setScore(score);
 		rank.setUpdatedAt(now);
+		rankStore.invalidate(); // escritura por fuera de RankStore
 		return rankRepository.save(rank);
 	}
 
@@ -203,6 +222,10 @@ public class GraphService {
 		}
 		if (!toDelete.isEmpty()) {
 			followRepository.deleteAll(toDelete);
+			for (Follow follow : toDelete) {
+				graphStore.removeFollow(personId, follow.getTarget().getId());
+				windowCache.forgetFollow(personId, follow.getTarget().getId());
+			}
 		}
 
 		Set<Long> touched = new HashSet<>();
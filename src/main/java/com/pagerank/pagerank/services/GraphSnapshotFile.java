@@ -0,0 +1,262 @@
+package com.pagerank.pagerank.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+
+/**
+ * Snapshot binario del grafo (CSR saliente, ids, nombres, pesos y ultimos scores) para arrancar
+ * sin reconstruir el grafo desde SQLite via Hibernate.
+ * <p>
+ * Formato (little endian, version {@value #FORMAT_VERSION}): cabecera con magic, version, huella de
+ * la base y tamanios; luego los arreglos de 8 bytes (ids, pesos, scores), los de 4 (offsets,
+ * destinos, offsets de nombres) y los nombres en UTF-8. Se escribe a un temporal y se renombra; se
+ * lee con {@link FileChannel#map} copiando cada arreglo en bloque.
+ * <p>
+ * La huella es una sola consulta: conteo e id maximo de {@code persons} y {@code follows} (cubren
+ * los inserts), el contador de {@code graph_writes} que triggers de SQLite suben con cada update o
+ * delete de esas tablas (renombres, calidades, borrados, lo escriba quien lo escriba) y conteo mas
+ * suma ponderada de {@code ranks}. Si no coincide con la de la base, el archivo esta viejo y se
+ * ignora. Los inserts no llevan trigger para no encarecer la ingesta en lote.
+ */
+@Component
+public class GraphSnapshotFile {
+
+	private static final Logger log = LoggerFactory.getLogger(GraphSnapshotFile.class);
+
+	private static final int MAGIC = 0x50524753; // "PRGS"
+	private static final int FORMAT_VERSION = 2;
+	private static final int HEADER_BYTES = 4 + 4 + 7 * 8 + 3 * 4 + 4;
+
+	private static final String FINGERPRINT = "select "
+			+ "(select count(*) from persons), (select coalesce(max(id), 0) from persons), "
+			+ "(select count(*) from follows), (select coalesce(max(id), 0) from follows), "
+			+ "(select version from graph_writes where id = 1), "
+			+ "(select count(*) from ranks), (select total(score * (person_id % 7919 + 1)) from ranks)";
+	private static final String[] WRITE_COUNTER_DDL = {
+			"create table if not exists graph_writes (id integer primary key check (id = 1), version integer not null)",
+			"insert or ignore into graph_writes (id, version) values (1, 0)",
+			writeTrigger("persons", "update"),
+			writeTrigger("persons", "delete"),
+			writeTrigger("follows", "update"),
+			writeTrigger("follows", "delete") };
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Path path;
+	private volatile boolean writeCounterReady;
+
+	public GraphSnapshotFile(JdbcTemplate jdbcTemplate, PagerankSettingsProperties settings) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.path = StringUtils.hasText(settings.graphSnapshotPath()) ? Path.of(settings.graphSnapshotPath()) : null;
+	}
+
+	/**
+	 * Indica si hay una ruta configurada.
+	 *
+	 * @return false si el snapshot en disco esta deshabilitado.
+	 */
+	public boolean enabled() {
+		return path != null;
+	}
+
+	/**
+	 * Huella actual de las tablas {@code persons}, {@code follows} y {@code ranks}. La primera
+	 * llamada crea (si faltan) la tabla {@code graph_writes} y sus triggers; las tablas de JPA ya
+	 * existen porque el store la pide al arrancar la aplicacion.
+	 *
+	 * @return huella de la base.
+	 */
+	public Fingerprint fingerprint() {
+		if (!writeCounterReady) {
+			for (String ddl : WRITE_COUNTER_DDL) {
+				jdbcTemplate.execute(ddl);
+			}
+			writeCounterReady = true;
+		}
+		return jdbcTemplate.queryForObject(FINGERPRINT, (rs, row) -> new Fingerprint(rs.getLong(1), rs.getLong(2),
+				rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getDouble(7)));
+	}
+
+	/**
+	 * Escribe el snapshot reemplazando el anterior.
+	 *
+	 * @param fingerprint huella de la base que corresponde a este grafo.
+	 * @param graph grafo a guardar.
+	 * @param names nombres indexados como el grafo.
+	 * @param scores scores indexados como el grafo (NaN si no tiene rank).
+	 * @throws IOException si falla la escritura.
+	 */
+	public void write(Fingerprint fingerprint, CsrGraph graph, String[] names, double[] scores) throws IOException {
+		int nodeCount = graph.nodeCount();
+		int edgeCount = graph.edgeCount();
+		byte[][] encoded = new byte[nodeCount][];
+		int[] nameOffsets = new int[nodeCount + 1];
+		for (int i = 0; i < nodeCount; i++) {
+			encoded[i] = names[i] != null ? names[i].getBytes(StandardCharsets.UTF_8) : new byte[0];
+			nameOffsets[i + 1] = Math.addExact(nameOffsets[i], encoded[i].length);
+		}
+		long size = HEADER_BYTES
+				+ 8L * nodeCount + 8L * edgeCount + 8L * nodeCount
+				+ 4L * (nodeCount + 1) + 4L * edgeCount + 4L * (nodeCount + 1)
+				+ nameOffsets[nodeCount];
+		if (size > Integer.MAX_VALUE) {
+			log.warn("Graph snapshot skipped: {} bytes exceed a single mapping", size);
+			return;
+		}
+
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+			buffer.putLong(fingerprint.persons()).putLong(fingerprint.maxPersonId());
+			buffer.putLong(fingerprint.follows()).putLong(fingerprint.maxFollowId());
+			buffer.putLong(fingerprint.writes()).putLong(fingerprint.ranks()).putDouble(fingerprint.ranksHash());
+			buffer.putInt(nodeCount).putInt(edgeCount).putInt(nameOffsets[nodeCount]).putInt(0); // relleno a 8 bytes
+
+			buffer.asLongBuffer().put(graph.ids(), 0, nodeCount);
+			buffer.position(buffer.position() + 8 * nodeCount);
+			buffer.asDoubleBuffer().put(graph.outWeights(), 0, edgeCount);
+			buffer.position(buffer.position() + 8 * edgeCount);
+			buffer.asDoubleBuffer().put(scores, 0, nodeCount);
+			buffer.position(buffer.position() + 8 * nodeCount);
+			buffer.asIntBuffer().put(graph.outOffsets(), 0, nodeCount + 1);
+			buffer.position(buffer.position() + 4 * (nodeCount + 1));
+			buffer.asIntBuffer().put(graph.outTargets(), 0, edgeCount);
+			buffer.position(buffer.position() + 4 * edgeCount);
+			buffer.asIntBuffer().put(nameOffsets);
+			buffer.position(buffer.position() + 4 * (nodeCount + 1));
+			for (byte[] name : encoded) {
+				buffer.put(name);
+			}
+			buffer.force();
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Lee el snapshot si existe, tiene el formato esperado y su huella coincide con la base.
+	 *
+	 * @return snapshot vigente o vacio (hay que cargar desde la base).
+	 */
+	public Optional<Snapshot> readIfFresh() {
+		if (path == null || !Files.isRegularFile(path)) {
+			return Optional.empty();
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+				log.warn("Ignoring graph snapshot {}: unexpected size {}", path, channel.size());
+				return Optional.empty();
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				log.warn("Ignoring graph snapshot {}: unknown format", path);
+				return Optional.empty();
+			}
+			Fingerprint stored = new Fingerprint(buffer.getLong(), buffer.getLong(), buffer.getLong(),
+					buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getDouble());
+			Fingerprint current = fingerprint();
+			if (!stored.equals(current)) {
+				log.info("Ignoring graph snapshot {}: database changed since it was written", path);
+				return Optional.empty();
+			}
+			int nodeCount = buffer.getInt();
+			int edgeCount = buffer.getInt();
+			int nameBytes = buffer.getInt();
+			buffer.getInt();
+
+			long[] ids = new long[nodeCount];
+			double[] weights = new double[edgeCount];
+			double[] scores = new double[nodeCount];
+			int[] offsets = new int[nodeCount + 1];
+			int[] targets = new int[edgeCount];
+			int[] nameOffsets = new int[nodeCount + 1];
+			buffer.asLongBuffer().get(ids);
+			buffer.position(buffer.position() + 8 * nodeCount);
+			buffer.asDoubleBuffer().get(weights);
+			buffer.position(buffer.position() + 8 * edgeCount);
+			buffer.asDoubleBuffer().get(scores);
+			buffer.position(buffer.position() + 8 * nodeCount);
+			buffer.asIntBuffer().get(offsets);
+			buffer.position(buffer.position() + 4 * (nodeCount + 1));
+			buffer.asIntBuffer().get(targets);
+			buffer.position(buffer.position() + 4 * edgeCount);
+			buffer.asIntBuffer().get(nameOffsets);
+			buffer.position(buffer.position() + 4 * (nodeCount + 1));
+			ByteBuffer nameData = buffer.slice(buffer.position(), nameBytes);
+
+			CsrGraph.Builder builder = CsrGraph.builder(nodeCount, edgeCount).keepZeroWeights();
+			String[] names = new String[nodeCount];
+			byte[] scratch = new byte[0];
+			for (int i = 0; i < nodeCount; i++) {
+				builder.addNode(ids[i]);
+				int length = nameOffsets[i + 1] - nameOffsets[i];
+				if (scratch.length < length) {
+					scratch = new byte[Math.max(length, scratch.length * 2)];
+				}
+				nameData.get(nameOffsets[i], scratch, 0, length);
+				names[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+			}
+			for (int u = 0; u < nodeCount; u++) {
+				for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+					builder.addEdge(ids[u], ids[targets[e]], weights[e]);
+				}
+			}
+			return Optional.of(new Snapshot(builder.build(), names, scores));
+		}
+		catch (IOException | RuntimeException ex) {
+			log.warn("Ignoring unreadable graph snapshot {}", path, ex);
+			return Optional.empty();
+		}
+	}
+
+	private static String writeTrigger(String table, String operation) {
+		return "create trigger if not exists graph_writes_" + table + "_" + operation + " after " + operation
+				+ " on " + table + " begin update graph_writes set version = version + 1 where id = 1; end";
+	}
+
+	/**
+	 * Huella barata de la base para detectar un snapshot viejo.
+	 *
+	 * @param persons filas en {@code persons}.
+	 * @param maxPersonId id maximo de persona.
+	 * @param follows filas en {@code follows}.
+	 * @param maxFollowId id maximo de follow.
+	 * @param writes updates y deletes sobre {@code persons} y {@code follows} (contador de
+	 *        {@code graph_writes}).
+	 * @param ranks filas en {@code ranks}.
+	 * @param ranksHash suma de scores ponderada por persona.
+	 */
+	public record Fingerprint(long persons, long maxPersonId, long follows, long maxFollowId, long writes, long ranks,
+			double ranksHash) {
+	}
+
+	/**
+	 * Contenido de un snapshot leido.
+	 *
+	 * @param graph grafo reconstruido.
+	 * @param names nombres indexados como el grafo.
+	 * @param scores ultimos scores (NaN para personas sin rank).
+	 */
+	public record Snapshot(CsrGraph graph, String[] names, double[] scores) {
+	}
+}
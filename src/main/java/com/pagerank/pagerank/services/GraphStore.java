@@ -0,0 +1,579 @@
+package com.pagerank.pagerank.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pagerank.pagerank.domain.model.Person;
+import com.pagerank.pagerank.domain.repository.FollowRepository;
+import com.pagerank.pagerank.domain.repository.PersonRepository;
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.IdIndex;
+import com.pagerank.pagerank.engine.WeightPrecision;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+
+/**
+ * Grafo residente en memoria: se carga una vez desde la base (o desde el snapshot en disco de
+ * {@link GraphSnapshotFile} si esta vigente) y luego se parchea en cada escritura
+ * de {@link GraphService}, de modo que PageRank y {@code /api/graph} no vuelven a escanear SQLite.
+ * <p>
+ * Mantiene listas de adyacencia salientes mutables por nodo (todos los follows guardados, incluidos
+ * los de calidad 0) y arma un {@link CsrGraph} inmutable bajo demanda, cacheado hasta la siguiente
+ * modificacion; el de los motores omite las aristas de peso 0. Cada parche anota el origen cuya fila
+ * saliente cambio con su version, para que el incremental sepa que corregir entre dos snapshots
+ * sin depender de los ids que le pase quien escribio.
+ */
+@Component
+@Order(-1)
+public class GraphStore implements ApplicationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(GraphStore.class);
+
+	private static final int[] NO_TARGETS = new int[0];
+	private static final double[] NO_WEIGHTS = new double[0];
+	/** Entradas del registro de origenes cambiados antes de descartar la mitad mas vieja. */
+	private static final int MAX_DIRTY = 1 << 16;
+
+	private final PersonRepository personRepository;
+	private final FollowRepository followRepository;
+	private final GraphSnapshotFile snapshotFile;
+	private final WeightPrecision weightPrecision;
+
+	private boolean loaded;
+	private long[] ids = new long[0];
+	private String[] names = new String[0];
+	private IdIndex index = new IdIndex(0);
+	private int nodeCount;
+	private int[][] outTargets = new int[0][];
+	private double[][] outWeights = new double[0][];
+	private int[] outSize = new int[0];
+	private int edgeCount;
+	private long version;
+	private long nodesVersion;
+	private CsrGraph snapshot;
+	private CsrGraph storedGraph;
+	private GraphSnapshotFile.Snapshot restored;
+	// Version de cada snapshot entregado (identidad; se liberan con el GC).
+	private final Map<CsrGraph, Long> snapshotVersions = new WeakHashMap<>();
+	// Registro (version, origen) en orden de version; lo anterior a dirtyFloor ya no esta.
+	private long[] dirtyVersions = new long[64];
+	private long[] dirtyIds = new long[64];
+	private int dirtyCount;
+	private long dirtyFloor;
+
+	public GraphStore(PersonRepository personRepository, FollowRepository followRepository,
+			GraphSnapshotFile snapshotFile, PagerankSettingsProperties settings) {
+		this.personRepository = personRepository;
+		this.followRepository = followRepository;
+		this.snapshotFile = snapshotFile;
+		this.weightPrecision = settings.weightPrecision();
+	}
+
+	/**
+	 * Carga el grafo al arrancar, antes de los bootstrappers que lo parchean; si el snapshot en
+	 * disco esta vigente se usa ese y no se escanea la base.
+	 *
+	 * @param args argumentos de arranque de la aplicacion.
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		Optional<GraphSnapshotFile.Snapshot> file = snapshotFile.readIfFresh();
+		if (file.isPresent() && restore(file.get())) {
+			log.info("Graph store restored from snapshot file: nodes={}, edges={}",
+					file.get().graph().nodeCount(), file.get().graph().edgeCount());
+			return;
+		}
+		CsrGraph graph = snapshot();
+		log.info("Graph store loaded: nodes={}, edges={}", graph.nodeCount(), graph.edgeCount());
+	}
+
+	/**
+	 * Entrega (una sola vez) el snapshot en disco con el que arranco el grafo, para reusar sus scores.
+	 *
+	 * @return snapshot restaurado al arrancar o vacio si se cargo desde la base.
+	 */
+	public synchronized Optional<GraphSnapshotFile.Snapshot> takeRestoredSnapshot() {
+		Optional<GraphSnapshotFile.Snapshot> result = Optional.ofNullable(restored);
+		restored = null;
+		return result;
+	}
+
+	/**
+	 * Devuelve el CSR de los motores para el estado actual (sin aristas de peso 0); lo reconstruye
+	 * desde memoria solo si hubo cambios. Con {@code WEIGHT_PRECISION} compacta los pesos entrantes
+	 * quedan solo en esa precision (ver {@link CsrGraph.Builder#inWeightPrecision}).
+	 *
+	 * @return grafo inmutable compartido.
+	 */
+	public synchronized CsrGraph snapshot() {
+		ensureLoaded();
+		if (snapshot == null) {
+			snapshot = build(false, weightPrecision);
+			snapshotVersions.put(snapshot, version);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * CSR con todos los follows guardados, incluidos los de calidad 0, con los mismos indices de nodo
+	 * que {@link #snapshot()}. Es el que ven {@code /api/graph} y el snapshot en disco; si no hay
+	 * aristas de peso 0 es el mismo objeto.
+	 *
+	 * @return grafo inmutable compartido.
+	 */
+	public synchronized CsrGraph storedGraph() {
+		CsrGraph solver = snapshot();
+		if (storedGraph == null) {
+			storedGraph = solver.edgeCount() == edgeCount ? solver : build(true, WeightPrecision.DOUBLE);
+		}
+		return storedGraph;
+	}
+
+	/**
+	 * Origenes cuya fila saliente cambio entre dos snapshots entregados por este store, incluidos
+	 * los parches de transacciones todavia sin confirmar que ya estan en {@code to}.
+	 *
+	 * @param from snapshot anterior.
+	 * @param to snapshot posterior.
+	 * @return ids de origen (puede incluir de mas), o vacio si no se puede saber (snapshot ajeno,
+	 *         recarga completa o registro ya descartado) y hay que recalcular todo.
+	 */
+	public synchronized Optional<Set<Long>> changedSources(CsrGraph from, CsrGraph to) {
+		Long fromVersion = snapshotVersions.get(from);
+		Long toVersion = snapshotVersions.get(to);
+		if (fromVersion == null || toVersion == null || fromVersion < dirtyFloor || toVersion < fromVersion) {
+			return Optional.empty();
+		}
+		Set<Long> sources = new HashSet<>();
+		for (int i = dirtyCount - 1; i >= 0 && dirtyVersions[i] > fromVersion; i--) {
+			if (dirtyVersions[i] <= toVersion) {
+				sources.add(dirtyIds[i]);
+			}
+		}
+		return Optional.of(sources);
+	}
+
+	/**
+	 * Version monotona del grafo; cambia con cada parche aplicado o recarga.
+	 *
+	 * @return version actual.
+	 */
+	public synchronized long version() {
+		ensureLoaded();
+		return version;
+	}
+
+	/**
+	 * Version del conjunto de personas (altas, renombres y recargas); no cambia con los follows.
+	 *
+	 * @return version de los nodos.
+	 */
+	public synchronized long nodesVersion() {
+		return nodesVersion;
+	}
+
+	/**
+	 * Nombre de la persona guardado en memoria.
+	 *
+	 * @param personId id de la persona.
+	 * @return nombre o nulo si no esta en el grafo.
+	 */
+	public synchronized String nameOf(long personId) {
+		ensureLoaded();
+		int idx = index.get(personId);
+		return idx < 0 ? null : names[idx];
+	}
+
+	/**
+	 * Copia de nodos (id, nombre) en orden de indice.
+	 *
+	 * @return nodos del grafo.
+	 */
+	public synchronized List<Node> nodes() {
+		ensureLoaded();
+		List<Node> result = new ArrayList<>(nodeCount);
+		for (int i = 0; i < nodeCount; i++) {
+			result.add(new Node(ids[i], names[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * Nombres alineados con los indices de un grafo armado por este store.
+	 *
+	 * @param graph grafo de referencia.
+	 * @return nombre por indice (nulo si la persona ya no esta).
+	 */
+	public synchronized String[] names(CsrGraph graph) {
+		ensureLoaded();
+		String[] result = new String[graph.nodeCount()];
+		for (int i = 0; i < result.length; i++) {
+			int idx = index.get(graph.idAt(i));
+			result[i] = idx >= 0 ? names[idx] : null;
+		}
+		return result;
+	}
+
+	/**
+	 * Copia de aristas (origen, destino, peso) presentes en memoria.
+	 *
+	 * @return aristas del grafo.
+	 */
+	public synchronized List<Link> links() {
+		ensureLoaded();
+		List<Link> result = new ArrayList<>(edgeCount);
+		for (int i = 0; i < nodeCount; i++) {
+			for (int e = 0; e < outSize[i]; e++) {
+				result.add(new Link(ids[i], ids[outTargets[i][e]], outWeights[i][e]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Agrega (o renombra) una persona en el grafo residente.
+	 *
+	 * @param personId id persistido.
+	 * @param name nombre de la persona.
+	 */
+	public synchronized void addPerson(long personId, String name) {
+		if (!loaded) {
+			return; // se vera en la carga inicial
+		}
+		resetOnRollback();
+		int idx = index.get(personId);
+		if (idx >= 0) {
+			if (!name.equals(names[idx])) {
+				names[idx] = name;
+				nodesVersion++;
+			}
+			return;
+		}
+		appendNode(personId, name);
+		changed();
+	}
+
+	/**
+	 * Crea o actualiza la arista origen -> destino; un peso no positivo se guarda como 0 (la arista
+	 * sigue en {@link #storedGraph()} pero no en el snapshot de los motores).
+	 *
+	 * @param sourceId id origen.
+	 * @param targetId id destino.
+	 * @param weight calidad ajustada de la arista.
+	 */
+	public synchronized void upsertFollow(long sourceId, long targetId, double weight) {
+		if (!loaded) {
+			return;
+		}
+		resetOnRollback();
+		int source = index.get(sourceId);
+		int target = index.get(targetId);
+		if (source < 0 || target < 0) {
+			invalidate(); // nodo desconocido: el estado ya no es confiable
+			return;
+		}
+		putEdge(source, target, weight > 0.0 ? weight : 0.0);
+		changed();
+	}
+
+	/**
+	 * Aplica de una vez las altas de personas y follows de un lote de ingesta, con un solo registro
+	 * de rollback para toda la transaccion en lugar de uno por fila.
+	 *
+	 * @param persons personas nuevas o renombradas.
+	 * @param follows follows creados o actualizados (peso no positivo se guarda como 0).
+	 */
+	public synchronized void applyBatch(Collection<Node> persons, Collection<Link> follows) {
+		if (!loaded || (persons.isEmpty() && follows.isEmpty())) {
+			return;
+		}
+		resetOnRollback();
+		for (Node person : persons) {
+			int idx = index.get(person.id());
+			if (idx < 0) {
+				appendNode(person.id(), person.name());
+			}
+			else if (!person.name().equals(names[idx])) {
+				names[idx] = person.name();
+				nodesVersion++;
+			}
+		}
+		for (Link follow : follows) {
+			int source = index.get(follow.sourceId());
+			int target = index.get(follow.targetId());
+			if (source < 0 || target < 0) {
+				invalidate();
+				return;
+			}
+			putEdge(source, target, follow.weight() > 0.0 ? follow.weight() : 0.0);
+		}
+		changed();
+	}
+
+	/**
+	 * Elimina la arista origen -> destino si existe.
+	 *
+	 * @param sourceId id origen.
+	 * @param targetId id destino.
+	 */
+	public synchronized void removeFollow(long sourceId, long targetId) {
+		if (!loaded) {
+			return;
+		}
+		resetOnRollback();
+		int source = index.get(sourceId);
+		int target = index.get(targetId);
+		if (source < 0 || target < 0) {
+			return;
+		}
+		if (deleteEdge(source, target)) {
+			changed();
+		}
+	}
+
+	/**
+	 * Descarta el estado en memoria; la proxima lectura recarga desde la base.
+	 */
+	public synchronized void invalidate() {
+		loaded = false;
+		snapshot = null;
+		storedGraph = null;
+		version++;
+		nodesVersion++;
+	}
+
+	/**
+	 * Carga el estado desde un grafo ya armado (snapshot en disco) en vez de la base.
+	 *
+	 * @param file snapshot leido.
+	 * @return false si el store ya estaba cargado.
+	 */
+	private synchronized boolean restore(GraphSnapshotFile.Snapshot file) {
+		if (loaded) {
+			return false;
+		}
+		CsrGraph graph = file.graph();
+		String[] graphNames = file.names();
+		int count = graph.nodeCount();
+		ids = new long[count];
+		names = new String[count];
+		index = new IdIndex(count);
+		outTargets = new int[count][];
+		outWeights = new double[count][];
+		outSize = new int[count];
+		nodeCount = 0;
+		edgeCount = 0;
+		for (int i = 0; i < count; i++) {
+			appendNode(graph.idAt(i), graphNames[i]);
+		}
+		int[] offsets = graph.outOffsets();
+		for (int u = 0; u < count; u++) {
+			int degree = offsets[u + 1] - offsets[u];
+			if (degree > 0) {
+				outTargets[u] = Arrays.copyOfRange(graph.outTargets(), offsets[u], offsets[u + 1]);
+				outWeights[u] = Arrays.copyOfRange(graph.outWeights(), offsets[u], offsets[u + 1]);
+				outSize[u] = degree;
+				edgeCount += degree;
+			}
+		}
+		loaded = true;
+		changed();
+		clearDirty();
+		// Mismos indices: el CSR restaurado sirve como snapshot (y para los motores si no tiene pesos 0
+		// y sus pesos entrantes ya estan en la precision configurada).
+		storedGraph = graph;
+		if (!hasZeroWeights(graph) && graph.inWeightPrecision() == weightPrecision) {
+			snapshot = graph;
+			snapshotVersions.put(snapshot, version);
+		}
+		restored = file;
+		return true;
+	}
+
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+		List<Person> persons = personRepository.findAll();
+		ids = new long[persons.size()];
+		names = new String[persons.size()];
+		index = new IdIndex(persons.size());
+		outTargets = new int[persons.size()][];
+		outWeights = new double[persons.size()][];
+		outSize = new int[persons.size()];
+		nodeCount = 0;
+		edgeCount = 0;
+		for (Person person : persons) {
+			appendNode(person.getId(), person.getName());
+		}
+		if (nodeCount > 0) {
+			for (FollowRepository.FollowEdge edge : followRepository.findAllEdges()) {
+				int source = index.get(edge.getSourceId());
+				int target = index.get(edge.getTargetId());
+				if (source >= 0 && target >= 0) {
+					appendEdge(source, target, Math.max(0.0, edge.getQuality())); // (src, dst) ya es unico en la base
+				}
+			}
+		}
+		loaded = true;
+		changed();
+		clearDirty();
+	}
+
+	private void putEdge(int source, int target, double weight) {
+		markDirty(source);
+		int position = find(source, target);
+		if (position >= 0) {
+			outWeights[source][position] = weight;
+		}
+		else {
+			appendEdge(source, target, weight);
+		}
+	}
+
+	private boolean deleteEdge(int source, int target) {
+		int position = find(source, target);
+		if (position < 0) {
+			return false;
+		}
+		markDirty(source);
+		int last = --outSize[source];
+		outTargets[source][position] = outTargets[source][last];
+		outWeights[source][position] = outWeights[source][last];
+		edgeCount--;
+		return true;
+	}
+
+	private void appendEdge(int source, int target, double weight) {
+		if (outSize[source] == outTargets[source].length) {
+			int capacity = Math.max(4, outSize[source] * 2);
+			outTargets[source] = Arrays.copyOf(outTargets[source], capacity);
+			outWeights[source] = Arrays.copyOf(outWeights[source], capacity);
+		}
+		outTargets[source][outSize[source]] = target;
+		outWeights[source][outSize[source]] = weight;
+		outSize[source]++;
+		edgeCount++;
+	}
+
+	private void appendNode(long personId, String name) {
+		if (nodeCount == ids.length) {
+			int capacity = Math.max(8, nodeCount * 2);
+			ids = Arrays.copyOf(ids, capacity);
+			names = Arrays.copyOf(names, capacity);
+			outTargets = Arrays.copyOf(outTargets, capacity);
+			outWeights = Arrays.copyOf(outWeights, capacity);
+			outSize = Arrays.copyOf(outSize, capacity);
+		}
+		ids[nodeCount] = personId;
+		names[nodeCount] = name;
+		outTargets[nodeCount] = NO_TARGETS;
+		outWeights[nodeCount] = NO_WEIGHTS;
+		index.put(personId, nodeCount);
+		nodeCount++;
+		nodesVersion++;
+	}
+
+	private int find(int source, int target) {
+		int[] targets = outTargets[source];
+		for (int e = 0; e < outSize[source]; e++) {
+			if (targets[e] == target) {
+				return e;
+			}
+		}
+		return -1;
+	}
+
+	private CsrGraph build(boolean keepZeroWeights, WeightPrecision precision) {
+		CsrGraph.Builder builder = CsrGraph.builder(nodeCount, edgeCount).inWeightPrecision(precision);
+		if (keepZeroWeights) {
+			builder.keepZeroWeights();
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			builder.addNode(ids[i]);
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			for (int e = 0; e < outSize[i]; e++) {
+				builder.addEdge(ids[i], ids[outTargets[i][e]], outWeights[i][e]);
+			}
+		}
+		return builder.build();
+	}
+
+	private static boolean hasZeroWeights(CsrGraph graph) {
+		for (double weight : graph.outWeights()) {
+			if (!(weight > 0.0)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void changed() {
+		snapshot = null;
+		storedGraph = null;
+		version++;
+	}
+
+	private void markDirty(int source) {
+		// Todo parche de aristas termina en un changed(): la fila queda distinta a partir de version + 1.
+		if (dirtyCount == dirtyIds.length) {
+			if (dirtyCount < MAX_DIRTY) {
+				dirtyVersions = Arrays.copyOf(dirtyVersions, dirtyCount * 2);
+				dirtyIds = Arrays.copyOf(dirtyIds, dirtyCount * 2);
+			}
+			else {
+				int drop = dirtyCount / 2;
+				dirtyFloor = dirtyVersions[drop - 1];
+				System.arraycopy(dirtyVersions, drop, dirtyVersions, 0, dirtyCount - drop);
+				System.arraycopy(dirtyIds, drop, dirtyIds, 0, dirtyCount - drop);
+				dirtyCount -= drop;
+			}
+		}
+		dirtyVersions[dirtyCount] = version + 1;
+		dirtyIds[dirtyCount] = ids[source];
+		dirtyCount++;
+	}
+
+	private void clearDirty() {
+		// Tras una carga completa ningun snapshot anterior se puede comparar por diferencias.
+		dirtyCount = 0;
+		dirtyFloor = version;
+	}
+
+	private void resetOnRollback() {
+		// Si la transaccion que origino el parche no confirma, recargamos desde la base.
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status != STATUS_COMMITTED) {
+					invalidate();
+				}
+			}
+		});
+	}
+
+	public record Node(long id, String name) {
+	}
+
+	public record Link(long sourceId, long targetId, double weight) {
+	}
+}
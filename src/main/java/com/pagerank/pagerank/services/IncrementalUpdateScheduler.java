@@ -0,0 +1,195 @@
+package com.pagerank.pagerank.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pagerank.pagerank.domain.model.PageRankResult;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Agenda las actualizaciones incrementales en segundo plano: acumula los ids tocados y los
+ * agrupa en una sola corrida por ventana de debounce o al llegar al tamano de lote, de modo que
+ * las escrituras vuelven en cuanto la arista queda guardada. Un batch cortado por {@code Z} con
+ * {@code BATCH_RESUME} se sigue en la proxima ventana desde este mismo hilo.
+ */
+@Component
+public class IncrementalUpdateScheduler {
+
+	private static final Logger log = LoggerFactory.getLogger(IncrementalUpdateScheduler.class);
+
+	private final PageRankService pageRankService;
+	private final Duration debounce;
+	private final int batchSize;
+	private final ScheduledExecutorService executor;
+
+	private final Set<Long> pending = new LinkedHashSet<>();
+	private Instant oldestPending;
+	private boolean resumeRequested;
+	private ScheduledFuture<?> scheduled;
+	private long runs;
+	private long processedIds;
+	private Duration lastLag = Duration.ZERO;
+	private Instant lastRunAt;
+	private PageRankResult lastResult;
+
+	public IncrementalUpdateScheduler(PageRankService pageRankService, PagerankSettingsProperties settings) {
+		this.pageRankService = pageRankService;
+		this.debounce = settings.incrementalDebounce();
+		this.batchSize = settings.incrementalBatchSize();
+		this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "pagerank-incremental");
+			thread.setDaemon(true);
+			return thread;
+		});
+		pageRankService.onBatchCheckpoint(this::resumeBatchLater);
+	}
+
+	/**
+	 * Encola ids tocados; si hay una transaccion activa se encolan recien al confirmarla.
+	 *
+	 * @param personIds ids de personas afectadas.
+	 */
+	public void enqueue(Collection<Long> personIds) {
+		if (personIds == null || personIds.isEmpty()) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			Set<Long> copy = Set.copyOf(personIds);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					enqueueNow(copy);
+				}
+			});
+			return;
+		}
+		enqueueNow(personIds);
+	}
+
+	/**
+	 * Estado actual de la cola: profundidad, antiguedad del pendiente mas viejo y ultimas corridas.
+	 *
+	 * @return estado del agendador.
+	 */
+	public synchronized Status status() {
+		Duration oldestAge = oldestPending != null ? Duration.between(oldestPending, Instant.now()) : Duration.ZERO;
+		return new Status(pending.size(), oldestAge, runs, processedIds, lastLag, lastRunAt, lastResult);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private synchronized void enqueueNow(Collection<Long> personIds) {
+		for (Long id : personIds) {
+			if (id != null && id > 0) {
+				pending.add(id);
+			}
+		}
+		if (pending.isEmpty()) {
+			return;
+		}
+		if (oldestPending == null) {
+			oldestPending = Instant.now();
+		}
+		if (pending.size() >= batchSize) {
+			reschedule(Duration.ZERO); // lote lleno: no esperamos al fin de la ventana
+		}
+		else if (scheduled == null) {
+			reschedule(debounce);
+		}
+	}
+
+	private synchronized void resumeBatchLater() {
+		resumeRequested = true;
+		if (scheduled == null) {
+			reschedule(debounce);
+		}
+	}
+
+	private void reschedule(Duration delay) {
+		if (scheduled != null && !scheduled.cancel(false)) {
+			return; // ya arranco: drain() toma todo lo pendiente bajo el mismo lock
+		}
+		scheduled = executor.schedule(this::drain, delay.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	private void drain() {
+		Set<Long> batch;
+		Instant enqueuedAt;
+		synchronized (this) {
+			scheduled = null;
+			if (pending.isEmpty() && !resumeRequested) {
+				return;
+			}
+			resumeRequested = false;
+			batch = new LinkedHashSet<>(pending);
+			pending.clear();
+			enqueuedAt = oldestPending != null ? oldestPending : Instant.now();
+			oldestPending = null;
+		}
+
+		PageRankResult result = null;
+		try {
+			// Con un batch pendiente, runIncrementalUpdate tambien lo sigue en lugar del incremental.
+			result = batch.isEmpty()
+					? pageRankService.resumeBatchComputation().orElse(null)
+					: pageRankService.runIncrementalUpdate(batch);
+		}
+		catch (RuntimeException ex) {
+			log.error("Scheduled incremental PageRank failed for {} ids", batch.size(), ex);
+		}
+
+		synchronized (this) {
+			runs++;
+			processedIds += batch.size();
+			lastRunAt = Instant.now();
+			lastLag = Duration.between(enqueuedAt, lastRunAt);
+			if (result != null) {
+				lastResult = result;
+			}
+			log.debug("Coalesced incremental run: ids={}, lag={} ms, queued={}", batch.size(), lastLag.toMillis(),
+					pending.size());
+			if (!pending.isEmpty() && scheduled == null) {
+				reschedule(pending.size() >= batchSize ? Duration.ZERO : debounce);
+			}
+		}
+	}
+
+	/**
+	 * Foto del agendador para monitoreo.
+	 *
+	 * @param queueDepth ids pendientes de procesar.
+	 * @param oldestPendingAge antiguedad del id pendiente mas viejo.
+	 * @param runs corridas incrementales ejecutadas.
+	 * @param processedIds ids procesados en total.
+	 * @param lastLag demora entre el primer id encolado y el fin de la ultima corrida.
+	 * @param lastRunAt instante de la ultima corrida.
+	 * @param lastResult resultado de la ultima corrida.
+	 */
+	public record Status(
+			int queueDepth,
+			Duration oldestPendingAge,
+			long runs,
+			long processedIds,
+			Duration lastLag,
+			Instant lastRunAt,
+			PageRankResult lastResult) {
+	}
+}
@@ -18,8 +18,9 @@ import com.pagerank.pagerank.domain.model.Follow;
 import com.pagerank.pagerank.domain.model.Person;
 import com.pagerank.pagerank.domain.repository.FollowRepository;
 import com.pagerank.pagerank.domain.repository.PersonRepository;
-import com.pagerank.pagerank.domain.repository.RankRepository;
 import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.web.dto.FollowResponse;
+import com.pagerank.pagerank.web.dto.PersonResponse;
 
 @Service
 @Transactional
@@ -30,8 +31,9 @@ public class IngestionService {
 	private final GraphService graphService;
 	private final PersonRepository personRepository;
 	private final FollowRepository followRepository;
-	private final RankRepository rankRepository;
-	private final PageRankService pageRankService;
+	private final RankStore rankStore;
+	private final IncrementalUpdateScheduler incrementalScheduler;
+	private final CollectionWindowCache windowCache;
 	private final Duration collectionWindow;
 	private final double qualityThreshold;
 	private final double spamPenalty;
@@ -40,59 +42,67 @@ public class IngestionService {
 			GraphService graphService,
 			PersonRepository personRepository,
 			FollowRepository followRepository,
-			RankRepository rankRepository,
-			PageRankService pageRankService,
+			RankStore rankStore,
+			IncrementalUpdateScheduler incrementalScheduler,
+			CollectionWindowCache windowCache,
 			PagerankSettingsProperties settings) {
 		this.graphService = graphService;
 		this.personRepository = personRepository;
 		this.followRepository = followRepository;
-		this.rankRepository = rankRepository;
-		this.pageRankService = pageRankService;
+		this.rankStore = rankStore;
+		this.incrementalScheduler = incrementalScheduler;
+		this.windowCache = windowCache;
 		this.collectionWindow = settings.collectionWindow();
 		this.qualityThreshold = settings.followQualityThreshold();
 		this.spamPenalty = settings.spamPenalty();
 	}
 
 	/**
-	 * Crea o refresca una persona observada y dispara PageRank incremental si cambia.
+	 * Crea o refresca una persona observada y encola PageRank incremental si cambia.
+	 * Un duplicado dentro de la ventana que ya esta en {@link CollectionWindowCache} se responde
+	 * desde el cache, sin consultar la base.
 	 *
 	 * @param observation datos observados (nombre, spamScore, timestamp).
-	 * @return persona creada o actualizada.
+	 * @return persona creada, actualizada o existente.
 	 */
-	public Person collectPerson(PersonObservation observation) {
+	public PersonResponse collectPerson(PersonObservation observation) {
 		String normalizedName = normalizeName(observation.name());
 		Instant observedAt = observation.observedAt() != null ? observation.observedAt() : Instant.now();
+		Optional<PersonResponse> cached = windowCache.freshPerson(normalizedName, observedAt);
+		if (cached.isPresent()) {
+			return cached.get();
+		}
 
 		Person existing = personRepository.findByNameIgnoreCase(normalizedName).orElse(null);
-		boolean changed = false;
-		Person result;
-		if (existing == null) {
-			result = graphService.registerPerson(normalizedName, observation.spamScore(), observedAt);
-			changed = true;
+		if (existing != null && !shouldRefresh(existing.getLastSeen(), observedAt)) {
+			PersonResponse unchanged = PersonResponse.from(existing);
+			windowCache.recordPerson(unchanged);
+			return unchanged;
 		}
-		else if (!shouldRefresh(existing.getLastSeen(), observedAt)) {
-			return existing;
+
+		PersonResponse response;
+		if (existing == null) {
+			response = PersonResponse.from(graphService.registerPerson(normalizedName, observation.spamScore(), observedAt));
 		}
 		else {
 			existing.setSpamScore(observation.spamScore());
 			existing.setLastSeen(observedAt);
-			result = personRepository.save(existing);
-			changed = true;
+			response = PersonResponse.from(personRepository.save(existing));
+			windowCache.recordPerson(response);
 		}
-
-		if (changed) {
-			triggerIncrementalUpdate(result.getId());
-		}
-		return result;
+		triggerIncrementalUpdate(response.id());
+		return response;
 	}
 
 	/**
-	 * Crea o refresca un follow observado si supera el umbral de calidad y dispara incremental.
+	 * Crea o refresca un follow observado si supera el umbral de calidad y encola incremental.
+	 * Un duplicado dentro de la ventana que ya esta en {@link CollectionWindowCache} se responde
+	 * desde el cache, sin validar los extremos ni consultar la base.
 	 *
 	 * @param observation follow observado (origen, destino, calidad, timestamp).
 	 * @return follow persistido, si fue aceptado.
 	 */
-	public Optional<Follow> collectFollow(FollowObservation observation) {
+	public Optional<FollowResponse> collectFollow(FollowObservation observation) {
 		Assert.notNull(observation, "Observation cannot be null");
 		Long sourceId = observation.sourcePersonId();
 		Long targetId = observation.targetPersonId();
@@ -107,6 +117,12 @@ public class IngestionService {
 			return Optional.empty();
 		}
 
+		Optional<FollowResponse> cached = windowCache.freshFollow(sourceId, targetId, observedAt);
+		if (cached.isPresent()) {
+			log.debug("Follow {} -> {} already collected within the window", sourceId, targetId);
+			return cached;
+		}
+
 		Person source = personRepository.findById(sourceId).orElse(null);
 		Person target = personRepository.findById(targetId).orElse(null);
 		if (source == null || target == null) {
@@ -115,11 +131,14 @@ public class IngestionService {
 
 		Optional<Follow> existing = followRepository.findBySourceIdAndTargetId(sourceId, targetId);
 		if (existing.isPresent() && !shouldRefresh(existing.get().getLastSeen(), observedAt)) {
-			return existing;
+			FollowResponse unchanged = FollowResponse.from(existing.get());
+			windowCache.recordFollow(unchanged);
+			return Optional.of(unchanged);
 		}
 
 		double adjustedQuality = adjustQuality(rawQuality, source.getSpamScore());
-		Follow saved = graphService.registerFollow(sourceId, targetId, adjustedQuality, observedAt);
+		FollowResponse saved = FollowResponse.from(
+				graphService.registerFollow(sourceId, targetId, adjustedQuality, observedAt));
 		triggerIncrementalUpdate(sourceId, targetId);
 		return Optional.of(saved);
 	}
@@ -133,7 +152,7 @@ public class IngestionService {
 	 * @param observedAt instante observado; si es nulo se usa ahora.
 	 * @return follow persistido, si fue aceptado.
 	 */
-	public Optional<Follow> collectFollowByNames(String sourceName, String targetName, double quality, Instant observedAt) {
+	public Optional<FollowResponse> collectFollowByNames(String sourceName, String targetName, double quality, Instant observedAt) {
 		if (!StringUtils.hasText(sourceName) || !StringUtils.hasText(targetName)) {
 			return Optional.empty();
 		}
@@ -142,7 +161,7 @@ public class IngestionService {
 						.flatMap(target -> collectFollow(new FollowObservation(source.getId(), target.getId(), quality, observedAt))));
 	}
 
-	private boolean shouldRefresh(Instant previous, Instant now) {
+	boolean shouldRefresh(Instant previous, Instant now) {
 		if (previous == null) {
 			return true;
 		}
@@ -155,7 +174,7 @@ public class IngestionService {
 		return raw.trim();
 	}
 
-	private double adjustQuality(double quality, double spamScore) {
+	double adjustQuality(double quality, double spamScore) {
 		double clampedSpam = Math.max(0.0, Math.min(1.0, spamScore));
 		double penaltyFactor = 1.0 - (spamPenalty * clampedSpam);
 		if (penaltyFactor < 0) {
@@ -165,7 +184,7 @@ public class IngestionService {
 	}
 
 	private void triggerIncrementalUpdate(Long... ids) {
-		if (rankRepository.count() == 0) {
+		if (rankStore.isEmpty()) {
 			return;
 		}
 		Set<Long> touched = Arrays.stream(ids)
@@ -174,7 +193,8 @@ public class IngestionService {
 		if (touched.isEmpty()) {
 			return;
 		}
-		pageRankService.runIncrementalUpdate(touched);
+		// Se agrupa con otros cambios y corre en segundo plano tras el commit.
+		incrementalScheduler.enqueue(touched);
 	}
 
 	public record PersonObservation(String name, double spamScore, Instant observedAt) {
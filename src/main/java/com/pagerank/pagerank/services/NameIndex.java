@@ -0,0 +1,265 @@
+package com.pagerank.pagerank.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Indice de trigramas sobre los nombres de las personas para la busqueda por subcadena.
+ * <p>
+ * Cada trigrama del nombre en minusculas apunta a una lista de personas ordenada por score
+ * (las que no tienen rank van al final). Una consulta recorre la lista mas corta de sus trigramas
+ * en ese orden, verifica la subcadena completa y corta apenas junta K resultados. Consultas de
+ * menos de tres caracteres recorren el orden global por score con el mismo corte temprano.
+ * <p>
+ * {@link RankSnapshots} lo refresca al publicar cada snapshot: ahi se recalcula el orden global y se
+ * reordenan todas las listas, fuera del camino de la busqueda. Una consulta solo trae las personas
+ * dadas de alta desde entonces, que sin rank van al final y no desordenan nada.
+ */
+@Component
+public class NameIndex {
+
+	private static final int GRAM = 3;
+
+	private final GraphStore graphStore;
+
+	private long nodesVersion = -1;
+	private long scoresVersion = -1;
+
+	private int size;
+	private long[] ids = new long[0];
+	private String[] names = new String[0];
+	private String[] keys = new String[0];
+	private double[] scores = new double[0];
+	/** Slots ordenados por score descendente y la posicion de cada slot en ese orden. */
+	private int[] order = new int[0];
+	private int[] position = new int[0];
+	private final Map<Long, Posting> postings = new HashMap<>();
+
+	public NameIndex(GraphStore graphStore) {
+		this.graphStore = graphStore;
+	}
+
+	/**
+	 * Sincroniza el indice con un snapshot recien publicado y reordena las listas si hace falta.
+	 *
+	 * @param ranks snapshot publicado.
+	 */
+	public synchronized void refresh(RankSnapshot ranks) {
+		sync(ranks);
+	}
+
+	/**
+	 * Personas cuyo nombre contiene el texto (sin distinguir mayusculas), de mayor a menor score.
+	 *
+	 * @param ranks snapshot de scores con el que se ordena y se informa cada resultado.
+	 * @param query texto a buscar; nulo o vacio devuelve el top por score.
+	 * @param limit cantidad maxima de resultados.
+	 * @return coincidencias ordenadas por score.
+	 */
+	public synchronized List<Match> search(RankSnapshot ranks, String query, int limit) {
+		sync(ranks);
+		String needle = normalize(query);
+		int effectiveLimit = Math.max(limit, 1);
+		List<Match> result = new ArrayList<>(Math.min(effectiveLimit, size));
+		if (needle.length() < GRAM) {
+			for (int i = 0; i < size && result.size() < effectiveLimit; i++) {
+				collect(order[i], needle, result);
+			}
+			return result;
+		}
+		Posting shortest = null;
+		for (int i = 0; i + GRAM <= needle.length(); i++) {
+			Posting posting = postings.get(gram(needle, i));
+			if (posting == null) {
+				return result;
+			}
+			if (shortest == null || posting.size < shortest.size) {
+				shortest = posting;
+			}
+		}
+		for (int i = 0; i < shortest.size && result.size() < effectiveLimit; i++) {
+			collect(shortest.slots[i], needle, result);
+		}
+		return result;
+	}
+
+	private void collect(int slot, String needle, List<Match> result) {
+		if (needle.isEmpty() || keys[slot].contains(needle)) {
+			double score = scores[slot];
+			boolean ranked = !Double.isNaN(score);
+			result.add(new Match(ids[slot], names[slot], ranked ? score : 0.0, ranked));
+		}
+	}
+
+	/**
+	 * Trae personas nuevas o renombradas y los scores del snapshot si cambio de version. Altas sin
+	 * rank con el mismo snapshot se agregan al final del orden; el resto recalcula el orden entero.
+	 */
+	private void sync(RankSnapshot ranks) {
+		long currentNodes = graphStore.nodesVersion();
+		boolean reorder = ranks.version() != scoresVersion;
+		if (currentNodes != nodesVersion) {
+			// La version se lee antes de copiar: un alta concurrente solo provoca otra sincronizacion.
+			nodesVersion = currentNodes;
+			List<GraphStore.Node> nodes = graphStore.nodes();
+			int indexed = size;
+			if (!extendsIndexed(nodes)) {
+				clear();
+				indexed = 0;
+				reorder = true;
+			}
+			for (int i = size; i < nodes.size(); i++) {
+				append(nodes.get(i));
+			}
+			scores = Arrays.copyOf(scores, size);
+			for (int i = indexed; i < size; i++) {
+				scores[i] = ranks.scoreOf(ids[i]);
+				reorder |= !Double.isNaN(scores[i]);
+			}
+			if (!reorder) {
+				// Sin rank y con slots mayores: su lugar es el final del orden y de cada lista.
+				order = Arrays.copyOf(order, size);
+				position = Arrays.copyOf(position, size);
+				for (int i = indexed; i < size; i++) {
+					order[i] = i;
+					position[i] = i;
+				}
+			}
+		}
+		if (reorder) {
+			scoresVersion = ranks.version();
+			scores = new double[size];
+			for (int i = 0; i < size; i++) {
+				scores[i] = ranks.scoreOf(ids[i]);
+			}
+			rank();
+			for (Posting posting : postings.values()) {
+				sort(posting);
+			}
+		}
+	}
+
+	private boolean extendsIndexed(List<GraphStore.Node> nodes) {
+		if (nodes.size() < size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			GraphStore.Node node = nodes.get(i);
+			if (node.id() != ids[i] || !Objects.equals(node.name(), names[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void clear() {
+		size = 0;
+		postings.clear();
+	}
+
+	private void append(GraphStore.Node node) {
+		if (size == ids.length) {
+			int capacity = Math.max(16, size * 2);
+			ids = Arrays.copyOf(ids, capacity);
+			names = Arrays.copyOf(names, capacity);
+			keys = Arrays.copyOf(keys, capacity);
+		}
+		int slot = size++;
+		ids[slot] = node.id();
+		names[slot] = node.name();
+		keys[slot] = normalize(node.name());
+		String key = keys[slot];
+		for (int i = 0; i + GRAM <= key.length(); i++) {
+			Posting posting = postings.computeIfAbsent(gram(key, i), g -> new Posting());
+			if (posting.size == 0 || posting.slots[posting.size - 1] != slot) {
+				posting.add(slot); // un trigrama repetido en el nombre entra una sola vez
+			}
+		}
+	}
+
+	/**
+	 * Orden global por score (sin rank al final, empates por slot) y posicion de cada slot. Todo en
+	 * arreglos primitivos: cada score se reemplaza por su puesto entre los valores distintos y el
+	 * par (puesto, slot) se empaqueta en un long, asi un solo {@code Arrays.sort} resuelve los empates.
+	 */
+	private void rank() {
+		double[] distinct = new double[size];
+		for (int i = 0; i < size; i++) {
+			distinct[i] = sortKey(scores[i]);
+		}
+		Arrays.sort(distinct);
+		int unique = 0;
+		for (int i = 0; i < size; i++) {
+			if (unique == 0 || Double.compare(distinct[i], distinct[unique - 1]) != 0) {
+				distinct[unique++] = distinct[i];
+			}
+		}
+		long[] packed = new long[size];
+		for (int slot = 0; slot < size; slot++) {
+			long place = unique - 1 - Arrays.binarySearch(distinct, 0, unique, sortKey(scores[slot]));
+			packed[slot] = (place << 32) | slot;
+		}
+		Arrays.sort(packed);
+		order = new int[size];
+		position = new int[size];
+		for (int i = 0; i < size; i++) {
+			int slot = (int) packed[i];
+			order[i] = slot;
+			position[slot] = i;
+		}
+	}
+
+	/** Reordena la lista con el orden global: posiciones primitivas, sin comparadores. */
+	private void sort(Posting posting) {
+		int[] slots = posting.slots;
+		for (int i = 0; i < posting.size; i++) {
+			slots[i] = position[slots[i]];
+		}
+		Arrays.sort(slots, 0, posting.size);
+		for (int i = 0; i < posting.size; i++) {
+			slots[i] = order[slots[i]];
+		}
+	}
+
+	private static double sortKey(double score) {
+		return Double.isNaN(score) ? Double.NEGATIVE_INFINITY : score;
+	}
+
+	private static long gram(String key, int start) {
+		return ((long) key.charAt(start) << 32) | ((long) key.charAt(start + 1) << 16) | key.charAt(start + 2);
+	}
+
+	private static String normalize(String text) {
+		return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static final class Posting {
+		private int[] slots = new int[4];
+		private int size;
+
+		private void add(int slot) {
+			if (size == slots.length) {
+				slots = Arrays.copyOf(slots, size * 2);
+			}
+			slots[size++] = slot;
+		}
+	}
+
+	/**
+	 * Persona encontrada.
+	 *
+	 * @param personId id de la persona.
+	 * @param name nombre tal como esta guardado.
+	 * @param score score actual (0 si aun no tiene rank).
+	 * @param ranked si tiene rank calculado.
+	 */
+	public record Match(long personId, String name, double score, boolean ranked) {
+	}
+}
@@ -1,5 +1,7 @@
 package com.pagerank.pagerank.services;
 
+import java.util.Optional;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.ApplicationArguments;
@@ -20,23 +22,36 @@ public class PageRankBootstrapper implements ApplicationRunner {
 	private final PageRankService pageRankService;
 	private final PersonRepository personRepository;
 	private final RankRepository rankRepository;
+	private final GraphStore graphStore;
+	private final RankSnapshots rankSnapshots;
 
 	public PageRankBootstrapper(
 			PageRankService pageRankService,
 			PersonRepository personRepository,
-			RankRepository rankRepository) {
+			RankRepository rankRepository,
+			GraphStore graphStore,
+			RankSnapshots rankSnapshots) {
 		this.pageRankService = pageRankService;
 		this.personRepository = personRepository;
 		this.rankRepository = rankRepository;
+		this.graphStore = graphStore;
+		this.rankSnapshots = rankSnapshots;
 	}
 
 	/**
-	 * Ejecuta el PageRank batch inicial si hay personas y todavia no existen ranks.
+	 * Publica los scores del snapshot en disco si el grafo arranco desde ahi; si no, ejecuta el
+	 * PageRank batch inicial cuando hay personas y todavia no existen ranks.
 	 *
 	 * @param args argumentos de arranque de la aplicacion.
 	 */
 	@Override
 	public void run(ApplicationArguments args) {
+		Optional<GraphSnapshotFile.Snapshot> restored = graphStore.takeRestoredSnapshot();
+		if (restored.isPresent()) {
+			rankSnapshots.publish(restored.get().graph(), restored.get().scores());
+			log.info("Skipping PageRank batch: scores restored from graph snapshot file");
+			return;
+		}
 		long personCount = personRepository.count();
 		if (personCount == 0) {
 			log.info("Skipping PageRank batch: no persons stored yet");
@@ -0,0 +1,223 @@
+package com.pagerank.pagerank.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.springframework.stereotype.Component;
+
+import com.pagerank.pagerank.domain.model.PageRankResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Metricas Micrometer de las corridas de PageRank, la ingesta y la busqueda, expuestas en
+ * {@code /actuator/prometheus}.
+ * <p>
+ * Cada corrida se cronometra por fase con {@link #start(String)}: {@code pagerank.run.phase}
+ * (etiquetas {@code mode} y {@code phase}) mas el total en {@code pagerank.run}. Los contadores
+ * acumulan aristas visitadas, iteraciones y filas de rank reescritas por modo; las tasas
+ * (aristas/s, lineas/s) salen de {@code rate()} en Prometheus.
+ */
+@Component
+public class PageRankMetrics {
+
+	private final MeterRegistry registry;
+
+	public PageRankMetrics(MeterRegistry registry, CollectionWindowCache windowCache) {
+		this.registry = registry;
+		dedupCounter(windowCache, "hit", CollectionWindowCache.Stats::hits);
+		dedupCounter(windowCache, "miss", CollectionWindowCache.Stats::misses);
+		dedupCounter(windowCache, "expired", CollectionWindowCache.Stats::expired);
+		Gauge.builder("pagerank.ingest.dedup.size", windowCache, cache -> cache.stats().size())
+				.description("Entradas en el cache de la ventana de recoleccion")
+				.register(registry);
+	}
+
+	/**
+	 * Empieza a cronometrar una corrida.
+	 *
+	 * @param mode {@code batch} o {@code incremental}.
+	 * @return cronometro de la corrida; cada {@link Run#lap(Phase)} cierra una fase.
+	 */
+	public Run start(String mode) {
+		return new Run(mode);
+	}
+
+	/**
+	 * Cuenta un incremental que termino corriendo como batch.
+	 *
+	 * @param reason {@code no-ranks} (sin ranks previos), {@code planner} (el planificador eligio batch) o
+	 *        {@code checkpoint} (hay un batch cortado por {@code Z} pendiente).
+	 */
+	public void incrementalFallback(String reason) {
+		Counter.builder("pagerank.incremental.fallbacks")
+				.description("Incrementales resueltos con un batch completo")
+				.tag("reason", reason)
+				.register(registry)
+				.increment();
+	}
+
+	/**
+	 * Registra un lote de la ingesta masiva.
+	 *
+	 * @param batch resumen del lote.
+	 */
+	public void ingestBatch(BulkIngestionService.BatchSummary batch) {
+		Timer.builder("pagerank.ingest.batch")
+				.description("Duracion de cada lote de /api/ingest")
+				.register(registry)
+				.record(batch.elapsedMillis(), TimeUnit.MILLISECONDS);
+		ingestLines("created", batch.personsCreated() + batch.followsCreated());
+		ingestLines("updated", batch.personsUpdated() + batch.followsUpdated());
+		ingestLines("unchanged", batch.unchanged());
+		ingestLines("rejected", batch.rejected());
+		ingestLines("malformed", batch.malformed());
+	}
+
+	/**
+	 * Registra la latencia de una busqueda.
+	 *
+	 * @param query texto buscado (vacio = top por score).
+	 * @param nanos duracion en nanosegundos.
+	 */
+	public void search(String query, long nanos) {
+		Timer.builder("pagerank.search")
+				.description("Latencia de la busqueda por nombre y score")
+				.tag("kind", query == null || query.isBlank() ? "top" : "name")
+				.register(registry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void ingestLines(String outcome, long lines) {
+		if (lines > 0) {
+			Counter.builder("pagerank.ingest.lines")
+					.description("Lineas procesadas por /api/ingest")
+					.tag("outcome", outcome)
+					.register(registry)
+					.increment(lines);
+		}
+	}
+
+	private void dedupCounter(CollectionWindowCache windowCache, String result,
+			ToLongFunction<CollectionWindowCache.Stats> value) {
+		FunctionCounter.builder("pagerank.ingest.dedup", windowCache, cache -> value.applyAsLong(cache.stats()))
+				.description("Consultas al cache de la ventana de recoleccion")
+				.tag("result", result)
+				.register(registry);
+	}
+
+	private Counter runCounter(String name, String description, String mode) {
+		return Counter.builder(name).description(description).tag("mode", mode).register(registry);
+	}
+
+	/**
+	 * Fases de una corrida de PageRank.
+	 */
+	public enum Phase {
+		/** Carga del grafo residente desde SQLite (solo si se invalido). */
+		LOAD,
+		/** Armado (o reuso) del snapshot CSR del grafo residente. */
+		BUILD,
+		/** Decision incremental/batch del planificador. */
+		PLAN,
+		/** Residuo exacto del motor incremental, O(E). */
+		RESIDUAL,
+		/** Iteraciones del motor. */
+		SOLVE,
+		/** Escritura de ranks en SQLite. */
+		PERSIST,
+		/** Indice de aportantes. */
+		INDEX,
+		/** Publicacion del snapshot de scores. */
+		PUBLISH;
+
+		public String label() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	/**
+	 * Cronometro de una corrida: cada vuelta registra el tiempo desde la anterior como una fase.
+	 */
+	public final class Run {
+
+		private final String mode;
+		private final Instant startedAt = Instant.now();
+		private final long start;
+		private final Map<String, Duration> phases = new LinkedHashMap<>();
+		private long lapStart;
+
+		private Run(String mode) {
+			this.mode = mode;
+			this.start = System.nanoTime();
+			this.lapStart = start;
+		}
+
+		public Instant startedAt() {
+			return startedAt;
+		}
+
+		/**
+		 * Tiempo desde el inicio de la corrida.
+		 *
+		 * @return duracion transcurrida.
+		 */
+		public Duration total() {
+			return Duration.ofNanos(System.nanoTime() - start);
+		}
+
+		/**
+		 * Fases cerradas hasta ahora, en orden de ejecucion.
+		 *
+		 * @return copia inmutable fase -> duracion.
+		 */
+		public Map<String, Duration> phases() {
+			return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+		}
+
+		/**
+		 * Cierra una fase con el tiempo transcurrido desde la fase anterior (o el inicio).
+		 *
+		 * @param phase fase que termina.
+		 */
+		public void lap(Phase phase) {
+			long now = System.nanoTime();
+			Timer.builder("pagerank.run.phase")
+					.description("Duracion de cada fase de una corrida de PageRank")
+					.tag("mode", mode)
+					.tag("phase", phase.label())
+					.register(registry)
+					.record(now - lapStart, TimeUnit.NANOSECONDS);
+			phases.merge(phase.label(), Duration.ofNanos(now - lapStart), Duration::plus);
+			lapStart = now;
+		}
+
+		/**
+		 * Registra el total de la corrida y su trabajo.
+		 *
+		 * @param result resultado de la corrida.
+		 */
+		public void finish(PageRankResult result) {
+			Timer.builder("pagerank.run")
+					.description("Duracion total de una corrida de PageRank")
+					.tag("mode", mode)
+					.tag("solver", result.solver())
+					.tag("converged", Boolean.toString(result.converged()))
+					.register(registry)
+					.record(result.total());
+			runCounter("pagerank.edge.visits", "Aristas recorridas por los motores", mode).increment(result.edgeVisits());
+			runCounter("pagerank.iterations", "Iteraciones (o pushes) de los motores", mode).increment(result.iterations());
+			runCounter("pagerank.nodes.updated", "Filas de rank reescritas", mode).increment(result.rowsWritten());
+		}
+	}
+}
@@ -1,98 +1,287 @@
 package com.pagerank.pagerank.services;
 
+import java.io.IOException;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import com.pagerank.pagerank.domain.model.Follow;
 import com.pagerank.pagerank.domain.model.PageRankResult;
-import com.pagerank.pagerank.domain.model.Person;
-import com.pagerank.pagerank.domain.model.Rank;
-import com.pagerank.pagerank.domain.model.RankDelta;
-import com.pagerank.pagerank.domain.repository.FollowRepository;
-import com.pagerank.pagerank.domain.repository.PersonRepository;
-import com.pagerank.pagerank.domain.repository.RankDeltaRepository;
-import com.pagerank.pagerank.domain.repository.RankRepository;
+import com.pagerank.pagerank.engine.AdaptivePowerIteration;
+import com.pagerank.pagerank.engine.CompactPowerIteration;
+import com.pagerank.pagerank.engine.ComputationOutcome;
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.DenseKernels;
+import com.pagerank.pagerank.engine.GaussSeidelIteration;
+import com.pagerank.pagerank.engine.OffHeapPowerIteration;
+import com.pagerank.pagerank.engine.ParallelPowerIteration;
+import com.pagerank.pagerank.engine.PowerIteration;
+import com.pagerank.pagerank.engine.ResidualPush;
+import com.pagerank.pagerank.engine.ScoreStorage;
+import com.pagerank.pagerank.engine.SolverMode;
+import com.pagerank.pagerank.engine.WeightPrecision;
 import com.pagerank.pagerank.settings.PagerankSettingsProperties;
 
+import jakarta.annotation.PreDestroy;
+
 @Service
 public class PageRankService {
 
 	private static final Logger log = LoggerFactory.getLogger(PageRankService.class);
-
-	private final PersonRepository personRepository;
-	private final FollowRepository followRepository;
-	private final RankRepository rankRepository;
-	private final RankDeltaRepository rankDeltaRepository;
+	private static final String INCREMENTAL_SOLVER = "residual-push";
+
+	private final GraphStore graphStore;
+	private final RankStore rankStore;
+	private final UpdatePlanner planner;
+	private final ContributorIndex contributorIndex;
+	private final RankSnapshots rankSnapshots;
+	private final GraphSnapshotFile snapshotFile;
+	private final PageRankMetrics metrics;
 	private final PagerankSettingsProperties settings;
 	private final AtomicReference<PageRankResult> lastResult = new AtomicReference<>();
+	// Ultimas corridas, la mas nueva primero; acotada a RUN_HISTORY_SIZE.
+	private final Deque<PageRankResult> history = new ArrayDeque<>();
+	// Vector de un batch cortado por Z, para seguirlo en la proxima ventana (BATCH_RESUME).
+	private final AtomicReference<BatchCheckpoint> checkpoint = new AtomicReference<>();
+	private volatile Runnable checkpointListener = () -> {
+	};
+	private final ForkJoinPool batchPool;
+	private final Map<SolverMode, PowerIteration> batchSolvers = new EnumMap<>(SolverMode.class);
+	private final ResidualPush incrementalSolver;
+	// Estado del motor por residuos: estimado + residuo por nodo, valido mientras no cambie la generacion de RankStore.
+	private final Object residualLock = new Object();
+	private ResidualPush.State residualState;
+	private long residualGeneration;
 
 	public PageRankService(
-			PersonRepository personRepository,
-			FollowRepository followRepository,
-			RankRepository rankRepository,
-			RankDeltaRepository rankDeltaRepository,
+			GraphStore graphStore,
+			RankStore rankStore,
+			UpdatePlanner planner,
+			ContributorIndex contributorIndex,
+			RankSnapshots rankSnapshots,
+			GraphSnapshotFile snapshotFile,
+			PageRankMetrics metrics,
 			PagerankSettingsProperties settings) {
-		this.personRepository = personRepository;
-		this.followRepository = followRepository;
-		this.rankRepository = rankRepository;
-		this.rankDeltaRepository = rankDeltaRepository;
+		this.graphStore = graphStore;
+		this.rankStore = rankStore;
+		this.planner = planner;
+		this.contributorIndex = contributorIndex;
+		this.rankSnapshots = rankSnapshots;
+		this.snapshotFile = snapshotFile;
+		this.metrics = metrics;
 		this.settings = settings;
+		int threads = settings.batchThreads() > 0 ? settings.batchThreads() : Runtime.getRuntime().availableProcessors();
+		this.batchPool = threads > 1 ? new ForkJoinPool(threads) : null;
+		DenseKernels kernels = DenseKernels.select(settings.vectorize());
+		if (settings.vectorize() && kernels == DenseKernels.SCALAR) {
+			log.warn("VECTORIZE requested but {} is not loaded (start the JVM with --add-modules {}) or the build "
+					+ "skipped the SIMD kernels (-Pscalar); using scalar loops", DenseKernels.VECTOR_MODULE,
+					DenseKernels.VECTOR_MODULE);
+		}
+		if (settings.weightPrecision() != WeightPrecision.DOUBLE) {
+			batchSolvers.put(SolverMode.JACOBI, new CompactPowerIteration(settings.damping(), settings.epsilon(),
+					settings.weightPrecision(), batchPool));
+		}
+		else if (settings.storage() == ScoreStorage.OFF_HEAP) {
+			batchSolvers.put(SolverMode.JACOBI, new OffHeapPowerIteration(settings.damping(), settings.epsilon(), batchPool));
+		}
+		else if (batchPool != null) {
+			batchSolvers.put(SolverMode.JACOBI, new ParallelPowerIteration(settings.damping(), settings.epsilon(), batchPool,
+					kernels));
+		}
+		else {
+			batchSolvers.put(SolverMode.JACOBI, new PowerIteration(settings.damping(), settings.epsilon(), kernels));
+		}
+		batchSolvers.put(SolverMode.GAUSS_SEIDEL, new GaussSeidelIteration(settings.damping(), settings.epsilon()));
+		batchSolvers.put(SolverMode.ADAPTIVE,
+				new AdaptivePowerIteration(settings.damping(), settings.epsilon(), settings.adaptiveFreezeRatio()));
+		this.incrementalSolver = new ResidualPush(settings.damping(), settings.epsilon(), kernels);
+		log.info("PageRank batch solver: {} (jacobi on {} threads, {} storage, {} weights, {} loops)",
+				settings.batchSolver().label(), threads, settings.storage().label(), settings.weightPrecision().label(),
+				kernels.label());
+	}
+
+	@PreDestroy
+	void shutdown() {
+		if (batchPool != null) {
+			batchPool.shutdownNow();
+		}
+		if (batchSolvers.get(SolverMode.JACOBI) instanceof OffHeapPowerIteration offHeap) {
+			offHeap.close();
+		}
+		// Deja en disco el grafo con los ultimos incrementales para el proximo arranque.
+		RankSnapshot ranks = rankSnapshots.current();
+		CsrGraph graph = graphStore.snapshot();
+		double[] scores = new double[graph.nodeCount()];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = ranks.scoreOf(graph.idAt(i));
+		}
+		dumpSnapshot(graph, scores);
+	}
+
+	/**
+	 * Guarda el grafo y sus scores en el snapshot binario si el grafo sigue siendo el de la base.
+	 *
+	 * @param graph grafo de la corrida.
+	 * @param scores scores indexados como el grafo (NaN si no tiene rank).
+	 * @return true si se escribio el archivo.
+	 */
+	public boolean dumpSnapshot(CsrGraph graph, double[] scores) {
+		if (!snapshotFile.enabled()) {
+			return false;
+		}
+		// La huella se toma con el grafo quieto: si algo lo parcheo en el medio, el archivo podria no coincidir.
+		long version = graphStore.version();
+		if (graphStore.snapshot() != graph) {
+			return false;
+		}
+		// Con los follows de calidad 0 (mismos indices de nodo) para que al restaurar sigan en /api/graph.
+		CsrGraph stored = graphStore.storedGraph();
+		GraphSnapshotFile.Fingerprint fingerprint = snapshotFile.fingerprint();
+		if (graphStore.version() != version) {
+			return false;
+		}
+		try {
+			long start = System.nanoTime();
+			snapshotFile.write(fingerprint, stored, graphStore.names(graph), scores);
+			log.info("Graph snapshot written: nodes={}, edges={}, elapsed={} ms", stored.nodeCount(), stored.edgeCount(),
+					(System.nanoTime() - start) / 1_000_000);
+			return true;
+		}
+		catch (IOException | RuntimeException ex) {
+			log.warn("Could not write graph snapshot", ex);
+			return false;
+		}
+	}
+
+	/**
+	 * Registra quien agenda la proxima ventana cuando un batch queda guardado a mitad de camino.
+	 *
+	 * @param listener se invoca tras confirmar la transaccion del batch cortado.
+	 */
+	public void onBatchCheckpoint(Runnable listener) {
+		this.checkpointListener = listener;
 	}
 
 	@Transactional
 	public PageRankResult runBatchComputation() {
-		// Ejecuta PageRank completo (batch) sobre todo el grafo con un vector uniforme inicial.
-		GraphSnapshot snapshot = snapshotGraph();
+		// Un batch pendiente sigue con su solver aunque haya cambiado el default.
+		BatchCheckpoint pending = checkpoint.get();
+		return runBatchComputation(pending != null ? pending.solverMode() : settings.batchSolver());
+	}
+
+	/**
+	 * Sigue el batch que corto el limite {@code Z}, si hay uno guardado.
+	 *
+	 * @return resultado de la nueva ventana, o vacio si no habia batch pendiente.
+	 */
+	@Transactional
+	public Optional<PageRankResult> resumeBatchComputation() {
+		BatchCheckpoint pending = checkpoint.get();
+		return pending != null ? Optional.of(runBatchComputation(pending.solverMode())) : Optional.empty();
+	}
+
+	@Transactional
+	public PageRankResult runBatchComputation(SolverMode solverMode) {
+		// Ejecuta PageRank completo (batch) sobre todo el grafo: desde un vector uniforme, o desde el
+		// checkpoint si un batch anterior quedo cortado por Z.
+		PageRankMetrics.Run run = metrics.start("batch");
+		CsrGraph snapshot = loadSnapshot(run);
+		// El checkpoint se reemplaza (o se borra) recien al confirmar: si la ventana se revierte, sigue pendiente.
+		// Solo se continua con el mismo solver; un batch pedido con otro descarta el vector a medias.
+		BatchCheckpoint pending = checkpoint.get();
+		BatchCheckpoint resumed = pending != null && pending.solverMode() == solverMode ? pending : null;
 		if (snapshot.nodeCount() == 0) {
-			PageRankResult empty = new PageRankResult("batch", 0, 0.0, 0, true, false, Duration.ZERO);
-			lastResult.set(empty);
+			publishCheckpoint(pending, null);
+			PageRankResult empty = new PageRankResult("batch", solverMode.label(), 0, 0.0, 0, true, false, Duration.ZERO, 0, null, 0,
+					run.startedAt(), run.total(), run.phases());
+			remember(empty);
 			return empty;
 		}
 
-		ComputationOutcome outcome = compute(snapshot, null, settings.maxIters(), settings.maxUpdateDuration());
-		persistRanks(snapshot.persons(), outcome.scores());
-
-		log.info("PageRank batch completed: nodes={}, iterations={}, avgDelta={}, converged={}, elapsed={} ms",
+		// Sin checkpoint arranca uniforme; con checkpoint sigue desde su vector con las iteraciones que quedan.
+		double[] initial = resumed != null ? resumed.scoresFor(snapshot) : null;
+		int previousIterations = resumed != null ? resumed.iterations() : 0;
+		int remaining = resumed != null ? resumed.remainingIterations(settings.maxIters()) : settings.maxIters();
+		ComputationOutcome outcome = batchSolvers.get(solverMode).compute(snapshot, initial, remaining,
+				settings.maxUpdateDuration());
+		run.lap(PageRankMetrics.Phase.SOLVE);
+		BatchCheckpoint saved = null;
+		if (outcome.timeLimited() && settings.batchResume()) {
+			saved = resumed != null
+					? resumed.next(snapshot, outcome.scores(), outcome.iterations())
+					: BatchCheckpoint.of(snapshot, solverMode, outcome.scores(), outcome.iterations());
+		}
+		publishCheckpoint(pending, saved);
+		int rowsWritten = persistRanks(snapshot, outcome.scores());
+		run.lap(PageRankMetrics.Phase.PERSIST);
+		rebaseResidualState(snapshot, outcome.scores());
+		run.lap(PageRankMetrics.Phase.RESIDUAL);
+		contributorIndex.rebuild(snapshot, outcome.scores());
+		run.lap(PageRankMetrics.Phase.INDEX);
+		rankSnapshots.publish(snapshot, outcome.scores());
+		dumpSnapshotAfterCommit(snapshot, outcome.scores());
+		run.lap(PageRankMetrics.Phase.PUBLISH);
+
+		PageRankResult result = new PageRankResult("batch", solverMode.label(), outcome.iterations(), outcome.averageDelta(),
+				snapshot.nodeCount(), outcome.converged(), outcome.timeLimited(), outcome.elapsed(), outcome.edgeVisits(),
+				null, rowsWritten, run.startedAt(), run.total(), run.phases());
+		log.info("PageRank batch completed: solver={}, nodes={}, iterations={} (+{} resumed), edgeVisits={}, avgDelta={}, converged={}, timeLimited={}, elapsed={} ms, rowsWritten={}, phases={}",
+				solverMode.label(),
 				snapshot.nodeCount(),
 				outcome.iterations(),
+				previousIterations,
+				outcome.edgeVisits(),
 				String.format(Locale.US, "%.6f", outcome.averageDelta()),
 				outcome.converged(),
-				outcome.elapsed().toMillis());
+				outcome.timeLimited(),
+				outcome.elapsed().toMillis(),
+				rowsWritten,
+				formatPhases(result));
 
-		PageRankResult result = new PageRankResult("batch", outcome.iterations(), outcome.averageDelta(),
-				snapshot.nodeCount(), outcome.converged(), outcome.timeLimited(), outcome.elapsed());
-		lastResult.set(result);
+		planner.record(result, 0);
+		run.finish(result);
+		remember(result);
 		return result;
 	}
 
 	@Transactional
 	public PageRankResult runIncrementalUpdate(Iterable<Long> touchedPersonIds) {
 		// Ejecuta PageRank incremental si ya existen ranks; si no, cae a batch.
-		if (rankRepository.count() == 0) {
+		if (rankStore.isEmpty()) {
 			log.info("No ranks stored yet, running full batch instead of incremental");
+			metrics.incrementalFallback("no-ranks");
+			return runBatchComputation();
+		}
+		if (checkpoint.get() != null) {
+			// Los ranks son de un batch a medias: esta ventana lo sigue y el proximo batch incluye los cambios.
+			log.info("Resuming time-limited batch instead of incremental");
+			metrics.incrementalFallback("checkpoint");
 			return runBatchComputation();
 		}
-		GraphSnapshot snapshot = snapshotGraph();
+		PageRankMetrics.Run run = metrics.start("incremental");
+		CsrGraph snapshot = loadSnapshot(run);
 		if (snapshot.nodeCount() == 0) {
-			PageRankResult empty = new PageRankResult("incremental", 0, 0.0, 0, true, false, Duration.ZERO);
-			lastResult.set(empty);
+			PageRankResult empty = new PageRankResult("incremental", INCREMENTAL_SOLVER, 0, 0.0, 0, true, false, Duration.ZERO, 0, null, 0,
+					run.startedAt(), run.total(), run.phases());
+			remember(empty);
 			return empty;
 		}
 
@@ -104,31 +293,60 @@ public class PageRankService {
 				}
 			});
 		}
-		// Expand touched to neighbors so local changes propagate in a small subgraph.
-		Set<Long> expanded = expandTouchedWithNeighbors(snapshot, touched);
-		double ratio = snapshot.nodeCount() == 0 ? 0.0 : (double) touched.size() / snapshot.nodeCount();
-		double expandedRatio = snapshot.nodeCount() == 0 ? 0.0 : (double) expanded.size() / snapshot.nodeCount();
-		boolean tooLarge = ratio > 0.4 || (expandedRatio > 0.6 && touched.size() > 10);
-		if (tooLarge) {
-			log.info("Touched ratio {} (expanded {}) too high, running full batch", ratio, expandedRatio);
+		// Los ids del llamador pueden no incluir todo origen parcheado: se suman los que anoto el store.
+		CsrGraph residualGraph;
+		boolean residualReady;
+		synchronized (residualLock) {
+			residualGraph = residualState != null ? residualState.graph() : null;
+			residualReady = residualState != null && residualGeneration == rankStore.generation();
+		}
+		graphStore.changedSources(residualGraph, snapshot).ifPresent(touched::addAll);
+		UpdatePlanner.Plan plan = planner.plan(snapshot, touched, residualReady);
+		run.lap(PageRankMetrics.Phase.PLAN);
+		if (plan.strategy() == UpdatePlanner.Strategy.BATCH) {
+			log.info("Planner chose full batch for {} touched nodes: {}", touched.size(), plan.reason());
+			metrics.incrementalFallback("planner");
 			return runBatchComputation();
 		}
-
-		double[] initialScores = buildInitialScores(snapshot);
-		ComputationOutcome outcome = computeIncremental(snapshot, initialScores, expanded, settings.maxUpdateDuration());
-		persistRanks(snapshot.persons(), outcome.scores());
-
-		log.info("Incremental PageRank executed for {} touched nodes -> updates={}, avgDelta={}, elapsed={} ms (converged={}, timeLimited={})",
+		log.debug("Planner chose incremental for {} touched nodes: {}", touched.size(), plan.reason());
+
+		ComputationOutcome outcome;
+		int rowsWritten;
+		synchronized (residualLock) {
+			if (residualState == null || residualGeneration != rankStore.generation()) {
+				// Sin estado vigente: residuo exacto desde los ranks persistidos, ya contra el grafo nuevo.
+				rebaseResidualState(snapshot, buildInitialScores(snapshot));
+				run.lap(PageRankMetrics.Phase.RESIDUAL);
+			}
+			Set<Long> changedSources = graphStore.changedSources(residualState.graph(), snapshot).orElse(null);
+			outcome = incrementalSolver.compute(residualState, snapshot, changedSources, settings.maxUpdateDuration());
+			run.lap(PageRankMetrics.Phase.SOLVE);
+			rowsWritten = persistRanks(snapshot, outcome.scores());
+			run.lap(PageRankMetrics.Phase.PERSIST);
+		}
+		contributorIndex.refresh(snapshot, outcome.scores(), touched);
+		run.lap(PageRankMetrics.Phase.INDEX);
+		rankSnapshots.publish(snapshot, outcome.scores());
+		run.lap(PageRankMetrics.Phase.PUBLISH);
+
+		PageRankResult result = new PageRankResult("incremental", INCREMENTAL_SOLVER, outcome.iterations(),
+				outcome.averageDelta(), snapshot.nodeCount(), outcome.converged(), outcome.timeLimited(), outcome.elapsed(),
+				outcome.edgeVisits(), outcome.errorBound(), rowsWritten, run.startedAt(), run.total(), run.phases());
+		log.info("Incremental PageRank executed for {} touched nodes -> pushes={}, edgeVisits={}, avgDelta={}, errorBound={}, elapsed={} ms (converged={}, timeLimited={}), rowsWritten={}, phases={}",
 				touched.size(),
 				outcome.iterations(),
+				outcome.edgeVisits(),
 				String.format(Locale.US, "%.6f", outcome.averageDelta()),
+				String.format(Locale.US, "%.3e", outcome.errorBound()),
+				outcome.elapsed().toMillis(),
 				outcome.converged(),
 				outcome.timeLimited(),
-				outcome.elapsed().toMillis());
+				rowsWritten,
+				formatPhases(result));
 
-		PageRankResult result = new PageRankResult("incremental", outcome.iterations(), outcome.averageDelta(),
-				snapshot.nodeCount(), outcome.converged(), outcome.timeLimited(), outcome.elapsed());
-		lastResult.set(result);
+		planner.record(result, plan.frontierEdges());
+		run.finish(result);
+		remember(result);
 		return result;
 	}
 
@@ -138,79 +356,94 @@ public class PageRankService {
 		return lastResult.get();
 	}
 
-	private GraphSnapshot snapshotGraph() {
-		// Captura las listas de personas, mapea id -> indice, construye matrices de adyacencia y pesos salientes.
-		List<Person> persons = personRepository.findAll();
-		int nodeCount = persons.size();
-		Map<Long, Integer> indexMap = new HashMap<>(nodeCount);
-		for (int i = 0; i < nodeCount; i++) {
-			indexMap.put(persons.get(i).getId(), i); // id de persona -> indice en vectores
+	/**
+	 * Ultimas corridas (batch e incremental), la mas nueva primero.
+	 *
+	 * @return historial acotado a {@code RUN_HISTORY_SIZE} corridas.
+	 */
+	public History getHistory() {
+		List<PageRankResult> runs;
+		synchronized (history) {
+			runs = new ArrayList<>(history);
 		}
-		List<List<Edge>> adjacency = new ArrayList<>(nodeCount);
-		List<List<Edge>> incoming = new ArrayList<>(nodeCount);
-		double[] outgoingWeight = new double[nodeCount];
-		for (int i = 0; i < nodeCount; i++) {
-			adjacency.add(new ArrayList<>());
-			incoming.add(new ArrayList<>());
-		}
-		if (nodeCount > 0) {
-			for (Follow follow : followRepository.findAll()) {
-				Integer sourceIndex = indexMap.get(follow.getSource().getId());
-				Integer targetIndex = indexMap.get(follow.getTarget().getId());
-				if (sourceIndex == null || targetIndex == null) {
-					continue;
-				}
-				double weight = Math.max(0.0, follow.getQuality()); // peso normalizado en collectFollow
-				if (weight == 0.0) {
-					continue;
-				}
-				adjacency.get(sourceIndex).add(new Edge(targetIndex, weight));
-				incoming.get(targetIndex).add(new Edge(sourceIndex, weight));
-				outgoingWeight[sourceIndex] += weight;
+		int timeLimited = 0;
+		for (PageRankResult run : runs) {
+			if (run.timeLimited()) {
+				timeLimited++;
 			}
 		}
-		return new GraphSnapshot(persons, indexMap, adjacency, incoming, outgoingWeight);
+		return new History(settings.maxUpdateDuration(), settings.runHistorySize(), timeLimited, runs);
 	}
 
-	private Set<Long> expandTouchedWithNeighbors(GraphSnapshot snapshot, Set<Long> touchedIds) {
-		if (touchedIds == null || touchedIds.isEmpty()) {
-			return Set.of();
+	private void publishCheckpoint(BatchCheckpoint pending, BatchCheckpoint saved) {
+		// Reemplaza el checkpoint con el que arranco la corrida (nulo = borrarlo) solo si la transaccion confirma.
+		if (pending == null && saved == null) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			replaceCheckpoint(pending, saved);
+			return;
 		}
-		Set<Long> result = new HashSet<>(touchedIds);
-		// Amplia el conjunto con vecinos entrantes y salientes para propagar cambios locales.
-		for (Long id : touchedIds) {
-			Integer idx = snapshot.indexMap().get(id);
-			if (idx == null) {
-				continue;
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				replaceCheckpoint(pending, saved);
 			}
-			for (Edge e : snapshot.adjacency().get(idx)) {
-				result.add(snapshot.persons().get(e.nodeIndex()).getId());
+		});
+	}
+
+	private void replaceCheckpoint(BatchCheckpoint resumed, BatchCheckpoint saved) {
+		if (!checkpoint.compareAndSet(resumed, saved)) {
+			return; // otra ventana ya lo reemplazo
+		}
+		if (saved != null) {
+			log.info("PageRank batch hit the time limit after {} iterations; checkpoint saved for the next window",
+					saved.iterations());
+			checkpointListener.run();
+		}
+	}
+
+	private void remember(PageRankResult result) {
+		lastResult.set(result);
+		synchronized (history) {
+			history.addFirst(result);
+			while (history.size() > settings.runHistorySize()) {
+				history.removeLast();
 			}
-			for (Edge e : snapshot.incoming().get(idx)) {
-				result.add(snapshot.persons().get(e.nodeIndex()).getId());
+		}
+	}
+
+	private CsrGraph loadSnapshot(PageRankMetrics.Run run) {
+		graphStore.version(); // carga el grafo residente desde SQLite si se invalido
+		run.lap(PageRankMetrics.Phase.LOAD);
+		CsrGraph snapshot = graphStore.snapshot();
+		run.lap(PageRankMetrics.Phase.BUILD);
+		return snapshot;
+	}
+
+	private static String formatPhases(PageRankResult result) {
+		StringBuilder text = new StringBuilder();
+		for (Map.Entry<String, Duration> phase : result.phases().entrySet()) {
+			if (!text.isEmpty()) {
+				text.append(' ');
 			}
+			text.append(phase.getKey()).append('=').append(String.format(Locale.US, "%.1f", phase.getValue().toNanos() / 1e6));
 		}
-		return result;
+		return text.append(" ms").toString();
 	}
 
-	private double[] buildInitialScores(GraphSnapshot snapshot) {
+	private double[] buildInitialScores(CsrGraph snapshot) {
 		int nodeCount = snapshot.nodeCount();
 		if (nodeCount == 0) {
 			return new double[0];
 		}
 
-		// Usa los ranks previos como vector inicial normalizado; si no hay, usa uniforme.
-		double[] initial = new double[nodeCount];
-		List<Rank> ranks = rankRepository.findAll();
+		// Usa los ranks previos (cache de RankStore) como vector inicial normalizado; si no hay, usa uniforme.
+		double[] initial = rankStore.scoresFor(snapshot);
 		double total = 0.0;
-		for (Rank rank : ranks) {
-			Integer index = snapshot.indexMap().get(rank.getId());
-			if (index == null) {
-				continue;
-			}
-			double score = Math.max(0.0, rank.getScore());
-			initial[index] = score;
-			total += score;
+		for (int i = 0; i < nodeCount; i++) {
+			initial[i] = Math.max(0.0, initial[i]);
+			total += initial[i];
 		}
 
 		if (total == 0.0) {
@@ -224,310 +457,44 @@ public class PageRankService {
 		return initial;
 	}
 
-	/**
-	 * Actualizacion incremental basada en deltas locales: parte del vector previo, encola nodos
-	 * tocados y vecinos, recalcula PageRank solo donde cambia, propaga si el delta es relevante
-	 * y se detiene al vaciar la cola o agotar el tiempo.
-	 */
-	private ComputationOutcome computeIncremental(
-			GraphSnapshot snapshot,
-			double[] initialScores,
-			Set<Long> seedIds,
-			Duration maxDuration) {
-		int nodeCount = snapshot.nodeCount();
-		if (nodeCount == 0) {
-			return new ComputationOutcome(new double[0], 0, 0.0, true, false, Duration.ZERO);
-		}
-		if (seedIds == null || seedIds.isEmpty()) {
-			return new ComputationOutcome(Arrays.copyOf(initialScores, nodeCount), 0, 0.0, true, false, Duration.ZERO);
-		}
-
-		double[] scores = Arrays.copyOf(initialScores, nodeCount);
-		double[] baseline = Arrays.copyOf(initialScores, nodeCount);
-		double damping = settings.damping();
-		double epsilon = settings.epsilon();
-		double teleport = (1.0 - damping) / nodeCount;
-
-		ArrayDeque<Integer> queue = new ArrayDeque<>(); // cola de nodos pendientes de recalculo
-		boolean[] enqueued = new boolean[nodeCount]; // marca para no encolar repetidos
-		for (Long id : seedIds) {
-			Integer idx = snapshot.indexMap().get(id);
-			if (idx != null && !enqueued[idx]) {
-				queue.add(idx);
-				enqueued[idx] = true;
-			}
-		}
-
-		if (queue.isEmpty()) {
-			return new ComputationOutcome(scores, 0, 0.0, true, false, Duration.ZERO);
-		}
-
-		double danglingMass = computeDanglingMass(snapshot, scores);
-		int updates = 0;
-		Instant start = Instant.now();
-		boolean timeLimited = false;
-
-		while (!queue.isEmpty()) {
-			if (maxDuration != null && Duration.between(start, Instant.now()).compareTo(maxDuration) > 0) {
-				timeLimited = true;
-				break;
-			}
-			int idx = queue.poll();
-			enqueued[idx] = false;
-
-			double oldScore = scores[idx];
-			double newScore = computeNodeScore(idx, snapshot, scores, danglingMass, teleport, damping); // PageRank local
-			double delta = newScore - oldScore; // impacto (delta) en este nodo
-			if (Math.abs(delta) < epsilon / 4) {
-				continue;
-			}
-
-			scores[idx] = newScore;
-			if (snapshot.adjacency().get(idx).isEmpty() || snapshot.outgoingWeight()[idx] == 0.0) {
-				// Ajusta masa colgante si el nodo es dangling
-				danglingMass += delta;
-			}
-
-			updates++; // cuenta cuantas recalculaciones de nodos hicimos
-			// Propaga a vecinos entrantes y salientes potencialmente afectados.
-			for (Edge edge : snapshot.adjacency().get(idx)) {
-				if (!enqueued[edge.nodeIndex()]) {
-					queue.add(edge.nodeIndex());
-					enqueued[edge.nodeIndex()] = true;
-				}
-			}
-			for (Edge edge : snapshot.incoming().get(idx)) {
-				if (!enqueued[edge.nodeIndex()]) {
-					queue.add(edge.nodeIndex());
-					enqueued[edge.nodeIndex()] = true;
-				}
-			}
-		}
-
-		// Normaliza para que la suma sea 1 y calcula delta promedio.
-		double total = 0.0;
-		for (double score : scores) {
-			total += score;
-		}
-		if (total > 0.0) {
-			for (int i = 0; i < scores.length; i++) {
-				scores[i] /= total;
-			}
-		}
-		else {
-			Arrays.fill(scores, 1.0 / nodeCount);
-		}
-
-		double avgDelta = 0.0;
-		for (int i = 0; i < scores.length; i++) {
-			avgDelta += Math.abs(scores[i] - baseline[i]);
+	private void rebaseResidualState(CsrGraph graph, double[] scores) {
+		// Un barrido O(E) para el residuo exacto; si la escritura se revierte, RankStore cambia de generacion.
+		synchronized (residualLock) {
+			residualState = incrementalSolver.initialize(graph, scores);
+			residualGeneration = rankStore.generation();
 		}
-		avgDelta /= nodeCount;
-
-		return new ComputationOutcome(scores, updates, avgDelta, queue.isEmpty(), timeLimited,
-				Duration.between(start, Instant.now()));
 	}
 
-	/**
-	 * Calcula el PageRank local de un nodo usando contribuciones entrantes,
-	 * teletransporte y masa de colgantes.
-	 */
-	private double computeNodeScore(
-			int idx,
-			GraphSnapshot snapshot,
-			double[] scores,
-			double danglingMass,
-			double teleport,
-			double damping) {
-		// Suma de contribuciones entrantes ponderadas por pesos salientes del origen.
-		double incomingSum = 0.0;
-		for (Edge edge : snapshot.incoming().get(idx)) {
-			double sourceScore = scores[edge.nodeIndex()];
-			double weightSum = snapshot.outgoingWeight()[edge.nodeIndex()];
-			if (weightSum > 0.0) {
-				incomingSum += (edge.weight() / weightSum) * sourceScore;
-			}
+	private void dumpSnapshotAfterCommit(CsrGraph graph, double[] scores) {
+		// Solo lo confirmado: la huella del archivo tiene que ser la de la base que lo acompania.
+		if (!snapshotFile.enabled()) {
+			return;
 		}
-		double danglingContribution = damping * danglingMass / snapshot.nodeCount(); // masa de colgantes redistribuida
-		return teleport + (damping * incomingSum) + danglingContribution; // teletransporte + prob transicion + colgantes
-	}
-
-	/**
-	 * Suma la probabilidad acumulada en nodos sin salidas para redistribuirla.
-	 */
-	private double computeDanglingMass(GraphSnapshot snapshot, double[] scores) {
-		// Calcula la masa en nodos sin salidas para redistribuirla.
-		double mass = 0.0;
-		for (int i = 0; i < scores.length; i++) {
-			if (snapshot.adjacency().get(i).isEmpty() || snapshot.outgoingWeight()[i] == 0.0) {
-				mass += scores[i];
-			}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			dumpSnapshot(graph, scores);
+			return;
 		}
-		return mass;
-	}
-
-	/*
-	 * Ecuacion base de PageRank:
-	 * p_{k+1} = (1-d)/N * e  +  d * (A^T * p_k + (sum_{i en D} p_k(i) / N) * e)
-	 * donde:
-	 * - N es el numero de nodos,
-	 * - d es el factor de amortiguacion,
-	 * - e es el vector de unos (aporte uniforme en cada componente),
-	 * - A usa w_ij / sum_out_i como probabilidad de transicion de i a j.
-	 * - w_ij es el peso de la arista i->j.
-	 * - sum_out_i es la suma de pesos salientes de i.
-	 * - D son los nodos colgantes y su masa se redistribuye uniforme.
-	 */
-	private ComputationOutcome compute(GraphSnapshot snapshot, double[] initialScores, int maxIterations,
-			Duration maxDuration) {
-		int nodeCount = snapshot.nodeCount();
-		if (nodeCount == 0) {
-			return new ComputationOutcome(new double[0], 0, 0.0, true, false, Duration.ZERO);
-		}
-
-		// current es el vector de probabilidades p_k; si hay warm start lo usamos.
-		double[] current = initialScores != null && initialScores.length == nodeCount
-				? Arrays.copyOf(initialScores, nodeCount)
-				: uniformVector(nodeCount);
-		double[] next = new double[nodeCount];
-
-		double damping = settings.damping(); // factor de amortiguacion d
-		double epsilon = settings.epsilon(); // tolerancia de convergencia
-		double teleport = (1.0 - damping) / nodeCount; // termino de teletransporte uniforme
-
-		int iterations = 0;
-		double lastAverageDelta = Double.MAX_VALUE;
-		boolean converged = false;
-		boolean timeLimited = false;
-		Instant start = Instant.now();
-
-		while (iterations < maxIterations) {
-			// Corte por tiempo si supera maxDuration
-			if (maxDuration != null && Duration.between(start, Instant.now()).compareTo(maxDuration) > 0) {
-				timeLimited = true;
-				break;
-			}
-			// Inicializamos con el vector de teletransporte: (1-d)/N en cada nodo.
-			Arrays.fill(next, teleport);
-			double danglingMass = 0.0; // suma de masa en nodos sin salientes
-
-			for (int i = 0; i < nodeCount; i++) {
-				double rankValue = current[i];
-				double weightSum = snapshot.outgoingWeight()[i];
-				// Nodos colgantes: acumulan para redistribuir luego.
-				if (weightSum <= 0.0 || snapshot.adjacency().get(i).isEmpty()) {
-					danglingMass += rankValue;
-					continue;
-				}
-				// Para cada arista i->j, aportamos d * p_i * (w_ij / sum_out_i)
-				double contribution = damping * rankValue / weightSum;
-				for (Edge edge : snapshot.adjacency().get(i)) {
-					next[edge.nodeIndex()] += contribution * edge.weight();
-				}
-			}
-
-			// Redistribuir masa de nodos colgantes uniformemente: d * (danglingMass / N)
-			double danglingContribution = damping * danglingMass / nodeCount;
-			for (int i = 0; i < nodeCount; i++) {
-				next[i] += danglingContribution;
-			}
-
-			// Delta L1 promedio = sum |p_{k+1} - p_k| / N
-			double deltaSum = 0.0;
-			for (int i = 0; i < nodeCount; i++) {
-				deltaSum += Math.abs(next[i] - current[i]);
-			}
-			lastAverageDelta = deltaSum / nodeCount;
-			System.arraycopy(next, 0, current, 0, nodeCount); // p_{k+1} -> p_k
-
-			iterations++;
-			if (lastAverageDelta <= epsilon) {
-				converged = true;
-				break;
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				dumpSnapshot(graph, scores);
 			}
-		}
-
-		Duration elapsed = Duration.between(start, Instant.now());
-		return new ComputationOutcome(current, iterations, lastAverageDelta, converged, timeLimited, elapsed);
-	}
-
-	private double[] uniformVector(int size) {
-		double[] vector = new double[size];
-		if (size == 0) {
-			return vector;
-		}
-		double value = 1.0 / size; // uniform prior: sum(vector)=1
-		Arrays.fill(vector, value);
-		return vector;
+		});
 	}
 
-	private void persistRanks(List<Person> persons, double[] scores) {
-		// Guarda los nuevos scores y sus deltas por persona, reutilizando los existentes.
-		Map<Long, Rank> existingRanks = rankRepository.findAll().stream()
-				.collect(Collectors.toMap(Rank::getId, Function.identity()));
-		Map<Long, RankDelta> existingDeltas = rankDeltaRepository.findAll().stream()
-				.collect(Collectors.toMap(RankDelta::getId, Function.identity()));
-
-		List<Rank> updatedRanks = new ArrayList<>(persons.size());
-		List<RankDelta> updatedDeltas = new ArrayList<>(persons.size());
-		Instant now = Instant.now();
-
-		for (int i = 0; i < persons.size(); i++) {
-			Person person = persons.get(i);
-			double newScore = scores.length > i ? scores[i] : 0.0;
-			Rank rank = existingRanks.get(person.getId());
-			double previousScore = 0.0;
-			if (rank == null) {
-				rank = new Rank(person, newScore, now);
-			}
-			else {
-				previousScore = rank.getScore();
-				rank.setPerson(person);
-				rank.setScore(newScore);
-				rank.setUpdatedAt(now);
-			}
-			updatedRanks.add(rank);
-
-			double delta = newScore - previousScore;
-			RankDelta rankDelta = existingDeltas.get(person.getId());
-			if (rankDelta == null) {
-				rankDelta = new RankDelta(person, delta);
-			}
-			else {
-				rankDelta.setPerson(person);
-				rankDelta.setDelta(delta);
-			}
-			updatedDeltas.add(rankDelta);
-		}
-
-		rankRepository.saveAll(updatedRanks);
-		rankDeltaRepository.saveAll(updatedDeltas);
+	private int persistRanks(CsrGraph graph, double[] scores) {
+		// Solo escribe (upsert JDBC en lote) los scores que cambiaron mas que el umbral configurado.
+		return rankStore.write(graph, scores, settings.rankPersistThreshold());
 	}
 
 	/**
-	 * Represents an edge to a neighbor node index with its weight.
+	 * Historial de corridas para monitoreo.
+	 *
+	 * @param budget limite de tiempo del motor ({@code Z}).
+	 * @param capacity corridas que guarda el historial.
+	 * @param timeLimited corridas del historial que agotaron el limite.
+	 * @param runs corridas, la mas nueva primero.
 	 */
-	private record Edge(int nodeIndex, double weight) {
-	}
-
-	private record GraphSnapshot(
-			List<Person> persons,
-			Map<Long, Integer> indexMap,
-			List<List<Edge>> adjacency,
-			List<List<Edge>> incoming,
-			double[] outgoingWeight) {
-
-		int nodeCount() {
-			return persons.size();
-		}
-	}
-
-	private record ComputationOutcome(
-			double[] scores,
-			int iterations,
-			double averageDelta,
-			boolean converged,
-			boolean timeLimited,
-			Duration elapsed) {
+	public record History(Duration budget, int capacity, int timeLimited, List<PageRankResult> runs) {
 	}
 }
@@ -0,0 +1,188 @@
+package com.pagerank.pagerank.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.PersonalizedPush;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+
+/**
+ * PageRank personalizado desde una o mas personas semilla ("a quien rankearia alto desde mi punto
+ * de vista") con {@link PersonalizedPush} sobre el grafo residente.
+ * <p>
+ * Cada corrida tiene un presupuesto de aristas visitadas. El top de cada conjunto de semillas se
+ * guarda en un LRU acotado junto al {@link CsrGraph} con el que se calculo y los nodos que alcanzo
+ * el push. El resultado solo depende de las filas salientes de esos nodos, asi que una escritura lo
+ * invalida solo si {@link GraphStore#changedSources} incluye alguno de ellos; si el cambio no se
+ * puede acotar (recarga, registro descartado) se recalcula.
+ */
+@Service
+public class PersonalizedRankService {
+
+	/** Resultados que se guardan (y se pueden pedir) por conjunto de semillas. */
+	public static final int MAX_RESULTS = 100;
+
+	private final GraphStore graphStore;
+	private final RankSnapshots rankSnapshots;
+	private final PersonalizedPush engine;
+	private final long maxEdgeVisits;
+	private final Map<List<Long>, Entry> cache;
+
+	public PersonalizedRankService(GraphStore graphStore, RankSnapshots rankSnapshots,
+			PagerankSettingsProperties settings) {
+		this.graphStore = graphStore;
+		this.rankSnapshots = rankSnapshots;
+		this.engine = new PersonalizedPush(settings.damping(), settings.epsilon());
+		this.maxEdgeVisits = settings.personalizedMaxEdgeVisits();
+		int capacity = settings.personalizedCacheSize();
+		this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Long>, Entry> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Personas mejor rankeadas desde las semillas.
+	 *
+	 * @param seedIds ids de las personas semilla (se ignoran repetidos).
+	 * @param limit cantidad de resultados, hasta {@link #MAX_RESULTS}.
+	 * @return ranking personalizado con metricas de la corrida.
+	 * @throws IllegalArgumentException si alguna semilla no esta en el grafo.
+	 */
+	public Ranking rank(Collection<Long> seedIds, int limit) {
+		List<Long> key = seedIds.stream().distinct().sorted().toList();
+		CsrGraph graph = graphStore.snapshot();
+		Entry entry;
+		synchronized (cache) {
+			entry = cache.get(key);
+		}
+		boolean cached = entry != null && (entry.graph() == graph || unaffected(entry, graph));
+		if (!cached || entry.graph() != graph) {
+			// Una entrada vigente pasa al grafo nuevo para no retener el anterior.
+			entry = cached ? entry.on(graph) : compute(graph, key);
+			synchronized (cache) {
+				cache.put(key, entry);
+			}
+		}
+
+		RankSnapshot ranks = rankSnapshots.current();
+		int count = Math.min(Math.min(limit, MAX_RESULTS), entry.personIds().length);
+		List<Ranked> results = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			long personId = entry.personIds()[i];
+			String name = graphStore.nameOf(personId);
+			double global = ranks.scoreOf(personId);
+			results.add(new Ranked(personId, name != null ? name : "#" + personId, entry.scores()[i],
+					Double.isNaN(global) ? 0.0 : global));
+		}
+		return new Ranking(key, results, entry.edgeVisits(), entry.errorBound(), entry.budgetExhausted(), cached);
+	}
+
+	/**
+	 * Indica si ningun origen con filas cambiadas entre el grafo de la entrada y {@code graph} fue
+	 * alcanzado por su push. Los indices de nodo se conservan entre snapshots con diff conocido: el
+	 * store solo agrega nodos al final.
+	 */
+	private boolean unaffected(Entry entry, CsrGraph graph) {
+		Optional<Set<Long>> changed = graphStore.changedSources(entry.graph(), graph);
+		if (changed.isEmpty()) {
+			return false;
+		}
+		for (long sourceId : changed.get()) {
+			int node = entry.graph().indexOf(sourceId);
+			if (node >= 0 && entry.reached().contains(node)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Entry compute(CsrGraph graph, List<Long> seedIds) {
+		int[] seeds = new int[seedIds.size()];
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = graph.indexOf(seedIds.get(i));
+			if (seeds[i] < 0) {
+				throw new IllegalArgumentException("Persona no encontrada: " + seedIds.get(i));
+			}
+		}
+		PersonalizedPush.Result result = engine.compute(graph, seeds, maxEdgeVisits);
+		int kept = Math.min(MAX_RESULTS, result.nodes().length);
+		long[] personIds = new long[kept];
+		double[] scores = new double[kept];
+		for (int i = 0; i < kept; i++) {
+			personIds[i] = graph.idAt(result.nodes()[i]);
+			scores[i] = result.scores()[i];
+		}
+		return new Entry(graph, Reached.of(result.reached(), graph.nodeCount()), personIds, scores,
+				result.edgeVisits(), result.errorBound(), result.budgetExhausted());
+	}
+
+	/**
+	 * Ranking personalizado.
+	 *
+	 * @param seeds ids de las semillas, ordenados.
+	 * @param results personas de mayor a menor score personalizado.
+	 * @param edgeVisits aristas recorridas por el push.
+	 * @param errorBound cota del error L1 respecto del PPR exacto.
+	 * @param budgetExhausted true si el push se corto por el presupuesto de aristas.
+	 * @param cached true si salio del cache sin recalcular.
+	 */
+	public record Ranking(List<Long> seeds, List<Ranked> results, long edgeVisits, double errorBound,
+			boolean budgetExhausted, boolean cached) {
+	}
+
+	/**
+	 * Persona del ranking personalizado.
+	 *
+	 * @param id id de la persona.
+	 * @param name nombre.
+	 * @param score score personalizado.
+	 * @param globalScore score de PageRank global (0 si aun no tiene).
+	 */
+	public record Ranked(long id, String name, double score, double globalScore) {
+	}
+
+	private record Entry(CsrGraph graph, Reached reached, long[] personIds, double[] scores, long edgeVisits,
+			double errorBound, boolean budgetExhausted) {
+
+		Entry on(CsrGraph next) {
+			return new Entry(next, reached, personIds, scores, edgeVisits, errorBound, budgetExhausted);
+		}
+	}
+
+	/**
+	 * Nodos alcanzados por un push: indices ordenados, o un bitset de N bits si ocupa menos. Asi una
+	 * entrada retiene a lo sumo {@code min(4 * alcanzados, N / 8)} bytes.
+	 */
+	private record Reached(int[] sorted, BitSet bits) {
+
+		static Reached of(int[] nodes, int nodeCount) {
+			if ((long) nodes.length * Integer.SIZE <= nodeCount) {
+				int[] sorted = nodes.clone();
+				Arrays.sort(sorted);
+				return new Reached(sorted, null);
+			}
+			BitSet bits = new BitSet(nodeCount);
+			for (int node : nodes) {
+				bits.set(node);
+			}
+			return new Reached(null, bits);
+		}
+
+		boolean contains(int node) {
+			return sorted != null ? Arrays.binarySearch(sorted, node) >= 0 : bits.get(node);
+		}
+	}
+}
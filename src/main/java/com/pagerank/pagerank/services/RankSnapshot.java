@@ -0,0 +1,44 @@
+package com.pagerank.pagerank.services;
+
+import java.time.Instant;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+
+/**
+ * Vector de scores inmutable publicado por una corrida de PageRank, con el grafo que define sus
+ * indices (id a indice via {@link CsrGraph#indexOf(long)}). Nadie modifica el arreglo una vez
+ * publicado, asi que los lectores lo recorren sin locks.
+ *
+ * @param version version creciente; cambia con cada publicacion.
+ * @param graph grafo de la corrida.
+ * @param scores scores indexados como el grafo; NaN para personas sin rank.
+ * @param publishedAt momento en que se calcularon los scores.
+ */
+public record RankSnapshot(long version, CsrGraph graph, double[] scores, Instant publishedAt) {
+
+	/**
+	 * Score de una persona en este snapshot.
+	 *
+	 * @param personId id de la persona.
+	 * @return score o NaN si no tiene rank (o no estaba en el grafo de la corrida).
+	 */
+	public double scoreOf(long personId) {
+		int idx = graph.indexOf(personId);
+		return idx >= 0 ? scores[idx] : Double.NaN;
+	}
+
+	/**
+	 * Suma de los scores con rank.
+	 *
+	 * @return total de scores.
+	 */
+	public double totalScore() {
+		double total = 0.0;
+		for (double score : scores) {
+			if (!Double.isNaN(score)) {
+				total += score;
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,96 @@
+package com.pagerank.pagerank.services;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+
+/**
+ * Publica el {@link RankSnapshot} vigente a traves de una referencia atomica: cada corrida que
+ * confirma reemplaza el snapshot entero y los lectores (busqueda, grafo) leen uno consistente sin
+ * ir a la tabla {@code ranks} mientras se reescribe.
+ * <p>
+ * Al arrancar, o si los ranks se escribieron por fuera de {@link RankStore} (cambio de generacion),
+ * el snapshot se arma una vez desde el cache persistido.
+ * <p>
+ * Cada snapshot nuevo se entrega a {@link NameIndex} en el momento de publicarlo, para que el
+ * reordenamiento por score no caiga en la primera busqueda.
+ */
+@Component
+public class RankSnapshots {
+
+	private final GraphStore graphStore;
+	private final RankStore rankStore;
+	private final NameIndex nameIndex;
+	private final AtomicReference<Published> current = new AtomicReference<>();
+
+	public RankSnapshots(GraphStore graphStore, RankStore rankStore, NameIndex nameIndex) {
+		this.graphStore = graphStore;
+		this.rankStore = rankStore;
+		this.nameIndex = nameIndex;
+	}
+
+	/**
+	 * Snapshot vigente.
+	 *
+	 * @return ultimo snapshot publicado.
+	 */
+	public RankSnapshot current() {
+		Published published = current.get();
+		long generation = rankStore.generation();
+		if (published != null && published.generation() == generation) {
+			return published.snapshot();
+		}
+		CsrGraph graph = graphStore.snapshot();
+		long[] ids = new long[graph.nodeCount()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = graph.idAt(i);
+		}
+		double[] scores = rankStore.scoresOf(ids);
+		RankSnapshot snapshot = current.updateAndGet(previous -> previous != published ? previous
+				: new Published(new RankSnapshot(nextVersion(previous), graph, scores, Instant.now()), generation))
+				.snapshot();
+		nameIndex.refresh(snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * Publica los scores de una corrida cuando confirma la transaccion en curso (o en el acto si no hay).
+	 *
+	 * @param graph grafo de la corrida.
+	 * @param scores scores calculados, indexados como el grafo (se copian).
+	 */
+	public void publish(CsrGraph graph, double[] scores) {
+		double[] copy = Arrays.copyOf(scores, graph.nodeCount());
+		Instant computedAt = Instant.now();
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			set(graph, copy, computedAt);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				set(graph, copy, computedAt);
+			}
+		});
+	}
+
+	private void set(CsrGraph graph, double[] scores, Instant computedAt) {
+		long generation = rankStore.generation();
+		nameIndex.refresh(current.updateAndGet(previous -> new Published(
+				new RankSnapshot(nextVersion(previous), graph, scores, computedAt), generation)).snapshot());
+	}
+
+	private static long nextVersion(Published previous) {
+		return previous == null ? 1 : previous.snapshot().version() + 1;
+	}
+
+	/** generation: de RankStore al publicar; si cambia, los ranks persistidos ya no son estos. */
+	private record Published(RankSnapshot snapshot, long generation) {
+	}
+}
@@ -0,0 +1,206 @@
+package com.pagerank.pagerank.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.IdIndex;
+
+/**
+ * Persistencia de scores por diferencia: recuerda el ultimo score y delta escritos por persona y
+ * solo hace upsert (JDBC en lote, {@code INSERT ... ON CONFLICT}) de las filas que cambiaron mas
+ * que el umbral, en vez de cargar y mergear todas las entidades {@code Rank}/{@code RankDelta}.
+ * Una fila bajo el umbral cuenta como sin cambio: si su delta guardado no era 0, se pone en 0.
+ */
+@Component
+public class RankStore {
+
+	private static final int JDBC_BATCH_SIZE = 1_000;
+
+	private static final String UPSERT_RANK = "insert into ranks (person_id, score, updated_at) values (?, ?, ?) "
+			+ "on conflict(person_id) do update set score = excluded.score, updated_at = excluded.updated_at";
+	private static final String UPSERT_DELTA = "insert into rank_deltas (person_id, delta) values (?, ?) "
+			+ "on conflict(person_id) do update set delta = excluded.delta";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private boolean loaded;
+	private volatile long generation;
+	private IdIndex index = new IdIndex(0);
+	private double[] scores = new double[0];
+	private double[] deltas = new double[0];
+	private int size;
+
+	public RankStore(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Indica si todavia no hay ningun rank persistido.
+	 *
+	 * @return true si la tabla de ranks esta vacia.
+	 */
+	public synchronized boolean isEmpty() {
+		ensureLoaded();
+		return size == 0;
+	}
+
+	/**
+	 * Scores persistidos alineados con los indices del grafo; 0 para personas sin rank.
+	 *
+	 * @param graph grafo cuyos indices definen el orden del vector.
+	 * @return vector de scores (copia).
+	 */
+	public synchronized double[] scoresFor(CsrGraph graph) {
+		ensureLoaded();
+		double[] vector = new double[graph.nodeCount()];
+		for (int i = 0; i < vector.length; i++) {
+			int slot = index.get(graph.idAt(i));
+			vector[i] = slot >= 0 ? scores[slot] : 0.0;
+		}
+		return vector;
+	}
+
+	/**
+	 * Scores persistidos de un conjunto de personas, en una sola pasada por el cache.
+	 *
+	 * @param personIds ids de personas.
+	 * @return scores en el mismo orden; NaN para personas sin rank.
+	 */
+	public synchronized double[] scoresOf(long[] personIds) {
+		ensureLoaded();
+		double[] vector = new double[personIds.length];
+		for (int i = 0; i < personIds.length; i++) {
+			int slot = index.get(personIds[i]);
+			vector[i] = slot >= 0 ? scores[slot] : Double.NaN;
+		}
+		return vector;
+	}
+
+	/**
+	 * Escribe los scores que cambiaron mas que {@code threshold} (o que no existian) junto a su delta,
+	 * y pone en 0 el delta de las filas que quedaron bajo el umbral si el guardado no lo era, para que
+	 * {@code rank_deltas} no siga mostrando el cambio de una corrida anterior.
+	 * Participa de la transaccion en curso; si esta no confirma, el cache se recarga.
+	 *
+	 * @param graph grafo cuyos indices corresponden al vector.
+	 * @param newScores scores calculados.
+	 * @param threshold cambio absoluto minimo para escribir una fila.
+	 * @return filas de rank escritas.
+	 */
+	public synchronized int write(CsrGraph graph, double[] newScores, double threshold) {
+		ensureLoaded();
+		List<Row> changed = new ArrayList<>();
+		List<Row> settled = new ArrayList<>();
+		for (int i = 0; i < graph.nodeCount(); i++) {
+			long personId = graph.idAt(i);
+			double score = newScores.length > i ? newScores[i] : 0.0;
+			int slot = index.get(personId);
+			if (slot < 0) {
+				changed.add(new Row(personId, score, score));
+			}
+			else if (Math.abs(score - scores[slot]) > threshold) {
+				changed.add(new Row(personId, score, score - scores[slot]));
+			}
+			else if (deltas[slot] != 0.0) {
+				settled.add(new Row(personId, scores[slot], 0.0));
+			}
+		}
+		if (changed.isEmpty() && settled.isEmpty()) {
+			return 0;
+		}
+
+		if (!changed.isEmpty()) {
+			Timestamp now = Timestamp.from(Instant.now());
+			jdbcTemplate.batchUpdate(UPSERT_RANK, changed, JDBC_BATCH_SIZE, (ps, row) -> {
+				ps.setLong(1, row.personId());
+				ps.setDouble(2, row.score());
+				ps.setTimestamp(3, now);
+			});
+		}
+		List<Row> deltaRows = new ArrayList<>(changed);
+		deltaRows.addAll(settled);
+		jdbcTemplate.batchUpdate(UPSERT_DELTA, deltaRows, JDBC_BATCH_SIZE, (ps, row) -> {
+			ps.setLong(1, row.personId());
+			ps.setDouble(2, row.delta());
+		});
+
+		resetOnRollback();
+		for (Row row : deltaRows) {
+			put(row.personId(), row.score(), row.delta());
+		}
+		return changed.size();
+	}
+
+	/**
+	 * Descarta el cache; la proxima lectura vuelve a la tabla {@code ranks}.
+	 */
+	public synchronized void invalidate() {
+		loaded = false;
+		generation++;
+	}
+
+	/**
+	 * Contador de invalidaciones: cambia cuando los ranks se escribieron por fuera de este cache
+	 * o una escritura se revirtio, para que quien guarde estado derivado sepa que debe recalcularlo.
+	 *
+	 * @return generacion actual.
+	 */
+	public long generation() {
+		return generation;
+	}
+
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+		index = new IdIndex(size);
+		scores = new double[Math.max(size, 16)];
+		deltas = new double[scores.length];
+		size = 0;
+		jdbcTemplate.query("select r.person_id, r.score, coalesce(d.delta, 0) from ranks r "
+				+ "left join rank_deltas d on d.person_id = r.person_id", rs -> {
+			put(rs.getLong(1), rs.getDouble(2), rs.getDouble(3));
+		});
+		loaded = true;
+	}
+
+	private void put(long personId, double score, double delta) {
+		int slot = index.get(personId);
+		if (slot < 0) {
+			if (size == scores.length) {
+				scores = Arrays.copyOf(scores, size * 2);
+				deltas = Arrays.copyOf(deltas, size * 2);
+			}
+			slot = size++;
+			index.put(personId, slot);
+		}
+		scores[slot] = score;
+		deltas[slot] = delta;
+	}
+
+	private void resetOnRollback() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status != STATUS_COMMITTED) {
+					invalidate();
+				}
+			}
+		});
+	}
+
+	private record Row(long personId, double score, double delta) {
+	}
+}
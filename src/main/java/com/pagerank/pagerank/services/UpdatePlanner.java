@@ -0,0 +1,174 @@
+package com.pagerank.pagerank.services;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.pagerank.pagerank.domain.model.PageRankResult;
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+
+/**
+ * Decide entre incremental y batch con un modelo de costo en aristas visitadas:
+ * <ul>
+ * <li>incremental: aristas salientes de los tocados (frontera) por la amplificacion observada
+ * (visitas / frontera) en corridas incrementales recientes, mas N por persistir y publicar los
+ * scores, mas E si antes hay que rearmar el residuo exacto;</li>
+ * <li>batch: iteraciones promedio de los batch recientes (+1 barrido para rebasar el residuo) por E,
+ * mas el mismo N de persistir y publicar.</li>
+ * </ul>
+ * Cada estimacion se pasa a tiempo con el throughput (ns por arista) medido en las mismas corridas.
+ * Gana la mas barata, salvo que el incremental no entre en el presupuesto Z y haya BATCH_RESUME:
+ * un incremental cortado no agenda otra ventana, un batch cortado sigue desde su checkpoint.
+ */
+@Component
+public class UpdatePlanner {
+
+	private static final int HISTORY = 16;
+
+	private final Duration budget;
+	private final boolean batchResume;
+	private final double defaultAmplification;
+	private final double defaultBatchIterations;
+
+	private final Deque<Sample> incrementalRuns = new ArrayDeque<>();
+	private final Deque<Sample> batchRuns = new ArrayDeque<>();
+
+	public UpdatePlanner(PagerankSettingsProperties settings) {
+		this.budget = settings.maxUpdateDuration();
+		this.batchResume = settings.batchResume();
+		double damping = settings.damping();
+		// Sin historia: fila vieja + fila nueva del origen y una serie geometrica d/(1-d) de pushes.
+		this.defaultAmplification = 2.0 + damping / (1.0 - damping);
+		// Jacobi reduce el error ~d por iteracion: log(epsilon) / log(d), acotado por maxIters.
+		this.defaultBatchIterations = Math.min(settings.maxIters(),
+				Math.ceil(Math.log(settings.epsilon()) / Math.log(damping)));
+	}
+
+	/**
+	 * Estima ambas estrategias para los ids tocados y elige la mas barata.
+	 *
+	 * @param graph grafo actual.
+	 * @param touchedIds ids de personas tocadas.
+	 * @param residualReady si el estado del motor por residuos sigue vigente (si no, el incremental lo rearma).
+	 * @return plan con la estrategia elegida, las estimaciones y el motivo.
+	 */
+	public synchronized Plan plan(CsrGraph graph, Set<Long> touchedIds, boolean residualReady) {
+		long frontier = frontierEdges(graph, touchedIds);
+		double amplification = incrementalRuns.isEmpty() ? defaultAmplification : ratio(incrementalRuns);
+		double batchIterations = batchRuns.isEmpty() ? defaultBatchIterations : averageIterations(batchRuns);
+
+		long rebase = residualReady ? 0 : graph.edgeCount();
+		double incrementalVisits = frontier * amplification + graph.nodeCount() + rebase;
+		double batchVisits = (batchIterations + 1) * graph.edgeCount() + graph.nodeCount();
+		// Si falta historia de un modo se usa el throughput del otro (mismo costo por arista).
+		double incrementalNanos = nanosPerVisit(incrementalRuns, batchRuns);
+		double batchNanos = nanosPerVisit(batchRuns, incrementalRuns);
+		Duration incrementalTime = Duration.ofNanos((long) (incrementalVisits * incrementalNanos));
+		Duration batchTime = Duration.ofNanos((long) (batchVisits * batchNanos));
+
+		boolean cheaper = incrementalTime.compareTo(batchTime) <= 0;
+		boolean incrementalFits = incrementalTime.compareTo(budget) <= 0;
+		boolean incremental = cheaper && (incrementalFits || !batchResume);
+		String reason = String.format(Locale.US,
+				"%s: incremental ~%.0f edge visits (frontier %d x amplification %.1f from %d runs + %d nodes + %d rebase, ~%d ms)"
+						+ " vs batch ~%.0f edge visits (%.1f iterations x %d edges from %d runs, ~%d ms); budget Z=%d ms%s",
+				incremental ? "incremental is cheaper"
+						: cheaper ? "incremental would exceed Z without a next window" : "batch is cheaper",
+				incrementalVisits, frontier, amplification, incrementalRuns.size(), graph.nodeCount(), rebase,
+				incrementalTime.toMillis(), batchVisits, batchIterations, graph.edgeCount(), batchRuns.size(),
+				batchTime.toMillis(), budget.toMillis(),
+				(incremental ? incrementalTime : batchTime).compareTo(budget) > 0 ? " (over budget, will be time-limited)" : "");
+		return new Plan(incremental ? Strategy.INCREMENTAL : Strategy.BATCH, frontier, incrementalTime, batchTime, reason);
+	}
+
+	/**
+	 * Registra una corrida para ajustar el modelo.
+	 *
+	 * @param result resultado de la corrida.
+	 * @param frontierEdges frontera usada al planificarla (solo incrementales).
+	 */
+	public synchronized void record(PageRankResult result, long frontierEdges) {
+		if (result == null || result.nodeCount() == 0) {
+			return;
+		}
+		boolean batch = "batch".equals(result.mode());
+		Deque<Sample> runs = batch ? batchRuns : incrementalRuns;
+		runs.addLast(new Sample(result.edgeVisits(), batch ? 0 : Math.max(1, frontierEdges),
+				result.iterations(), result.elapsed().toNanos()));
+		if (runs.size() > HISTORY) {
+			runs.removeFirst();
+		}
+	}
+
+	/**
+	 * Aristas salientes de los tocados: lo que el motor por residuos lee para corregir el cambio.
+	 *
+	 * @param graph grafo actual.
+	 * @param touchedIds ids tocados.
+	 * @return frontera en aristas (al menos una por tocado).
+	 */
+	public long frontierEdges(CsrGraph graph, Set<Long> touchedIds) {
+		long edges = 0;
+		for (Long id : touchedIds) {
+			int idx = graph.indexOf(id);
+			edges += idx >= 0 ? Math.max(1, graph.outDegree(idx)) : 1;
+		}
+		return edges;
+	}
+
+	private static double ratio(Deque<Sample> runs) {
+		double visits = 0;
+		double base = 0;
+		for (Sample sample : runs) {
+			visits += sample.edgeVisits();
+			base += sample.base();
+		}
+		return visits / base;
+	}
+
+	private static double averageIterations(Deque<Sample> runs) {
+		double total = 0;
+		for (Sample sample : runs) {
+			total += sample.iterations();
+		}
+		return total / runs.size();
+	}
+
+	private static double nanosPerVisit(Deque<Sample> preferred, Deque<Sample> fallback) {
+		Deque<Sample> runs = !preferred.isEmpty() ? preferred : fallback;
+		double visits = 0;
+		double nanos = 0;
+		for (Sample sample : runs) {
+			visits += sample.edgeVisits();
+			nanos += sample.nanos();
+		}
+		return visits > 0 ? nanos / visits : 1.0;
+	}
+
+	public enum Strategy {
+		INCREMENTAL,
+		BATCH
+	}
+
+	/**
+	 * Decision del planificador.
+	 *
+	 * @param strategy estrategia elegida.
+	 * @param frontierEdges aristas salientes de los tocados.
+	 * @param incrementalEstimate tiempo estimado del incremental.
+	 * @param batchEstimate tiempo estimado del batch.
+	 * @param reason explicacion para el log.
+	 */
+	public record Plan(Strategy strategy, long frontierEdges, Duration incrementalEstimate, Duration batchEstimate,
+			String reason) {
+	}
+
+	/** base: frontera del incremental (0 en batch). */
+	private record Sample(long edgeVisits, long base, int iterations, long nanos) {
+	}
+}
@@ -6,6 +6,10 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
+import com.pagerank.pagerank.engine.ScoreStorage;
+import com.pagerank.pagerank.engine.SolverMode;
+import com.pagerank.pagerank.engine.WeightPrecision;
+
 /**
  * Strongly typed access to PageRank tuning parameters defined in settings/.env.
  */
@@ -20,7 +24,23 @@ public record PagerankSettingsProperties(
 		double followQualityThreshold,
 		double spamPenalty,
 		String datasetPersons,
-		String datasetFollows) {
+		String datasetFollows,
+		int batchThreads,
+		Duration incrementalDebounce,
+		int incrementalBatchSize,
+		double rankPersistThreshold,
+		SolverMode batchSolver,
+		double adaptiveFreezeRatio,
+		String graphSnapshotPath,
+		ScoreStorage storage,
+		WeightPrecision weightPrecision,
+		boolean vectorize,
+		int personalizedCacheSize,
+		long personalizedMaxEdgeVisits,
+		int ingestBatchSize,
+		int dedupCacheSize,
+		int runHistorySize,
+		boolean batchResume) {
 
 	public PagerankSettingsProperties {
 		Assert.isTrue(damping > 0 && damping < 1, "Damping factor must be between 0 and 1");
@@ -33,5 +53,21 @@ public record PagerankSettingsProperties(
 		Assert.isTrue(spamPenalty >= 0 && spamPenalty <= 1, "Spam penalty must be between 0 and 1");
 		Assert.isTrue(StringUtils.hasText(datasetPersons), "Dataset persons path required");
 		Assert.isTrue(StringUtils.hasText(datasetFollows), "Dataset follows path required");
+		Assert.isTrue(batchThreads >= 0, "Batch threads must be non-negative (0 = all cores)");
+		Assert.notNull(incrementalDebounce, "Incremental debounce duration is required");
+		Assert.isTrue(incrementalBatchSize > 0, "Incremental batch size must be positive");
+		Assert.isTrue(rankPersistThreshold >= 0, "Rank persist threshold must be non-negative");
+		Assert.notNull(batchSolver, "Batch solver mode is required");
+		Assert.isTrue(adaptiveFreezeRatio > 0 && adaptiveFreezeRatio <= 1, "Adaptive freeze ratio must be in (0, 1]");
+		Assert.notNull(graphSnapshotPath, "Graph snapshot path is required (empty disables it)");
+		Assert.notNull(storage, "Score storage is required");
+		Assert.notNull(weightPrecision, "Weight precision is required");
+		Assert.isTrue(storage == ScoreStorage.HEAP || weightPrecision == WeightPrecision.DOUBLE,
+				"Compact weight precision requires heap storage");
+		Assert.isTrue(personalizedCacheSize > 0, "Personalized cache size must be positive");
+		Assert.isTrue(personalizedMaxEdgeVisits > 0, "Personalized max edge visits must be positive");
+		Assert.isTrue(ingestBatchSize > 0, "Ingest batch size must be positive");
+		Assert.isTrue(dedupCacheSize > 0, "Dedup cache size must be positive");
+		Assert.isTrue(runHistorySize > 0, "Run history size must be positive");
 	}
 }
@@ -1,64 +1,84 @@
 package com.pagerank.pagerank.web.controller;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.pagerank.pagerank.services.GraphExport;
 
-import com.pagerank.pagerank.domain.model.Follow;
-import com.pagerank.pagerank.domain.model.Person;
-import com.pagerank.pagerank.domain.model.Rank;
-import com.pagerank.pagerank.domain.repository.FollowRepository;
-import com.pagerank.pagerank.domain.repository.PersonRepository;
-import com.pagerank.pagerank.domain.repository.RankRepository;
-import com.pagerank.pagerank.web.dto.GraphLinkDto;
-import com.pagerank.pagerank.web.dto.GraphNodeDto;
-import com.pagerank.pagerank.web.dto.GraphResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
 @RequestMapping("/api/graph")
+@Tag(name = "Graph")
 public class GraphDataController {
 
-	private final PersonRepository personRepository;
-	private final RankRepository rankRepository;
-	private final FollowRepository followRepository;
+	private static final int MAX_PAGE = 10_000;
+
+	private final GraphExport graphExport;
 
-	public GraphDataController(PersonRepository personRepository, RankRepository rankRepository,
-			FollowRepository followRepository) {
-		this.personRepository = personRepository;
-		this.rankRepository = rankRepository;
-		this.followRepository = followRepository;
+	public GraphDataController(GraphExport graphExport) {
+		this.graphExport = graphExport;
 	}
 
 	@GetMapping
-	public GraphResponse graph() {
-		List<Person> persons = personRepository.findAll();
-		List<Rank> ranks = rankRepository.findAll();
-		Map<Long, Double> scoreMap = ranks.stream()
-				.collect(Collectors.toMap(Rank::getId, Rank::getScore));
+	@Operation(summary = "Grafo en streaming: top-N por score, ego-network o umbrales de score y calidad")
+	public ResponseEntity<StreamingResponseBody> graph(
+			@RequestParam(required = false) Integer top,
+			@RequestParam(required = false) Long ego,
+			@RequestParam(defaultValue = "1") int depth,
+			@RequestParam(defaultValue = "0") double minScore,
+			@RequestParam(defaultValue = "0") double minQuality) {
+		if (top != null && top < 1) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "top debe ser mayor a 0");
+		}
+		if (depth < 1 || depth > GraphExport.MAX_DEPTH) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"depth debe estar entre 1 y " + GraphExport.MAX_DEPTH);
+		}
+		try {
+			return stream(graphExport.subgraph(new GraphExport.View(top, ego, depth, minScore, minQuality)));
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage());
+		}
+	}
 
-		double totalScore = scoreMap.values().stream().mapToDouble(Double::doubleValue).sum();
-		double defaultScore = persons.isEmpty() ? 0.0 : 1.0 / persons.size();
+	@GetMapping("/nodes")
+	@Operation(summary = "Pagina de nodos en streaming")
+	public ResponseEntity<StreamingResponseBody> nodes(
+			@RequestParam(defaultValue = "0") int offset,
+			@RequestParam(defaultValue = "1000") int limit) {
+		validatePage(offset, limit);
+		return stream(graphExport.nodes(offset, limit));
+	}
 
-		List<GraphNodeDto> nodes = new ArrayList<>(persons.size());
-		for (Person person : persons) {
-			double score = scoreMap.getOrDefault(person.getId(), defaultScore);
-			double pct = totalScore > 0 ? (score / totalScore) * 100.0 : (defaultScore * 100.0);
-			nodes.add(new GraphNodeDto(person.getId(), person.getName(), score, pct));
-		}
+	@GetMapping("/links")
+	@Operation(summary = "Pagina de aristas en streaming")
+	public ResponseEntity<StreamingResponseBody> links(
+			@RequestParam(defaultValue = "0") int offset,
+			@RequestParam(defaultValue = "1000") int limit) {
+		validatePage(offset, limit);
+		return stream(graphExport.links(offset, limit));
+	}
 
-		List<GraphLinkDto> links = new ArrayList<>();
-		for (Follow follow : followRepository.findAll()) {
-			links.add(new GraphLinkDto(
-					follow.getSource().getId(),
-					follow.getTarget().getId(),
-					follow.getQuality()));
+	private static void validatePage(int offset, int limit) {
+		if (offset < 0 || limit < 1 || limit > MAX_PAGE) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"offset debe ser >= 0 y limit estar entre 1 y " + MAX_PAGE);
 		}
+	}
 
-		return new GraphResponse(nodes, links);
+	private static ResponseEntity<StreamingResponseBody> stream(GraphExport.Export export) {
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(export::writeTo);
 	}
 }
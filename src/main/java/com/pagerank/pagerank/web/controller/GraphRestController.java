@@ -1,20 +1,25 @@
 package com.pagerank.pagerank.web.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.pagerank.pagerank.domain.model.Follow;
-import com.pagerank.pagerank.domain.model.Person;
 import com.pagerank.pagerank.web.dto.FollowRequest;
 import com.pagerank.pagerank.web.dto.FollowResponse;
 import com.pagerank.pagerank.web.dto.PersonRequest;
 import com.pagerank.pagerank.web.dto.PersonResponse;
+import com.pagerank.pagerank.services.BulkIngestionService;
+import com.pagerank.pagerank.services.CollectionWindowCache;
 import com.pagerank.pagerank.services.IngestionService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -26,9 +31,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class GraphRestController {
 
 	private final IngestionService ingestionService;
+	private final BulkIngestionService bulkIngestionService;
+	private final CollectionWindowCache windowCache;
 
-	public GraphRestController(IngestionService ingestionService) {
+	public GraphRestController(
+			IngestionService ingestionService,
+			BulkIngestionService bulkIngestionService,
+			CollectionWindowCache windowCache) {
 		this.ingestionService = ingestionService;
+		this.bulkIngestionService = bulkIngestionService;
+		this.windowCache = windowCache;
 	}
 
 	@PostMapping("/persons")
@@ -38,9 +50,8 @@ public class GraphRestController {
 			return ResponseEntity.badRequest().build();
 		}
 		double spamScore = Math.max(0.0, Math.min(1.0, request.spamScore()));
-		Person person = ingestionService.collectPerson(
-				new IngestionService.PersonObservation(request.name().trim(), spamScore, Instant.now()));
-		return ResponseEntity.ok(PersonResponse.from(person));
+		return ResponseEntity.ok(ingestionService.collectPerson(
+				new IngestionService.PersonObservation(request.name().trim(), spamScore, Instant.now())));
 	}
 
 	@PostMapping("/follows")
@@ -55,7 +66,25 @@ public class GraphRestController {
 						request.targetId(),
 						request.quality(),
 						Instant.now()))
-				.map(follow -> ResponseEntity.ok(FollowResponse.from(follow)))
+				.map(ResponseEntity::ok)
 				.orElseGet(() -> ResponseEntity.status(HttpStatus.ACCEPTED).build());
 	}
+
+	@PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	@Operation(summary = "Ingesta masiva de personas y follows en NDJSON, escrita por lotes")
+	public BulkIngestionService.IngestReport ingestNdjson(InputStream body) throws IOException {
+		return bulkIngestionService.ingest(body, BulkIngestionService.Format.NDJSON);
+	}
+
+	@PostMapping(value = "/ingest", consumes = MediaType.TEXT_CSV_VALUE)
+	@Operation(summary = "Ingesta masiva de personas y follows en CSV, escrita por lotes")
+	public BulkIngestionService.IngestReport ingestCsv(InputStream body) throws IOException {
+		return bulkIngestionService.ingest(body, BulkIngestionService.Format.CSV);
+	}
+
+	@GetMapping("/ingest/dedup")
+	@Operation(summary = "Contadores del cache de la ventana de recoleccion")
+	public CollectionWindowCache.Stats dedupStats() {
+		return windowCache.stats();
+	}
 }
@@ -2,16 +2,24 @@ package com.pagerank.pagerank.web.controller;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.pagerank.pagerank.domain.model.PageRankResult;
+import com.pagerank.pagerank.engine.SolverMode;
 import com.pagerank.pagerank.web.dto.IncrementalRequest;
+import com.pagerank.pagerank.services.IncrementalUpdateScheduler;
 import com.pagerank.pagerank.services.PageRankService;
+import com.pagerank.pagerank.services.PersonalizedRankService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,15 +30,28 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class RankingRestController {
 
 	private final PageRankService pageRankService;
+	private final IncrementalUpdateScheduler incrementalScheduler;
+	private final PersonalizedRankService personalizedRankService;
 
-	public RankingRestController(PageRankService pageRankService) {
+	public RankingRestController(PageRankService pageRankService, IncrementalUpdateScheduler incrementalScheduler,
+			PersonalizedRankService personalizedRankService) {
 		this.pageRankService = pageRankService;
+		this.incrementalScheduler = incrementalScheduler;
+		this.personalizedRankService = personalizedRankService;
 	}
 
 	@PostMapping("/batch")
-	@Operation(summary = "Ejecuta PageRank batch")
-	public PageRankResult runBatch() {
-		return pageRankService.runBatchComputation();
+	@Operation(summary = "Ejecuta PageRank batch (solver: jacobi, gauss-seidel o adaptive)")
+	public PageRankResult runBatch(@RequestParam(required = false) String solver) {
+		if (solver == null || solver.isBlank()) {
+			return pageRankService.runBatchComputation();
+		}
+		try {
+			return pageRankService.runBatchComputation(SolverMode.from(solver));
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Solver desconocido: " + solver);
+		}
 	}
 
 	@PostMapping("/incremental")
@@ -41,4 +62,36 @@ public class RankingRestController {
 				: Collections.emptySet();
 		return pageRankService.runIncrementalUpdate(touched);
 	}
+
+	@GetMapping("/scheduler")
+	@Operation(summary = "Estado de la cola de actualizaciones incrementales")
+	public IncrementalUpdateScheduler.Status schedulerStatus() {
+		return incrementalScheduler.status();
+	}
+
+	@GetMapping("/history")
+	@Operation(summary = "Ultimas corridas de PageRank con tiempos por fase")
+	public PageRankService.History history() {
+		return pageRankService.getHistory();
+	}
+
+	@GetMapping("/personalized")
+	@Operation(summary = "PageRank personalizado desde una o mas personas semilla (seed=1&seed=2 o seed=1,2)")
+	public PersonalizedRankService.Ranking personalized(
+			@RequestParam("seed") List<Long> seeds,
+			@RequestParam(value = "k", defaultValue = "20") int limit) {
+		if (seeds.isEmpty() || seeds.contains(null)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Se requiere al menos un seed");
+		}
+		if (limit < 1 || limit > PersonalizedRankService.MAX_RESULTS) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"k debe estar entre 1 y " + PersonalizedRankService.MAX_RESULTS);
+		}
+		try {
+			return personalizedRankService.rank(seeds, limit);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage());
+		}
+	}
 }
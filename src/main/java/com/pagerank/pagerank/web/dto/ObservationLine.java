@@ -0,0 +1,29 @@
+package com.pagerank.pagerank.web.dto;
+
+import java.time.Instant;
+
+/**
+ * Una linea de la ingesta masiva ({@code POST /api/ingest}). {@code type} es {@code person} (usa
+ * {@code name} y {@code spamScore}) o {@code follow} (origen y destino por nombre con
+ * {@code source}/{@code target} o por id con {@code sourceId}/{@code targetId}, y {@code quality}).
+ * {@code observedAt} es opcional.
+ */
+public record ObservationLine(
+		String type,
+		String name,
+		Double spamScore,
+		String source,
+		String target,
+		Long sourceId,
+		Long targetId,
+		Double quality,
+		Instant observedAt) {
+
+	public static ObservationLine person(String name, Double spamScore, Instant observedAt) {
+		return new ObservationLine("person", name, spamScore, null, null, null, null, null, observedAt);
+	}
+
+	public static ObservationLine follow(String source, String target, Double quality, Instant observedAt) {
+		return new ObservationLine("follow", null, null, source, target, null, null, quality, observedAt);
+	}
+}
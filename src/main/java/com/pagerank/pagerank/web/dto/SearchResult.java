@@ -4,7 +4,8 @@ import java.time.Instant;
 import java.util.List;
 
 /**
- * DTO para respuestas de búsqueda, incluyendo aportantes destacados.
+ * DTO para respuestas de búsqueda, incluyendo aportantes destacados y la versión del snapshot
+ * de scores con el que se armó ({@code rankVersion}).
  */
 public record SearchResult(
 		Long id,
@@ -12,7 +13,8 @@ public record SearchResult(
 		double score,
 		String explanation,
 		List<Contributor> contributors,
-		Instant updatedAt) {
+		Instant updatedAt,
+		long rankVersion) {
 
 	public record Contributor(String name, double contribution) {
 	}
@@ -0,0 +1,97 @@
+package com.pagerank.pagerank.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class CompactPowerIterationTests {
+
+	private static final double DAMPING = 0.85;
+	private static final double EPSILON = 1e-9;
+
+	@Test
+	void floatWeightsStayCloseToDoubleEngine() {
+		assertCloseToDoubleEngine(WeightPrecision.FLOAT, 1e-6);
+	}
+
+	@Test
+	void fixedPointWeightsStayCloseToDoubleEngine() {
+		assertCloseToDoubleEngine(WeightPrecision.FIXED16, 1e-5);
+	}
+
+	@Test
+	void compactGraphIsIteratedWithoutDoubleInWeights() {
+		// Reconstruido por filas salientes, como los compactos, para que las entrantes queden en el mismo orden.
+		CsrGraph graph = withInWeightPrecision(ParallelPowerIterationTests.randomGraph(2_000, 12_000, 7L),
+				WeightPrecision.DOUBLE);
+		for (WeightPrecision precision : new WeightPrecision[] { WeightPrecision.FLOAT, WeightPrecision.FIXED16 }) {
+			CsrGraph compact = withInWeightPrecision(graph, precision);
+			assertEquals(precision, compact.inWeightPrecision());
+			assertEquals(precision == WeightPrecision.FLOAT, compact.inTransitions() != null);
+			assertEquals(precision == WeightPrecision.FIXED16, compact.inQuantized() != null);
+			for (int e = 0; e < graph.edgeCount(); e++) {
+				assertEquals(graph.inWeights()[e], compact.inWeight(e), 1e-4);
+			}
+
+			// Los mismos pesos redondeados, leidos del grafo o de la copia del motor, dan los mismos scores.
+			double[] fromCopy = new CompactPowerIteration(DAMPING, EPSILON, precision, null)
+					.compute(graph, null, 200, null).scores();
+			double[] shared = new CompactPowerIteration(DAMPING, EPSILON, precision, null)
+					.compute(compact, null, 200, null).scores();
+			for (int i = 0; i < graph.nodeCount(); i++) {
+				assertEquals(fromCopy[i], shared[i], 1e-12);
+			}
+		}
+	}
+
+	@Test
+	void rejectsDoublePrecision() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new CompactPowerIteration(DAMPING, EPSILON, WeightPrecision.DOUBLE, null));
+	}
+
+	private static void assertCloseToDoubleEngine(WeightPrecision precision, double maxL1) {
+		CsrGraph graph = ParallelPowerIterationTests.randomGraph(2_000, 12_000, 7L);
+
+		double[] expected = new PowerIteration(DAMPING, EPSILON).compute(graph, null, 200, null).scores();
+		ComputationOutcome outcome = new CompactPowerIteration(DAMPING, EPSILON, precision, null)
+				.compute(graph, null, 200, null);
+
+		assertTrue(outcome.converged());
+		double l1 = 0.0;
+		double total = 0.0;
+		for (int i = 0; i < graph.nodeCount(); i++) {
+			l1 += Math.abs(expected[i] - outcome.scores()[i]);
+			total += outcome.scores()[i];
+		}
+		assertTrue(l1 < maxL1, precision.label() + " L1 error " + l1);
+		assertEquals(1.0, total, 1e-9);
+		assertEquals(topNodes(expected, 10), topNodes(outcome.scores(), 10));
+	}
+
+	private static CsrGraph withInWeightPrecision(CsrGraph graph, WeightPrecision precision) {
+		CsrGraph.Builder builder = CsrGraph.builder(graph.nodeCount(), graph.edgeCount()).inWeightPrecision(precision);
+		for (long id : graph.ids()) {
+			builder.addNode(id);
+		}
+		for (int u = 0; u < graph.nodeCount(); u++) {
+			for (int e = graph.outOffsets()[u]; e < graph.outOffsets()[u + 1]; e++) {
+				builder.addEdge(graph.idAt(u), graph.idAt(graph.outTargets()[e]), graph.outWeights()[e]);
+			}
+		}
+		return builder.build();
+	}
+
+	private static List<Integer> topNodes(double[] scores, int k) {
+		return IntStream.range(0, scores.length).boxed()
+				.sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+				.limit(k)
+				.toList();
+	}
+}
@@ -0,0 +1,31 @@
+package com.pagerank.pagerank.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class CsrGraphTests {
+
+	@Test
+	void builtGraphIgnoresNodesAddedToTheBuilderAfterwards() {
+		CsrGraph.Builder builder = CsrGraph.builder(2, 1);
+		builder.addNode(10L);
+		builder.addNode(20L);
+		builder.addEdge(10L, 20L, 1.0);
+		CsrGraph graph = builder.build();
+
+		// Suficientes nodos para que el indice del builder tambien se redimensione.
+		for (long id = 30; id < 300; id += 10) {
+			builder.addNode(id);
+		}
+		CsrGraph larger = builder.build();
+
+		assertEquals(2, graph.nodeCount());
+		assertEquals(0, graph.indexOf(10L));
+		assertEquals(1, graph.indexOf(20L));
+		assertEquals(-1, graph.indexOf(30L));
+		assertEquals(-1, graph.indexOf(290L));
+		assertEquals(29, larger.nodeCount());
+		assertEquals(28, larger.indexOf(290L));
+	}
+}
@@ -0,0 +1,67 @@
+package com.pagerank.pagerank.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class DenseKernelsTests {
+
+	private static final double DAMPING = 0.85;
+	private static final double EPSILON = 1e-9;
+
+	@Test
+	void scalarWhenNotRequested() {
+		assertSame(DenseKernels.SCALAR, DenseKernels.select(false));
+	}
+
+	@Test
+	void vectorLoopsMatchScalar() {
+		assumeTrue(DenseKernels.vectorAvailable(), "jdk.incubator.vector not loaded");
+		DenseKernels simd = DenseKernels.select(true);
+		Random random = new Random(5L);
+		// Largos que no son multiplo del ancho del vector para cubrir la cola escalar.
+		for (int length : new int[] { 0, 3, 17, 1_001 }) {
+			double[] a = random.doubles(length).toArray();
+			double[] b = random.doubles(length).toArray();
+			assertEquals(DenseKernels.SCALAR.distance(a, b), simd.distance(a, b), 1e-12);
+
+			double[] expected = a.clone();
+			DenseKernels.SCALAR.add(expected, 0.25);
+			double[] actual = a.clone();
+			simd.add(actual, 0.25);
+			assertArrayEquals(expected, actual, 0.0);
+
+			int[] indexes = random.ints(length, 0, Math.max(1, length)).toArray();
+			for (int from = 0; from < length; from += 1 + length / 3) {
+				assertEquals(DenseKernels.SCALAR.gather(a, indexes, b, from, length), simd.gather(a, indexes, b, from, length),
+						1e-12);
+			}
+		}
+	}
+
+	@Test
+	void vectorSolversMatchScalar() {
+		assumeTrue(DenseKernels.vectorAvailable(), "jdk.incubator.vector not loaded");
+		DenseKernels simd = DenseKernels.select(true);
+		CsrGraph graph = ParallelPowerIterationTests.randomGraph(2_000, 12_000, 7L);
+
+		double[] scalar = new PowerIteration(DAMPING, EPSILON).compute(graph, null, 200, null).scores();
+		double[] vector = new PowerIteration(DAMPING, EPSILON, simd).compute(graph, null, 200, null).scores();
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			double[] pulled = new ParallelPowerIteration(DAMPING, EPSILON, pool, simd).compute(graph, null, 200, null)
+					.scores();
+			assertArrayEquals(scalar, vector, 1e-12);
+			assertArrayEquals(scalar, pulled, EPSILON);
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.pagerank.pagerank.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class OffHeapPowerIterationTests {
+
+	private static final double DAMPING = 0.85;
+	private static final double EPSILON = 1e-9;
+
+	private static ForkJoinPool pool;
+
+	@BeforeAll
+	static void startPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterAll
+	static void stopPool() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void matchesHeapEngineOnRandomGraph() {
+		CsrGraph graph = ParallelPowerIterationTests.randomGraph(2_000, 12_000, 11L);
+
+		ComputationOutcome heap = new PowerIteration(DAMPING, EPSILON).compute(graph, null, 200, null);
+		try (OffHeapPowerIteration offHeap = new OffHeapPowerIteration(DAMPING, EPSILON, pool)) {
+			ComputationOutcome outcome = offHeap.compute(graph, null, 200, null);
+
+			assertTrue(outcome.converged());
+			assertEquals(heap.iterations(), outcome.iterations());
+			for (int i = 0; i < graph.nodeCount(); i++) {
+				assertEquals(heap.scores()[i], outcome.scores()[i], EPSILON);
+			}
+		}
+	}
+
+	@Test
+	void reusesNativeGraphAcrossWarmStarts() {
+		CsrGraph graph = ParallelPowerIterationTests.randomGraph(500, 3_000, 3L);
+
+		try (OffHeapPowerIteration offHeap = new OffHeapPowerIteration(DAMPING, EPSILON, null)) {
+			ComputationOutcome cold = offHeap.compute(graph, null, 200, null);
+			ComputationOutcome warm = offHeap.compute(graph, cold.scores(), 200, null);
+
+			assertTrue(warm.converged());
+			assertTrue(warm.iterations() <= 1);
+			for (int i = 0; i < graph.nodeCount(); i++) {
+				assertEquals(cold.scores()[i], warm.scores()[i], 1e-6);
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.pagerank.pagerank.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelPowerIterationTests {
+
+	private static final double DAMPING = 0.85;
+	private static final double EPSILON = 1e-9;
+
+	private static ForkJoinPool pool;
+
+	@BeforeAll
+	static void startPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterAll
+	static void stopPool() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void triangleIsUniform() {
+		CsrGraph.Builder builder = CsrGraph.builder(3, 3);
+		for (long id = 1; id <= 3; id++) {
+			builder.addNode(id);
+		}
+		builder.addEdge(1, 2, 1.0);
+		builder.addEdge(2, 3, 1.0);
+		builder.addEdge(3, 1, 1.0);
+
+		ComputationOutcome outcome = new ParallelPowerIteration(DAMPING, EPSILON, pool)
+				.compute(builder.build(), null, 100, null);
+
+		for (double score : outcome.scores()) {
+			assertEquals(1.0 / 3, score, 1e-12);
+		}
+	}
+
+	@Test
+	void matchesSequentialEngineOnRandomGraph() {
+		CsrGraph graph = randomGraph(2_000, 12_000, 7L);
+
+		ComputationOutcome sequential = new PowerIteration(DAMPING, EPSILON).compute(graph, null, 200, null);
+		ComputationOutcome parallel = new ParallelPowerIteration(DAMPING, EPSILON, pool).compute(graph, null, 200, null);
+
+		assertTrue(sequential.converged());
+		assertTrue(parallel.converged());
+		assertEquals(sequential.iterations(), parallel.iterations());
+		double total = 0.0;
+		for (int i = 0; i < graph.nodeCount(); i++) {
+			assertEquals(sequential.scores()[i], parallel.scores()[i], EPSILON);
+			total += parallel.scores()[i];
+		}
+		assertEquals(1.0, total, 1e-9);
+	}
+
+	static CsrGraph randomGraph(int nodes, int edges, long seed) {
+		Random random = new Random(seed);
+		CsrGraph.Builder builder = CsrGraph.builder(nodes, edges);
+		for (long id = 1; id <= nodes; id++) {
+			builder.addNode(id * 10); // ids no consecutivos, como en la base
+		}
+		for (int e = 0; e < edges; e++) {
+			long source = (random.nextInt(nodes) + 1) * 10L;
+			// destinos sesgados hacia ids bajos para tener nodos populares y colgantes
+			long target = ((long) (nodes * Math.pow(random.nextDouble(), 3)) + 1) * 10L;
+			if (source != target) {
+				builder.addEdge(source, target, 0.4 + 0.6 * random.nextDouble());
+			}
+		}
+		return builder.build();
+	}
+}
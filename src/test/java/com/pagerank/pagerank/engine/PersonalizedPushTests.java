@@ -0,0 +1,79 @@
+package com.pagerank.pagerank.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PersonalizedPushTests {
+
+	private static final double DAMPING = 0.85;
+
+	@Test
+	void staysWithinErrorBoundOfExactPersonalizedRank() {
+		CsrGraph graph = ParallelPowerIterationTests.randomGraph(2_000, 12_000, 7L);
+		int[] seeds = { 3, 1_500 };
+
+		PersonalizedPush.Result result = new PersonalizedPush(DAMPING, 1e-9).compute(graph, seeds, Long.MAX_VALUE);
+		double[] exact = exact(graph, seeds);
+
+		assertFalse(result.budgetExhausted());
+		double[] estimate = new double[graph.nodeCount()];
+		for (int i = 0; i < result.nodes().length; i++) {
+			estimate[result.nodes()[i]] = result.scores()[i];
+			if (i > 0) {
+				assertTrue(result.scores()[i - 1] >= result.scores()[i]);
+			}
+		}
+		double error = 0.0;
+		for (int i = 0; i < exact.length; i++) {
+			error += Math.abs(exact[i] - estimate[i]);
+		}
+		assertTrue(error <= result.errorBound() + 1e-12, "error " + error + " > bound " + result.errorBound());
+		assertTrue(result.errorBound() < 1e-4);
+	}
+
+	@Test
+	void stopsAtWorkBudget() {
+		CsrGraph graph = ParallelPowerIterationTests.randomGraph(2_000, 12_000, 7L);
+
+		PersonalizedPush.Result result = new PersonalizedPush(DAMPING, 1e-12).compute(graph, new int[] { 3 }, 100);
+
+		assertTrue(result.budgetExhausted());
+		assertTrue(result.edgeVisits() < 100 + graph.edgeCount());
+		double total = result.errorBound();
+		for (double score : result.scores()) {
+			total += score;
+		}
+		assertEquals(1.0, total, 1e-12);
+	}
+
+	/** PPR por iteracion de potencias densa: p = (1-d)*s + d*(M*p + D(p)*s). */
+	private static double[] exact(CsrGraph graph, int[] seeds) {
+		int n = graph.nodeCount();
+		double[] teleport = new double[n];
+		for (int seed : seeds) {
+			teleport[seed] = 1.0 / seeds.length;
+		}
+		double[] current = teleport.clone();
+		for (int iteration = 0; iteration < 300; iteration++) {
+			double[] next = new double[n];
+			double dangling = 0.0;
+			for (int u = 0; u < n; u++) {
+				if (graph.outgoingWeight()[u] <= 0.0) {
+					dangling += current[u];
+					continue;
+				}
+				for (int e = graph.outOffsets()[u]; e < graph.outOffsets()[u + 1]; e++) {
+					next[graph.outTargets()[e]] += DAMPING * current[u] * graph.outWeights()[e] / graph.outgoingWeight()[u];
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				next[i] += ((1.0 - DAMPING) + DAMPING * dangling) * teleport[i];
+			}
+			current = next;
+		}
+		return current;
+	}
+}
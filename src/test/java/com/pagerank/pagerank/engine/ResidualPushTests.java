@@ -0,0 +1,68 @@
+package com.pagerank.pagerank.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ResidualPushTests {
+
+	private static final double DAMPING = 0.85;
+	private static final double EPSILON = 1e-9;
+
+	@Test
+	void staysWithinErrorBoundAfterEdgeChanges() {
+		CsrGraph before = ParallelPowerIterationTests.randomGraph(2_000, 12_000, 7L);
+		ResidualPush engine = new ResidualPush(DAMPING, EPSILON);
+		ResidualPush.State state = engine.initialize(before,
+				new PowerIteration(DAMPING, 1e-13).compute(before, null, 500, null).scores());
+
+		// Mismo grafo mas un nodo nuevo, aristas nuevas y un origen que pierde todas sus salidas.
+		CsrGraph.Builder builder = CsrGraph.builder(before.nodeCount() + 1, before.edgeCount() + 10);
+		for (int i = 0; i < before.nodeCount(); i++) {
+			builder.addNode(before.idAt(i));
+		}
+		builder.addNode(99_999L);
+		long dropped = before.idAt(5);
+		for (int u = 0; u < before.nodeCount(); u++) {
+			if (before.idAt(u) == dropped) {
+				continue;
+			}
+			for (int e = before.outOffsets()[u]; e < before.outOffsets()[u + 1]; e++) {
+				builder.addEdge(before.idAt(u), before.idAt(before.outTargets()[e]), before.outWeights()[e]);
+			}
+		}
+		Random random = new Random(3L);
+		long source = before.idAt(random.nextInt(before.nodeCount()));
+		builder.addEdge(source, 99_999L, 0.9);
+		builder.addEdge(99_999L, before.idAt(0), 0.7);
+		CsrGraph after = builder.build();
+
+		ComputationOutcome outcome = engine.compute(state, after, Set.of(source, 99_999L, dropped), null);
+		double[] exact = new PowerIteration(DAMPING, 1e-14).compute(after, null, 1_000, null).scores();
+
+		double error = 0.0;
+		for (int i = 0; i < after.nodeCount(); i++) {
+			error += Math.abs(exact[i] - outcome.scores()[i]);
+		}
+		assertTrue(outcome.converged());
+		assertTrue(error <= outcome.errorBound() + 1e-12, "error " + error + " > bound " + outcome.errorBound());
+		assertTrue(outcome.errorBound() <= after.nodeCount() * EPSILON);
+	}
+
+	@Test
+	void unchangedGraphDoesNoWork() {
+		CsrGraph graph = ParallelPowerIterationTests.randomGraph(500, 3_000, 5L);
+		ResidualPush engine = new ResidualPush(DAMPING, EPSILON);
+		ResidualPush.State state = engine.initialize(graph,
+				new PowerIteration(DAMPING, 1e-14).compute(graph, null, 1_000, null).scores());
+
+		ComputationOutcome outcome = engine.compute(state, graph, Set.of(graph.idAt(0)), null);
+
+		assertEquals(0, outcome.iterations());
+		assertEquals(0, outcome.edgeVisits());
+	}
+}
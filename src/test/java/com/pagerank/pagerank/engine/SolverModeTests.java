@@ -0,0 +1,40 @@
+package com.pagerank.pagerank.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SolverModeTests {
+
+	private static final double DAMPING = 0.85;
+	private static final double EPSILON = 1e-9;
+
+	@Test
+	void gaussSeidelAndAdaptiveMatchJacobiWithFewerEdgeVisits() {
+		CsrGraph graph = ParallelPowerIterationTests.randomGraph(2_000, 12_000, 11L);
+
+		ComputationOutcome jacobi = new PowerIteration(DAMPING, EPSILON).compute(graph, null, 200, null);
+		ComputationOutcome gaussSeidel = new GaussSeidelIteration(DAMPING, EPSILON).compute(graph, null, 200, null);
+		ComputationOutcome adaptive = new AdaptivePowerIteration(DAMPING, EPSILON, 0.1).compute(graph, null, 200, null);
+
+		assertTrue(jacobi.converged());
+		assertTrue(gaussSeidel.converged());
+		assertTrue(adaptive.converged());
+		assertTrue(gaussSeidel.edgeVisits() < jacobi.edgeVisits());
+		assertTrue(adaptive.edgeVisits() < jacobi.edgeVisits());
+		for (int i = 0; i < graph.nodeCount(); i++) {
+			assertEquals(jacobi.scores()[i], gaussSeidel.scores()[i], 1e-7);
+			assertEquals(jacobi.scores()[i], adaptive.scores()[i], 1e-7);
+		}
+	}
+
+	@Test
+	void parsesRequestNames() {
+		assertEquals(SolverMode.GAUSS_SEIDEL, SolverMode.from("gauss-seidel"));
+		assertEquals(SolverMode.ADAPTIVE, SolverMode.from(" Adaptive "));
+		assertEquals("gauss-seidel", SolverMode.GAUSS_SEIDEL.label());
+		assertThrows(IllegalArgumentException.class, () -> SolverMode.from("sor"));
+	}
+}
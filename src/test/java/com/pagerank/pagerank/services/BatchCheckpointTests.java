@@ -0,0 +1,169 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.pagerank.pagerank.domain.model.PageRankResult;
+import com.pagerank.pagerank.engine.ComputationOutcome;
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.PowerIteration;
+import com.pagerank.pagerank.engine.SolverMode;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.settings.TestSettings;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BatchCheckpointTests {
+
+	private static final double DAMPING = 0.85;
+
+	@Test
+	void windowsNeverExceedMaxItersAndMatchOneShotBatch() {
+		CsrGraph graph = graph(200, 1_200, new Random(4L), 0);
+		PowerIteration solver = new PowerIteration(DAMPING, 0.0); // sin convergencia: corre todas las iteraciones
+		int maxIters = 10;
+
+		// Cada ventana "corta" a las 3 iteraciones, como si agotara Z.
+		BatchCheckpoint checkpoint = null;
+		int windows = 0;
+		int total = 0;
+		while (checkpoint == null || checkpoint.remainingIterations(maxIters) > 0) {
+			double[] initial = checkpoint != null ? checkpoint.scoresFor(graph) : null;
+			int remaining = checkpoint != null ? checkpoint.remainingIterations(maxIters) : maxIters;
+			ComputationOutcome outcome = solver.compute(graph, initial, Math.min(3, remaining), null);
+			checkpoint = checkpoint != null
+					? checkpoint.next(graph, outcome.scores(), outcome.iterations())
+					: BatchCheckpoint.of(graph, SolverMode.JACOBI, outcome.scores(), outcome.iterations());
+			total += outcome.iterations();
+			windows++;
+		}
+
+		assertEquals(4, windows);
+		assertEquals(maxIters, total);
+		assertEquals(maxIters, checkpoint.iterations());
+		assertEquals(0, checkpoint.remainingIterations(maxIters));
+		double[] oneShot = solver.compute(graph, null, maxIters, null).scores();
+		assertArrayEquals(oneShot, checkpoint.scores(), 1e-15);
+	}
+
+	@Test
+	void resumedWindowSeedsFromCheckpointMappedToNewGraph() {
+		Random random = new Random(8L);
+		CsrGraph before = graph(100, 600, random, 0);
+		PowerIteration solver = new PowerIteration(DAMPING, 1e-12);
+		ComputationOutcome first = solver.compute(before, null, 4, null);
+		BatchCheckpoint checkpoint = BatchCheckpoint.of(before, SolverMode.JACOBI, first.scores(), first.iterations());
+
+		// Mismo grafo: sigue exactamente desde el vector guardado.
+		assertArrayEquals(first.scores(), checkpoint.scoresFor(before));
+
+		// Llego una persona nueva entre ventanas: los demas conservan su proporcion y el vector suma 1.
+		CsrGraph after = graph(100, 600, new Random(8L), 1);
+		double[] seed = checkpoint.scoresFor(after);
+		double sum = 0.0;
+		for (double value : seed) {
+			sum += value;
+		}
+		assertEquals(1.0, sum, 1e-12);
+		int added = after.indexOf(101L);
+		double scale = seed[after.indexOf(before.idAt(0))] / first.scores()[0];
+		assertEquals(scale / after.nodeCount(), seed[added], 1e-15);
+		for (int i = 0; i < before.nodeCount(); i++) {
+			assertEquals(first.scores()[i] * scale, seed[after.indexOf(before.idAt(i))], 1e-15);
+		}
+
+		ComputationOutcome resumed = solver.compute(after, seed, 1_000 - checkpoint.iterations(), null);
+		double[] exact = solver.compute(after, null, 1_000, null).scores();
+		assertTrue(resumed.converged());
+		assertArrayEquals(exact, resumed.scores(), 1e-9);
+	}
+
+	@Test
+	void batchWithAnotherSolverDiscardsTheCheckpoint() throws Exception {
+		// Z de un nanosegundo: cada ventana corta tras su primera iteracion y deja checkpoint.
+		PagerankSettingsProperties settings = TestSettings.builder().maxUpdateDuration(Duration.ofNanos(1)).build();
+		PageRankService service = service(graph(50, 300, new Random(5L), 0), settings);
+
+		PageRankResult jacobi = service.runBatchComputation(SolverMode.JACOBI);
+		assertTrue(jacobi.timeLimited());
+		assertEquals(SolverMode.JACOBI.label(), service.resumeBatchComputation().orElseThrow().solver());
+
+		// Gauss-Seidel no sigue el vector de Jacobi: arranca de cero y su checkpoint reemplaza al otro.
+		PageRankResult gaussSeidel = service.runBatchComputation(SolverMode.GAUSS_SEIDEL);
+		assertTrue(gaussSeidel.timeLimited());
+		assertEquals(SolverMode.GAUSS_SEIDEL.label(), service.resumeBatchComputation().orElseThrow().solver());
+	}
+
+	private static PageRankService service(CsrGraph graph, PagerankSettingsProperties settings) throws Exception {
+		Path dir = Files.createTempDirectory("checkpoint");
+		GraphSnapshotFile file = new GraphSnapshotFile(new FakeJdbc(),
+				TestSettings.builder().graphSnapshotPath(dir.resolve("graph.bin").toString()).build());
+		String[] names = new String[graph.nodeCount()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "persona " + graph.idAt(i);
+		}
+		file.write(file.fingerprint(), graph, names, new double[graph.nodeCount()]);
+		GraphStore store = new GraphStore(null, null, file, settings);
+		store.run(null);
+		RankStore ranks = new RankStore(new FakeJdbc());
+		return new PageRankService(store, ranks, new UpdatePlanner(settings),
+				new ContributorIndex(store, ranks, settings), new RankSnapshots(store, ranks, new NameIndex(store)),
+				new GraphSnapshotFile(new FakeJdbc(), settings), new PageRankMetrics(new SimpleMeterRegistry(),
+						new CollectionWindowCache(settings)),
+				settings);
+	}
+
+	private static CsrGraph graph(int nodes, int edges, Random random, int extraNodes) {
+		CsrGraph.Builder builder = CsrGraph.builder(nodes + extraNodes, edges + extraNodes);
+		for (long id = 1; id <= nodes + extraNodes; id++) {
+			builder.addNode(id);
+		}
+		for (int e = 0; e < edges; e++) {
+			long source = random.nextInt(nodes) + 1;
+			long target = random.nextInt(nodes) + 1;
+			if (source != target) {
+				builder.addEdge(source, target, 0.3 + 0.7 * random.nextDouble());
+			}
+		}
+		for (long id = nodes + 1; id <= nodes + extraNodes; id++) {
+			builder.addEdge(id, 1L, 1.0);
+		}
+		return builder.build();
+	}
+
+	/** Huella fija para el snapshot en disco; las tablas de ranks arrancan vacias y no guardan nada. */
+	private static final class FakeJdbc extends JdbcTemplate {
+		@Override
+		public void execute(String sql) {
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T queryForObject(String sql, RowMapper<T> rowMapper) {
+			return (T) new GraphSnapshotFile.Fingerprint(50, 50, 300, 300, 0, 0, 0.0);
+		}
+
+		@Override
+		public void query(String sql, RowCallbackHandler handler) {
+		}
+
+		@Override
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+				ParameterizedPreparedStatementSetter<T> setter) {
+			return new int[0][];
+		}
+	}
+}
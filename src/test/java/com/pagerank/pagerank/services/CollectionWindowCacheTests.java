@@ -0,0 +1,91 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.pagerank.pagerank.domain.repository.FollowRepository;
+import com.pagerank.pagerank.domain.repository.PersonRepository;
+import com.pagerank.pagerank.services.IngestionService.FollowObservation;
+import com.pagerank.pagerank.services.IngestionService.PersonObservation;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.settings.TestSettings;
+import com.pagerank.pagerank.web.dto.FollowResponse;
+import com.pagerank.pagerank.web.dto.PersonResponse;
+
+class CollectionWindowCacheTests {
+
+	private static final PagerankSettingsProperties SETTINGS = TestSettings.builder().dedupCacheSize(2).build();
+
+	@Test
+	void duplicatesInsideWindowHitWithoutTouchingTheDatabase() {
+		CollectionWindowCache cache = new CollectionWindowCache(SETTINGS);
+		Instant now = Instant.now();
+		assertFalse(cache.isPersonFresh("Ana", now));
+
+		PersonResponse ana = new PersonResponse(7L, "Ana", 0.1, now);
+		cache.recordPerson(ana);
+		assertEquals(Optional.of(ana), cache.freshPerson("  ANA ", now.plusSeconds(60)));
+		assertFalse(cache.isPersonFresh("Ana", now.plus(Duration.ofMinutes(15))));
+
+		cache.recordFollow(new FollowResponse(3L, 1L, 2L, 0.8, now));
+		assertTrue(cache.isFollowFresh(1L, 2L, now.plusSeconds(1)));
+		assertFalse(cache.isFollowFresh(2L, 1L, now.plusSeconds(1)));
+		cache.forgetFollow(1L, 2L);
+		assertFalse(cache.isFollowFresh(1L, 2L, now.plusSeconds(1)));
+
+		CollectionWindowCache.Stats stats = cache.stats();
+		assertEquals(2, stats.hits());
+		assertEquals(4, stats.misses());
+	}
+
+	@Test
+	void expiredAndEldestEntriesAreDropped() {
+		CollectionWindowCache cache = new CollectionWindowCache(SETTINGS);
+		Instant now = Instant.now();
+		cache.recordPerson(new PersonResponse(1L, "old", 0.0, now.minus(Duration.ofMinutes(20))));
+		assertFalse(cache.isPersonFresh("old", now.minus(Duration.ofMinutes(19))));
+		assertEquals(1, cache.stats().expired());
+
+		cache.recordPerson(new PersonResponse(2L, "a", 0.0, now));
+		cache.recordPerson(new PersonResponse(3L, "b", 0.0, now));
+		cache.recordPerson(new PersonResponse(4L, "c", 0.0, now));
+		assertEquals(2, cache.stats().size());
+		assertFalse(cache.isPersonFresh("a", now));
+		assertTrue(cache.isPersonFresh("c", now));
+	}
+
+	@Test
+	void ingestionAnswersWindowHitsWithoutRepositoryCalls() {
+		CollectionWindowCache cache = new CollectionWindowCache(SETTINGS);
+		AtomicInteger calls = new AtomicInteger();
+		IngestionService ingestion = new IngestionService(null, repository(PersonRepository.class, calls),
+				repository(FollowRepository.class, calls), null, null, cache, SETTINGS);
+		Instant now = Instant.now();
+		PersonResponse ana = new PersonResponse(7L, "Ana", 0.1, now);
+		FollowResponse follow = new FollowResponse(3L, 7L, 8L, 0.8, now);
+		cache.recordPerson(ana);
+		cache.recordFollow(follow);
+
+		assertEquals(ana, ingestion.collectPerson(new PersonObservation("ana", 0.5, now.plusSeconds(30))));
+		assertEquals(Optional.of(follow),
+				ingestion.collectFollow(new FollowObservation(7L, 8L, 0.9, now.plusSeconds(30))));
+		assertEquals(0, calls.get());
+	}
+
+	/** Repositorio que solo cuenta invocaciones; un hit del cache no debe llegar a ninguno. */
+	private static <T> T repository(Class<T> type, AtomicInteger calls) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			calls.incrementAndGet();
+			throw new UnsupportedOperationException(method.getName());
+		}));
+	}
+}
@@ -0,0 +1,83 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.settings.TestSettings;
+
+class ContributorIndexTests {
+
+	private static final PagerankSettingsProperties SETTINGS = TestSettings.defaults();
+
+	@Test
+	void incrementalRefreshMatchesFullRebuild() {
+		Random random = new Random(1L);
+		CsrGraph before = graph(300, 2_000, random);
+		double[] scores = randomScores(before.nodeCount(), random);
+		ContributorIndex refreshed = newIndex();
+		refreshed.rebuild(before, scores);
+
+		// Nuevos follows desde dos origenes, una persona nueva y scores que suben y bajan.
+		CsrGraph.Builder builder = CsrGraph.builder(301, before.edgeCount() + 3);
+		for (int i = 0; i < before.nodeCount(); i++) {
+			builder.addNode(before.idAt(i));
+		}
+		builder.addNode(301L);
+		for (int u = 0; u < before.nodeCount(); u++) {
+			for (int e = before.outOffsets()[u]; e < before.outOffsets()[u + 1]; e++) {
+				builder.addEdge(before.idAt(u), before.idAt(before.outTargets()[e]), before.outWeights()[e]);
+			}
+		}
+		builder.addEdge(5L, 301L, 1.0);
+		builder.addEdge(7L, 1L, 0.8);
+		builder.addEdge(301L, 2L, 0.6);
+		CsrGraph after = builder.build();
+		double[] newScores = Arrays.copyOf(scores, after.nodeCount());
+		for (int i = 0; i < 40; i++) {
+			newScores[random.nextInt(after.nodeCount())] *= 0.5 + random.nextDouble();
+		}
+		refreshed.refresh(after, newScores, Set.of(5L, 7L, 301L));
+
+		ContributorIndex rebuilt = newIndex();
+		rebuilt.rebuild(after, newScores);
+		for (int v = 0; v < after.nodeCount(); v++) {
+			assertEquals(rebuilt.top(after.idAt(v)), refreshed.top(after.idAt(v)), "node " + after.idAt(v));
+		}
+	}
+
+	private static ContributorIndex newIndex() {
+		return new ContributorIndex(new GraphStore(null, null, null, SETTINGS), new RankStore(new JdbcTemplate()),
+				SETTINGS);
+	}
+
+	private static CsrGraph graph(int nodes, int edges, Random random) {
+		CsrGraph.Builder builder = CsrGraph.builder(nodes, edges);
+		for (long id = 1; id <= nodes; id++) {
+			builder.addNode(id);
+		}
+		for (int e = 0; e < edges; e++) {
+			long source = random.nextInt(nodes) + 1;
+			long target = (long) (nodes * Math.pow(random.nextDouble(), 2)) + 1;
+			if (source != target) {
+				builder.addEdge(source, target, 0.4 + 0.6 * random.nextDouble());
+			}
+		}
+		return builder.build();
+	}
+
+	private static double[] randomScores(int nodes, Random random) {
+		double[] scores = new double[nodes];
+		for (int i = 0; i < nodes; i++) {
+			scores[i] = random.nextDouble() / nodes;
+		}
+		return scores;
+	}
+}
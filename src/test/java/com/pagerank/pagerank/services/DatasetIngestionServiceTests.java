@@ -0,0 +1,186 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.settings.TestSettings;
+
+class DatasetIngestionServiceTests {
+
+	private static final PagerankSettingsProperties SETTINGS = TestSettings.defaults();
+	private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+	@Test
+	void importFoldsAsciiCaseDedupesAndRefreshesExistingRows() throws Exception {
+		FakeJdbc jdbc = new FakeJdbc();
+		jdbc.persons.put(1L, new Object[] { "Ana", 0.1, Timestamp.from(T0) });
+		jdbc.persons.put(2L, new Object[] { "Zoë", 0.2, Timestamp.from(T0) });
+		jdbc.follows.put(List.of(1L, 2L), new Object[] { 0.6, Timestamp.from(T0) });
+		jdbc.nextId = 3;
+
+		Path dir = Files.createTempDirectory("dataset");
+		Path persons = Files.writeString(dir.resolve("persons.csv"), """
+				id,name,spam_score,last_seen
+				10,ANA,0.4,2026-01-01T01:00:00Z
+				20,ZOë,0.3,2026-01-01T00:05:00Z
+				30,Bruno,0.0,2026-01-01T00:00:00Z
+				31,bruno ,0.9,2026-01-01T00:01:00Z
+				40,ZOË,0.0,2026-01-01T00:00:00Z
+				""");
+		Path follows = Files.writeString(dir.resolve("follows.csv"), """
+				id,source,target,quality,last_seen
+				1,10,20,0.9,2026-01-01T01:00:00Z
+				2,30,10,0.8,2026-01-01T00:00:00Z
+				3,31,10,0.7,2026-01-01T00:02:00Z
+				4,10,30,0.1,2026-01-01T00:00:00Z
+				""");
+
+		DatasetIngestionService.Imported imported = service(jdbc).importRows(persons, follows);
+
+		// ANA y ZOë son filas existentes (mayusculas ASCII); ZOË no, como en lower() de SQLite.
+		assertEquals(2, imported.personsInserted());
+		assertEquals(1, imported.personsUpdated());
+		assertEquals(1, imported.followsInserted());
+		assertEquals(1, imported.followsUpdated());
+		assertEquals(1, imported.followsRejected());
+		assertEquals(List.of("Ana", "Zoë", "Bruno", "ZOË"), jdbc.names());
+
+		// Ana cae fuera de la ventana: se refresca; Zoë no.
+		assertEquals(0.4, (double) jdbc.persons.get(1L)[1]);
+		assertEquals(Timestamp.from(T0.plusSeconds(3_600)), jdbc.persons.get(1L)[2]);
+		assertEquals(0.2, (double) jdbc.persons.get(2L)[1]);
+		assertEquals(Timestamp.from(T0), jdbc.persons.get(2L)[2]);
+
+		// El follow existente se refresca con el spam ya actualizado del origen; Bruno -> Ana se inserta una vez.
+		assertEquals(0.9 * (1.0 - 0.5 * 0.4), (double) jdbc.follows.get(List.of(1L, 2L))[0], 1e-12);
+		assertEquals(0.8, (double) jdbc.follows.get(List.of(3L, 1L))[0], 1e-12);
+		assertEquals(2, jdbc.follows.size());
+	}
+
+	private static DatasetIngestionService service(FakeJdbc jdbc) {
+		IngestionService ingestion = new IngestionService(null, null, null, null, null, null, SETTINGS);
+		return new DatasetIngestionService(ingestion, jdbc, new NoTransactions(), null, null, null, SETTINGS);
+	}
+
+	/** Tablas persons y follows en memoria para las sentencias que usa la carga. */
+	private static final class FakeJdbc extends JdbcTemplate {
+		private final Map<Long, Object[]> persons = new LinkedHashMap<>();
+		private final Map<List<Long>, Object[]> follows = new LinkedHashMap<>();
+		private long nextId = 1;
+
+		List<String> names() {
+			List<String> names = new ArrayList<>();
+			persons.values().forEach(row -> names.add((String) row[0]));
+			return names;
+		}
+
+		@Override
+		public void query(String sql, RowCallbackHandler handler) {
+			List<Object[]> rows = new ArrayList<>();
+			if (sql.startsWith("select id, name, spam_score, last_seen from persons")) {
+				persons.forEach((id, row) -> rows.add(new Object[] { id, row[0], row[1], row[2] }));
+			}
+			else if (sql.startsWith("select src_id, dst_id, last_seen from follows")) {
+				follows.forEach((key, row) -> rows.add(new Object[] { key.get(0), key.get(1), row[1] }));
+			}
+			else {
+				throw new IllegalArgumentException(sql);
+			}
+			try {
+				for (Object[] row : rows) {
+					handler.processRow((ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+							new Class<?>[] { ResultSet.class }, (proxy, method, args) -> row[(Integer) args[0] - 1]));
+				}
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		@Override
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+				ParameterizedPreparedStatementSetter<T> setter) {
+			try {
+				for (T argument : batchArgs) {
+					Object[] params = new Object[8];
+					setter.setValues((PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+							new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+								params[(Integer) args[0]] = args[1];
+								return null;
+							}), argument);
+					apply(sql, params);
+				}
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return new int[0][];
+		}
+
+		@Override
+		public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+			for (Object[] args : batchArgs) {
+				Object[] params = new Object[args.length + 1];
+				System.arraycopy(args, 0, params, 1, args.length);
+				apply(sql, params);
+			}
+			return new int[batchArgs.size()];
+		}
+
+		private void apply(String sql, Object[] p) {
+			if (sql.startsWith("insert into persons")) {
+				persons.put(nextId++, new Object[] { p[1], p[2], p[3] });
+			}
+			else if (sql.startsWith("update persons")) {
+				persons.put((Long) p[3], new Object[] { persons.get((Long) p[3])[0], p[1], p[2] });
+			}
+			else if (sql.startsWith("insert into follows")) {
+				follows.put(List.of((Long) p[1], (Long) p[2]), new Object[] { p[3], p[4] });
+			}
+			else if (sql.startsWith("update follows")) {
+				follows.put(List.of((Long) p[3], (Long) p[4]), new Object[] { p[1], p[2] });
+			}
+			else {
+				throw new IllegalArgumentException(sql);
+			}
+		}
+	}
+
+	private static final class NoTransactions implements PlatformTransactionManager {
+		@Override
+		public TransactionStatus getTransaction(TransactionDefinition definition) {
+			return new SimpleTransactionStatus();
+		}
+
+		@Override
+		public void commit(TransactionStatus status) {
+		}
+
+		@Override
+		public void rollback(TransactionStatus status) {
+		}
+	}
+}
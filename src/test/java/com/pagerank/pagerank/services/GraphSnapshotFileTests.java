@@ -0,0 +1,79 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.settings.TestSettings;
+
+class GraphSnapshotFileTests {
+
+	@Test
+	void roundTripsGraphNamesAndScoresAndRejectsStaleFile() throws Exception {
+		Path dir = Files.createTempDirectory("graph-snapshot");
+		FakeJdbc jdbc = new FakeJdbc();
+		GraphSnapshotFile file = new GraphSnapshotFile(jdbc, settings(dir.resolve("graph.bin").toString()));
+
+		Random random = new Random(3L);
+		CsrGraph.Builder builder = CsrGraph.builder(100, 500);
+		for (long id = 1; id <= 100; id++) {
+			builder.addNode(id * 7);
+		}
+		for (int e = 0; e < 500; e++) {
+			builder.addEdge((random.nextInt(100) + 1) * 7L, (random.nextInt(100) + 1) * 7L, 0.1 + random.nextDouble());
+		}
+		CsrGraph graph = builder.build();
+		String[] names = new String[graph.nodeCount()];
+		double[] scores = new double[graph.nodeCount()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "Persona ñ " + i;
+			scores[i] = i % 10 == 0 ? Double.NaN : random.nextDouble();
+		}
+		file.write(file.fingerprint(), graph, names, scores);
+
+		GraphSnapshotFile.Snapshot restored = file.readIfFresh().orElseThrow();
+		assertArrayEquals(graph.ids(), restored.graph().ids());
+		assertArrayEquals(graph.outOffsets(), restored.graph().outOffsets());
+		assertArrayEquals(graph.outTargets(), restored.graph().outTargets());
+		assertArrayEquals(graph.outWeights(), restored.graph().outWeights());
+		assertArrayEquals(graph.inOffsets(), restored.graph().inOffsets());
+		assertArrayEquals(names, restored.names());
+		assertArrayEquals(scores, restored.scores());
+
+		jdbc.writes++; // un update (p. ej. un renombre del mismo largo) subio el contador de escrituras
+		assertTrue(file.readIfFresh().isEmpty());
+		file.write(file.fingerprint(), graph, names, scores);
+		assertTrue(file.readIfFresh().isPresent());
+		jdbc.follows++; // un follow nuevo despues de escribir el archivo
+		assertTrue(file.readIfFresh().isEmpty());
+	}
+
+	private static PagerankSettingsProperties settings(String snapshotPath) {
+		return TestSettings.builder().graphSnapshotPath(snapshotPath).build();
+	}
+
+	/** Devuelve una huella fija en vez de consultar SQLite; el DDL del contador se ignora. */
+	private static final class FakeJdbc extends JdbcTemplate {
+		private long follows = 500;
+		private long writes;
+
+		@Override
+		public void execute(String sql) {
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T queryForObject(String sql, RowMapper<T> rowMapper) {
+			return (T) new GraphSnapshotFile.Fingerprint(100, 100, follows, follows, writes, 100, 42.0);
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.pagerank.pagerank.engine.ComputationOutcome;
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.engine.PowerIteration;
+import com.pagerank.pagerank.engine.ResidualPush;
+import com.pagerank.pagerank.settings.TestSettings;
+
+class GraphStoreTests {
+
+	private static final double DAMPING = 0.85;
+	private static final double EPSILON = 1e-9;
+
+	@Test
+	void incrementalFollowsMovedEdgeEvenIfCallerOmitsItsSource() throws Exception {
+		GraphStore store = restoredStore(randomGraph(300, 2_000, 11L));
+		CsrGraph before = store.snapshot();
+		ResidualPush engine = new ResidualPush(DAMPING, EPSILON);
+		ResidualPush.State state = engine.initialize(before,
+				new PowerIteration(DAMPING, 1e-14).compute(before, null, 1_000, null).scores());
+
+		// Se mueve una arista de u: u -> a pasa a u -> b, y el llamador solo informa un id ajeno.
+		int u = 0;
+		while (before.outDegree(u) == 0) {
+			u++;
+		}
+		long source = before.idAt(u);
+		long oldTarget = before.idAt(before.outTargets()[before.outOffsets()[u]]);
+		long newTarget = before.idAt(before.nodeCount() - 1);
+		store.removeFollow(source, oldTarget);
+		store.upsertFollow(source, newTarget, 0.8);
+		CsrGraph after = store.snapshot();
+
+		Set<Long> changed = store.changedSources(before, after).orElseThrow();
+		assertTrue(changed.contains(source));
+		assertEquals(Set.of(), store.changedSources(after, after).orElseThrow());
+
+		ComputationOutcome outcome = engine.compute(state, after, changed, null);
+		double[] exact = new PowerIteration(DAMPING, 1e-14).compute(after, null, 1_000, null).scores();
+		double error = 0.0;
+		for (int i = 0; i < after.nodeCount(); i++) {
+			error += Math.abs(exact[i] - outcome.scores()[i]);
+		}
+		assertTrue(outcome.converged());
+		assertTrue(error <= outcome.errorBound() + 1e-12, "error " + error + " > bound " + outcome.errorBound());
+		assertTrue(outcome.errorBound() <= after.nodeCount() * EPSILON);
+	}
+
+	@Test
+	void unknownSnapshotHasNoDiff() throws Exception {
+		GraphStore store = restoredStore(randomGraph(50, 200, 5L));
+		CsrGraph current = store.snapshot();
+		CsrGraph foreign = randomGraph(50, 200, 5L);
+
+		assertTrue(store.changedSources(foreign, current).isEmpty());
+		assertTrue(store.changedSources(null, current).isEmpty());
+	}
+
+	@Test
+	void zeroQualityFollowsStayStoredButNotInSolverSnapshot() throws Exception {
+		GraphStore store = restoredStore(randomGraph(50, 200, 9L));
+		CsrGraph before = store.snapshot();
+		assertSame(before, store.storedGraph());
+		long source = before.idAt(0);
+		long target = before.idAt(1);
+		store.removeFollow(source, target);
+		store.upsertFollow(source, target, 0.0);
+
+		CsrGraph solver = store.snapshot();
+		CsrGraph stored = store.storedGraph();
+		assertEquals(stored.edgeCount() - 1, solver.edgeCount());
+		assertFalse(hasEdge(solver, source, target));
+		assertTrue(hasEdge(stored, source, target));
+		assertArrayEquals(solver.ids(), stored.ids());
+
+		// Sobrevive al snapshot en disco: el store restaurado la sigue mostrando, los motores no.
+		GraphStore restored = restoredStore(stored);
+		assertTrue(hasEdge(restored.storedGraph(), source, target));
+		assertFalse(hasEdge(restored.snapshot(), source, target));
+		assertEquals(solver.edgeCount(), restored.snapshot().edgeCount());
+	}
+
+	private static boolean hasEdge(CsrGraph graph, long sourceId, long targetId) {
+		int source = graph.indexOf(sourceId);
+		for (int e = graph.outOffsets()[source]; e < graph.outOffsets()[source + 1]; e++) {
+			if (graph.idAt(graph.outTargets()[e]) == targetId) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static GraphStore restoredStore(CsrGraph graph) throws Exception {
+		Path dir = Files.createTempDirectory("graph-store");
+		GraphSnapshotFile file = new GraphSnapshotFile(new FakeJdbc(),
+				TestSettings.builder().graphSnapshotPath(dir.resolve("graph.bin").toString()).build());
+		String[] names = new String[graph.nodeCount()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "persona " + i;
+		}
+		file.write(file.fingerprint(), graph, names, new double[graph.nodeCount()]);
+		GraphStore store = new GraphStore(null, null, file, TestSettings.defaults());
+		store.run(null);
+		return store;
+	}
+
+	private static CsrGraph randomGraph(int nodes, int edges, long seed) {
+		Random random = new Random(seed);
+		CsrGraph.Builder builder = CsrGraph.builder(nodes, edges);
+		for (long id = 1; id <= nodes; id++) {
+			builder.addNode(id * 10);
+		}
+		for (int e = 0; e < edges; e++) {
+			long source = (random.nextInt(nodes) + 1) * 10L;
+			long target = (random.nextInt(nodes) + 1) * 10L;
+			if (source != target) {
+				builder.addEdge(source, target, 0.4 + 0.6 * random.nextDouble());
+			}
+		}
+		return builder.build();
+	}
+
+	/** Devuelve una huella fija en vez de consultar SQLite; el DDL del contador se ignora. */
+	private static final class FakeJdbc extends JdbcTemplate {
+		@Override
+		public void execute(String sql) {
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T queryForObject(String sql, RowMapper<T> rowMapper) {
+			return (T) new GraphSnapshotFile.Fingerprint(10, 10, 10, 10, 0, 10, 1.0);
+		}
+	}
+}
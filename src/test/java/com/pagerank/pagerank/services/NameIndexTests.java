@@ -0,0 +1,81 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.settings.TestSettings;
+
+class NameIndexTests {
+
+	private static final PagerankSettingsProperties SETTINGS = TestSettings.defaults();
+
+	@Test
+	void ordersByScoreWithTiesBySlotAndUnrankedLast() throws Exception {
+		CsrGraph.Builder builder = CsrGraph.builder(4, 0);
+		for (long id = 1; id <= 4; id++) {
+			builder.addNode(id);
+		}
+		CsrGraph graph = builder.build();
+		GraphStore store = restoredStore(graph);
+		NameIndex index = new NameIndex(store);
+		// Un score -0.0 y otro 0.0: se ordenan como Double.compare, sin colapsar.
+		index.refresh(new RankSnapshot(1, graph, new double[] { 0.0, 0.4, -0.0, 0.4 }, Instant.now()));
+
+		assertEquals(List.of(2L, 4L, 1L, 3L), ids(index.search(
+				new RankSnapshot(1, graph, new double[] { 0.0, 0.4, -0.0, 0.4 }, Instant.now()), "persona", 10)));
+
+		// Altas sin rank con el mismo snapshot: al final, en la lista global y en la de trigramas.
+		store.addPerson(6, "persona 6");
+		store.addPerson(5, "persona 5");
+		RankSnapshot same = new RankSnapshot(1, graph, new double[] { 0.0, 0.4, -0.0, 0.4 }, Instant.now());
+		assertEquals(List.of(2L, 4L, 1L, 3L, 6L, 5L), ids(index.search(same, "persona", 10)));
+		assertEquals(List.of(2L, 4L, 1L, 3L, 6L, 5L), ids(index.search(same, "", 10)));
+
+		// Un snapshot nuevo reordena todo al publicarse.
+		index.refresh(new RankSnapshot(2, graph, new double[] { 0.1, 0.2, 0.3, 0.4 }, Instant.now()));
+		RankSnapshot next = new RankSnapshot(2, graph, new double[] { 0.1, 0.2, 0.3, 0.4 }, Instant.now());
+		assertEquals(List.of(4L, 3L, 2L, 1L, 6L, 5L), ids(index.search(next, "persona", 10)));
+		assertEquals(List.of(4L, 3L), ids(index.search(next, "", 2)));
+	}
+
+	private static List<Long> ids(List<NameIndex.Match> matches) {
+		return matches.stream().map(NameIndex.Match::personId).toList();
+	}
+
+	private static GraphStore restoredStore(CsrGraph graph) throws Exception {
+		Path dir = Files.createTempDirectory("names");
+		GraphSnapshotFile file = new GraphSnapshotFile(new FakeJdbc(),
+				TestSettings.builder().graphSnapshotPath(dir.resolve("graph.bin").toString()).build());
+		String[] names = new String[graph.nodeCount()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "persona " + graph.idAt(i);
+		}
+		file.write(file.fingerprint(), graph, names, new double[graph.nodeCount()]);
+		GraphStore store = new GraphStore(null, null, file, SETTINGS);
+		store.run(null);
+		return store;
+	}
+
+	/** Huella fija para el snapshot en disco (sin DDL). */
+	private static final class FakeJdbc extends JdbcTemplate {
+		@Override
+		public void execute(String sql) {
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T queryForObject(String sql, RowMapper<T> rowMapper) {
+			return (T) new GraphSnapshotFile.Fingerprint(4, 4, 0, 0, 0, 0, 0.0);
+		}
+	}
+}
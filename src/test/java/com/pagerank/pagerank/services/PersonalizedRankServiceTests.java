@@ -0,0 +1,91 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.settings.PagerankSettingsProperties;
+import com.pagerank.pagerank.settings.TestSettings;
+
+class PersonalizedRankServiceTests {
+
+	private static final PagerankSettingsProperties SETTINGS = TestSettings.defaults();
+
+	@Test
+	void writesOutsideTheReachedNeighbourhoodKeepTheCachedRanking() throws Exception {
+		// Dos componentes: 1 -> 2 -> 3 -> 1 y 10 <-> 11.
+		CsrGraph.Builder builder = CsrGraph.builder(5, 5);
+		for (long id : new long[] { 1, 2, 3, 10, 11 }) {
+			builder.addNode(id);
+		}
+		builder.addEdge(1, 2, 1.0);
+		builder.addEdge(2, 3, 1.0);
+		builder.addEdge(3, 1, 1.0);
+		builder.addEdge(10, 11, 1.0);
+		builder.addEdge(11, 10, 1.0);
+		GraphStore store = restoredStore(builder.build());
+		PersonalizedRankService service = new PersonalizedRankService(store,
+				new RankSnapshots(store, new RankStore(new FakeJdbc()), new NameIndex(store)), SETTINGS);
+
+		PersonalizedRankService.Ranking first = service.rank(List.of(1L), 10);
+		assertFalse(first.cached());
+		assertTrue(service.rank(List.of(1L), 10).cached());
+
+		// Otra componente, y una persona nueva que sigue a la semilla: el push desde 1 no los alcanza.
+		store.upsertFollow(10, 11, 0.5);
+		store.addPerson(20, "nueva");
+		store.upsertFollow(20, 1, 1.0);
+		PersonalizedRankService.Ranking unaffected = service.rank(List.of(1L), 10);
+		assertTrue(unaffected.cached());
+		assertEquals(first.results(), unaffected.results());
+
+		// Una fila alcanzada cambia: se recalcula.
+		store.upsertFollow(2, 1, 1.0);
+		PersonalizedRankService.Ranking recomputed = service.rank(List.of(1L), 10);
+		assertFalse(recomputed.cached());
+		assertNotEquals(first.results(), recomputed.results());
+		assertTrue(service.rank(List.of(1L), 10).cached());
+	}
+
+	private static GraphStore restoredStore(CsrGraph graph) throws Exception {
+		Path dir = Files.createTempDirectory("personalized");
+		GraphSnapshotFile file = new GraphSnapshotFile(new FakeJdbc(),
+				TestSettings.builder().graphSnapshotPath(dir.resolve("graph.bin").toString()).build());
+		String[] names = new String[graph.nodeCount()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "persona " + graph.idAt(i);
+		}
+		file.write(file.fingerprint(), graph, names, new double[graph.nodeCount()]);
+		GraphStore store = new GraphStore(null, null, file, SETTINGS);
+		store.run(null);
+		return store;
+	}
+
+	/** Huella fija para el snapshot en disco (sin DDL) y tabla de ranks vacia. */
+	private static final class FakeJdbc extends JdbcTemplate {
+		@Override
+		public void execute(String sql) {
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T queryForObject(String sql, RowMapper<T> rowMapper) {
+			return (T) new GraphSnapshotFile.Fingerprint(5, 11, 5, 5, 0, 0, 0.0);
+		}
+
+		@Override
+		public void query(String sql, RowCallbackHandler handler) {
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.pagerank.pagerank.engine.CsrGraph;
+
+class RankStoreTests {
+
+	private static final double THRESHOLD = 1e-3;
+
+	@Test
+	void rowsUnderThresholdClearTheirPreviousDelta() {
+		FakeJdbc jdbc = new FakeJdbc();
+		CsrGraph.Builder builder = CsrGraph.builder(3, 0);
+		for (long id = 1; id <= 3; id++) {
+			builder.addNode(id);
+		}
+		CsrGraph graph = builder.build();
+
+		RankStore store = new RankStore(jdbc);
+		assertEquals(3, store.write(graph, new double[] { 0.5, 0.3, 0.2 }, THRESHOLD));
+		assertEquals(2, store.write(graph, new double[] { 0.6, 0.2, 0.2 }, THRESHOLD));
+		assertEquals(0.1, jdbc.deltas.get(1L), 1e-12);
+		assertEquals(-0.1, jdbc.deltas.get(2L), 1e-12);
+		assertEquals(0.0, jdbc.deltas.get(3L));
+
+		// 1 y 2 quedan bajo el umbral: su delta pasa a 0 aunque el score no se reescriba.
+		assertEquals(1, store.write(graph, new double[] { 0.6004, 0.1996, 0.3 }, THRESHOLD));
+		assertEquals(0.6, jdbc.ranks.get(1L), 1e-12);
+		assertEquals(0.0, jdbc.deltas.get(1L));
+		assertEquals(0.0, jdbc.deltas.get(2L));
+		assertEquals(0.1, jdbc.deltas.get(3L), 1e-12);
+
+		// Un cache recargado desde las tablas ve el delta de 3 y lo limpia; despues no escribe nada.
+		RankStore reloaded = new RankStore(jdbc);
+		assertEquals(0, reloaded.write(graph, new double[] { 0.6, 0.2, 0.3 }, THRESHOLD));
+		assertEquals(0.0, jdbc.deltas.get(3L));
+		assertEquals(10, jdbc.deltaWrites);
+		assertEquals(0, reloaded.write(graph, new double[] { 0.6, 0.2, 0.3 }, THRESHOLD));
+		assertEquals(10, jdbc.deltaWrites);
+	}
+
+	/** Tablas ranks y rank_deltas en memoria para las sentencias del store. */
+	private static final class FakeJdbc extends JdbcTemplate {
+		private final Map<Long, Double> ranks = new LinkedHashMap<>();
+		private final Map<Long, Double> deltas = new LinkedHashMap<>();
+		private int deltaWrites;
+
+		@Override
+		public void query(String sql, RowCallbackHandler handler) {
+			List<Object[]> rows = new ArrayList<>();
+			ranks.forEach((id, score) -> rows.add(new Object[] { id, score, deltas.getOrDefault(id, 0.0) }));
+			try {
+				for (Object[] row : rows) {
+					handler.processRow((ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+							new Class<?>[] { ResultSet.class }, (proxy, method, args) -> row[(Integer) args[0] - 1]));
+				}
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		@Override
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+				ParameterizedPreparedStatementSetter<T> setter) {
+			try {
+				for (T argument : batchArgs) {
+					Object[] params = new Object[4];
+					setter.setValues((PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+							new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+								params[(Integer) args[0]] = args[1];
+								return null;
+							}), argument);
+					if (sql.startsWith("insert into ranks")) {
+						ranks.put((Long) params[1], (Double) params[2]);
+					}
+					else {
+						deltas.put((Long) params[1], (Double) params[2]);
+						deltaWrites++;
+					}
+				}
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return new int[0][];
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.pagerank.pagerank.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.pagerank.pagerank.domain.model.PageRankResult;
+import com.pagerank.pagerank.engine.CsrGraph;
+import com.pagerank.pagerank.settings.TestSettings;
+
+class UpdatePlannerTests {
+
+	private final UpdatePlanner planner = new UpdatePlanner(TestSettings.defaults());
+
+	@Test
+	void smallChangePrefersIncrementalWithoutHistory() {
+		UpdatePlanner.Plan plan = planner.plan(ring(1_000), Set.of(1L, 2L), true);
+
+		assertEquals(UpdatePlanner.Strategy.INCREMENTAL, plan.strategy());
+		assertEquals(2, plan.frontierEdges());
+	}
+
+	@Test
+	void learnsAmplificationFromRecentRuns() {
+		CsrGraph graph = ring(1_000);
+		// Incrementales recientes que recorrieron casi todo el grafo por cada arista de frontera.
+		for (int i = 0; i < 4; i++) {
+			planner.record(new PageRankResult("incremental", "residual-push", 500, 0.0, 1_000, true, false,
+					Duration.ofMillis(5), 20_000, 0.0, 100, Instant.now(), Duration.ofMillis(6), Map.of()), 2);
+		}
+		planner.record(new PageRankResult("batch", "jacobi", 10, 0.0, 1_000, true, false,
+				Duration.ofMillis(1), 10_000, null, 1_000, Instant.now(), Duration.ofMillis(2), Map.of()), 0);
+
+		assertEquals(UpdatePlanner.Strategy.BATCH, planner.plan(graph, Set.of(1L, 2L), true).strategy());
+	}
+
+	@Test
+	void staleResidualStateAddsARebaseSweep() {
+		CsrGraph graph = ring(1_000);
+		// Sin historia el throughput es 1 ns por visita: la estimacion en ns es la cuenta de visitas.
+		long ready = planner.plan(graph, Set.of(1L, 2L), true).incrementalEstimate().toNanos();
+		long stale = planner.plan(graph, Set.of(1L, 2L), false).incrementalEstimate().toNanos();
+
+		assertTrue(ready >= graph.nodeCount());
+		assertEquals(graph.edgeCount(), stale - ready, 1.0);
+	}
+
+	@Test
+	void incrementalOverBudgetGoesToResumableBatch() {
+		// Z de 100 ns: el incremental (~N visitas) no entra y no tendria otra ventana.
+		UpdatePlanner resumable = new UpdatePlanner(TestSettings.builder().maxUpdateDuration(Duration.ofNanos(100)).build());
+		UpdatePlanner.Plan plan = resumable.plan(ring(1_000), Set.of(1L, 2L), true);
+		assertTrue(plan.incrementalEstimate().compareTo(plan.batchEstimate()) < 0);
+		assertEquals(UpdatePlanner.Strategy.BATCH, plan.strategy());
+
+		// Sin BATCH_RESUME el batch tambien quedaria cortado: gana el mas barato.
+		UpdatePlanner oneShot = new UpdatePlanner(TestSettings.builder().maxUpdateDuration(Duration.ofNanos(100))
+				.batchResume(false).build());
+		assertEquals(UpdatePlanner.Strategy.INCREMENTAL, oneShot.plan(ring(1_000), Set.of(1L, 2L), true).strategy());
+	}
+
+	private static CsrGraph ring(int nodes) {
+		CsrGraph.Builder builder = CsrGraph.builder(nodes, nodes);
+		for (long id = 1; id <= nodes; id++) {
+			builder.addNode(id);
+		}
+		for (long id = 1; id <= nodes; id++) {
+			builder.addEdge(id, id % nodes + 1, 1.0);
+		}
+		return builder.build();
+	}
+}
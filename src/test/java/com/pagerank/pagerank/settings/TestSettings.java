@@ -0,0 +1,85 @@
+package com.pagerank.pagerank.settings;
+
+import java.time.Duration;
+
+import com.pagerank.pagerank.engine.ScoreStorage;
+import com.pagerank.pagerank.engine.SolverMode;
+import com.pagerank.pagerank.engine.WeightPrecision;
+
+/**
+ * Settings para tests con los defaults de application.properties (sin snapshot en disco); cada
+ * test cambia solo lo que le importa.
+ */
+public final class TestSettings {
+
+	private double damping = 0.85;
+	private double epsilon = 0.000001;
+	private int maxIters = 50;
+	private int kTop = 10;
+	private Duration collectionWindow = Duration.ofMinutes(15);
+	private Duration maxUpdateDuration = Duration.ofMillis(2500);
+	private double followQualityThreshold = 0.5;
+	private double spamPenalty = 0.5;
+	private String datasetPersons = "persons.csv";
+	private String datasetFollows = "follows.csv";
+	private int batchThreads = 0;
+	private Duration incrementalDebounce = Duration.ofMillis(500);
+	private int incrementalBatchSize = 500;
+	private double rankPersistThreshold = 0.000000001;
+	private SolverMode batchSolver = SolverMode.JACOBI;
+	private double adaptiveFreezeRatio = 0.1;
+	private String graphSnapshotPath = "";
+	private ScoreStorage storage = ScoreStorage.HEAP;
+	private WeightPrecision weightPrecision = WeightPrecision.DOUBLE;
+	private boolean vectorize = false;
+	private int personalizedCacheSize = 256;
+	private long personalizedMaxEdgeVisits = 1_000_000;
+	private int ingestBatchSize = 5_000;
+	private int dedupCacheSize = 100_000;
+	private int runHistorySize = 100;
+	private boolean batchResume = true;
+
+	private TestSettings() {
+	}
+
+	public static TestSettings builder() {
+		return new TestSettings();
+	}
+
+	public static PagerankSettingsProperties defaults() {
+		return builder().build();
+	}
+
+	public TestSettings maxIters(int maxIters) {
+		this.maxIters = maxIters;
+		return this;
+	}
+
+	public TestSettings maxUpdateDuration(Duration maxUpdateDuration) {
+		this.maxUpdateDuration = maxUpdateDuration;
+		return this;
+	}
+
+	public TestSettings graphSnapshotPath(String graphSnapshotPath) {
+		this.graphSnapshotPath = graphSnapshotPath;
+		return this;
+	}
+
+	public TestSettings dedupCacheSize(int dedupCacheSize) {
+		this.dedupCacheSize = dedupCacheSize;
+		return this;
+	}
+
+	public TestSettings batchResume(boolean batchResume) {
+		this.batchResume = batchResume;
+		return this;
+	}
+
+	public PagerankSettingsProperties build() {
+		return new PagerankSettingsProperties(damping, epsilon, maxIters, kTop, collectionWindow, maxUpdateDuration,
+				followQualityThreshold, spamPenalty, datasetPersons, datasetFollows, batchThreads, incrementalDebounce,
+				incrementalBatchSize, rankPersistThreshold, batchSolver, adaptiveFreezeRatio, graphSnapshotPath, storage,
+				weightPrecision, vectorize, personalizedCacheSize, personalizedMaxEdgeVisits, ingestBatchSize,
+				dedupCacheSize, runHistorySize, batchResume);
+	}
+}
@@ -0,0 +1,66 @@
+package com.pagerank.pagerank.engine;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Lazos densos con la Vector API, en el ancho preferido de la plataforma (AVX2: 4 doubles, AVX-512:
+ * 8). Cada lazo recorre bloques de {@code length} carriles con acumuladores por carril y termina
+ * la cola en escalar. Solo se instancia via {@link DenseKernels#select} cuando el modulo esta; es la
+ * unica clase que se compila con {@code --add-modules jdk.incubator.vector}.
+ */
+final class VectorKernels implements DenseKernels {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	/** Filas mas cortas que esto van por el lazo escalar: el gather y la reduccion no se amortizan. */
+	private static final int MIN_GATHER_ROW = 2 * SPECIES.length();
+
+	@Override
+	public String label() {
+		return "simd-" + SPECIES.vectorBitSize();
+	}
+
+	@Override
+	public void add(double[] vector, double value) {
+		int i = 0;
+		for (int bound = SPECIES.loopBound(vector.length); i < bound; i += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, vector, i).add(value).intoArray(vector, i);
+		}
+		for (; i < vector.length; i++) {
+			vector[i] += value;
+		}
+	}
+
+	@Override
+	public double distance(double[] a, double[] b) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		int i = 0;
+		for (int bound = SPECIES.loopBound(a.length); i < bound; i += SPECIES.length()) {
+			acc = acc.add(DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i)).abs());
+		}
+		double total = acc.reduceLanes(VectorOperators.ADD);
+		for (; i < a.length; i++) {
+			total += Math.abs(a[i] - b[i]);
+		}
+		return total;
+	}
+
+	@Override
+	public double gather(double[] weights, int[] indexes, double[] values, int from, int to) {
+		int e = from;
+		double total = 0.0;
+		if (to - from >= MIN_GATHER_ROW) {
+			DoubleVector acc = DoubleVector.zero(SPECIES);
+			for (int bound = from + SPECIES.loopBound(to - from); e < bound; e += SPECIES.length()) {
+				DoubleVector gathered = DoubleVector.fromArray(SPECIES, values, 0, indexes, e);
+				acc = DoubleVector.fromArray(SPECIES, weights, e).fma(gathered, acc);
+			}
+			total = acc.reduceLanes(VectorOperators.ADD);
+		}
+		for (; e < to; e++) {
+			total += weights[e] * values[indexes[e]];
+		}
+		return total;
+	}
+}